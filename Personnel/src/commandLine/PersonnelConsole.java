@@ -88,6 +88,8 @@ public class PersonnelConsole {
         }
 
         PersonnelConsole console = new PersonnelConsole(gestionPersonnel);
+        gestionPersonnel.ajouterEcouteurEchecSauvegarde((entite, erreur) ->
+                System.err.println("La modification de " + entite + " n'a pas pu être enregistrée : " + erreur.getMessage()));
 
         // Boucle d'authentification de l'utilisateur
         Employe utilisateurCourant = null;
@@ -119,5 +121,10 @@ public class PersonnelConsole {
         }
 
         console.start(); // Démarre la console principale après authentification
+        try {
+            gestionPersonnel.sauvegarder(); // Enregistre les modifications en attente avant de quitter
+        } catch (SauvegardeImpossible e) {
+            System.err.println("Erreur lors de la sauvegarde : " + e.getMessage());
+        }
     }
 }
@@ -2,14 +2,11 @@
 package gui;
 
 import personnel.GestionPersonnel;
-import personnel.Employe;
+import personnel.EcouteurPersonnel;
 import personnel.SauvegardeImpossible;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
-import java.util.Comparator;
-import java.util.Set;
 import java.awt.event.HierarchyEvent; 
 
 /**
@@ -19,8 +16,11 @@ import java.awt.event.HierarchyEvent;
 public class EmployeDirectoryPanel extends JPanel {
     private PersonnelGUI mainFrame;
     private JTable employesTable;
-    private DefaultTableModel tableModel;
+    private EmployeTableModel tableModel;
+    private EmployeSearchBar searchBar;
     private JButton backButton;
+    // Ne signale au tableau que les lignes touchées par chaque changement, sur le thread Swing
+    private final EcouteurPersonnel ecouteur = evenement -> searchBar.apply(evenement);
 
 private static final long serialVersionUID = 1L;
 
@@ -39,17 +39,19 @@ private static final long serialVersionUID = 1L;
         titleLabel.setFont(Style.FONT_TITLE);
         titleLabel.setForeground(Style.ACCENT_COLOR);
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        add(titleLabel, BorderLayout.NORTH);
 
-        // Tableau des employés
-        String[] columnNames = {"ID", "Nom", "Prénom", "Mail", "Date Arrivée", "Date Départ"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Les cellules ne sont pas éditables
-            }
-        };
+        // Tableau des employés, lu directement dans l'instantané de l'annuaire (aucune ligne copiée)
+        GestionPersonnel gp = mainFrame.getGestionPersonnel();
+        tableModel = new EmployeTableModel(() -> gp.getInstantane().getEmployes(), false);
+        searchBar = new EmployeSearchBar(tableModel);
+
+        JPanel headerPanel = new JPanel(new BorderLayout(0, 15));
+        headerPanel.setOpaque(false);
+        headerPanel.add(titleLabel, BorderLayout.NORTH);
+        headerPanel.add(searchBar, BorderLayout.SOUTH);
+        add(headerPanel, BorderLayout.NORTH);
         employesTable = new JTable(tableModel);
+        EmployeTableModel.installRenderers(employesTable);
         // Stylisation du tableau
         employesTable.setBackground(Style.SECONDARY_BACKGROUND);
         employesTable.setForeground(Style.TEXT_COLOR);
@@ -80,35 +82,26 @@ private static final long serialVersionUID = 1L;
 
         add(buttonPanel, BorderLayout.SOUTH);
 
-        // Charge les informations des employés lorsque le panneau est affiché
+        // Charge les informations des employés lorsque le panneau est affiché,
+        // puis suit les changements du modèle tant qu'il reste visible
         addHierarchyListener(e -> {
-            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
-                loadEmployeDirectory();
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                if (isShowing()) {
+                    gp.ajouterEcouteur(ecouteur, SwingUtilities::invokeLater);
+                    loadEmployeDirectory();
+                } else {
+                    gp.retirerEcouteur(ecouteur);
+                    searchBar.cancel(); // Inutile de finir un chargement que personne ne verra
+                }
             }
         });
     }
 
     /**
-     * Charge et affiche la liste de tous les employés dans le tableau.
+     * Affiche la liste de tous les employés, déjà triés par nom et prénom.
+     * L'instantané est obtenu (et filtré) en arrière-plan : le thread Swing ne fait qu'afficher les lignes reçues.
      */
     private void loadEmployeDirectory() {
-        tableModel.setRowCount(0); // Efface les lignes existantes
-
-        GestionPersonnel gp = mainFrame.getGestionPersonnel();
-        Set<Employe> allEmployes = gp.getEmployes(); // Récupère tous les employés
-
-        // Trie les employés par nom et prénom
-        allEmployes.stream()
-                .sorted(Comparator.comparing(Employe::getNom).thenComparing(Employe::getPrenom))
-                .forEach(employe -> {
-                    tableModel.addRow(new Object[]{
-                        employe.getId(),
-                        employe.getNom(),
-                        employe.getPrenom(),
-                        employe.getMail(),
-                        employe.getDateArrivee() != null ? employe.getDateArrivee().toString() : "N/A",
-                        employe.getDateDepart() != null ? employe.getDateDepart().toString() : "N/A"
-                    });
-                });
+        searchBar.load();
     }
 }
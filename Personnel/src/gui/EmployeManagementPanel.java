@@ -3,19 +3,12 @@ package gui;
 
 // Si vous avez cette exception
 import personnel.*;
-import java.util.stream.Collectors; 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.HierarchyEvent;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Panneau de gestion des employés d'une ligue spécifique.
@@ -26,36 +19,16 @@ public class EmployeManagementPanel extends JPanel {
     private PersonnelGUI mainFrame;
     private Ligue ligue;
     private JTable employeTable;
-    private DefaultTableModel tableModel;
+    private EmployeTableModel tableModel;
+    private EmployeSearchBar searchBar;
     private JButton addButton;
     private JButton editButton;
     private JButton deleteButton;
     private JButton backButton;
     private JLabel panelTitleLabel;
+    // Les ajouts, modifications et suppressions (depuis ce panneau ou ailleurs) ne touchent qu'une ligne
+    private final EcouteurPersonnel ecouteur = evenement -> searchBar.apply(evenement);
     
-    private void loadEmployes() {
-        tableModel.setRowCount(0); // Efface toutes les lignes existantes du tableau
-
-        // Récupère les employés de la ligue actuelle
-        Set<Employe> employesDeLaLigue = ligue.getEmployes();
-
-        // Trie les employés par nom et prénom pour un affichage cohérent
-        List<Employe> sortedEmployes = employesDeLaLigue.stream()
-                                                        .sorted(Comparator.comparing(Employe::getNom)
-                                                                            .thenComparing(Employe::getPrenom))
-                                                        .collect(Collectors.toList());
-
-        for (Employe employe : sortedEmployes) {
-            tableModel.addRow(new Object[]{
-                employe.getId(),
-                employe.getNom(),
-                employe.getPrenom(),
-                employe.getMail(),
-                employe.getDateArrivee() != null ? employe.getDateArrivee().toString() : "N/A",
-                employe.getDateDepart() != null ? employe.getDateDepart().toString() : "N/A"
-            });
-        }
-    }
     public EmployeManagementPanel(PersonnelGUI mainFrame, Ligue ligue) {
         this.mainFrame = mainFrame;
         this.ligue = ligue;
@@ -69,17 +42,18 @@ public class EmployeManagementPanel extends JPanel {
         panelTitleLabel.setFont(Style.FONT_TITLE);
         panelTitleLabel.setForeground(Style.ACCENT_COLOR);
         panelTitleLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        add(panelTitleLabel, BorderLayout.NORTH);
-
-        // Initialisation du tableau des employés
-        String[] columnNames = {"ID", "Nom", "Prénom", "Email", "Date Arrivée", "Date Départ", "Root"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+
+        // Initialisation du tableau des employés, lu dans l'instantané de la ligue (ou de l'annuaire pour le root)
+        tableModel = new EmployeTableModel(ligue != null ? ligue::getEmployes : () -> mainFrame.getGestionPersonnel().getInstantane().getEmployes(), true);
         employeTable = new JTable(tableModel);
+        searchBar = new EmployeSearchBar(tableModel);
+
+        JPanel headerPanel = new JPanel(new BorderLayout(0, 15));
+        headerPanel.setOpaque(false);
+        headerPanel.add(panelTitleLabel, BorderLayout.NORTH);
+        headerPanel.add(searchBar, BorderLayout.SOUTH);
+        add(headerPanel, BorderLayout.NORTH);
+        EmployeTableModel.installRenderers(employeTable);
         employeTable.setFont(Style.FONT_TEXT);
         employeTable.setBackground(Style.SECONDARY_BACKGROUND);
         employeTable.setForeground(Style.TEXT_COLOR);
@@ -129,33 +103,20 @@ public class EmployeManagementPanel extends JPanel {
 
         // Met à jour le tableau lorsque le panneau est affiché
         addHierarchyListener(e -> {
-            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
-                updateEmployeTable();
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                if (isShowing()) {
+                    mainFrame.getGestionPersonnel().ajouterEcouteur(ecouteur, SwingUtilities::invokeLater);
+                    updateEmployeTable();
+                } else {
+                    mainFrame.getGestionPersonnel().retirerEcouteur(ecouteur);
+                    searchBar.cancel();
+                }
             }
         });
     }
 
     private void updateEmployeTable() {
-        tableModel.setRowCount(0);
-
-        Set<Employe> employes = (ligue != null) ? ligue.getEmployes() : mainFrame.getGestionPersonnel().getEmployes();
-
-        List<Employe> sortedEmployes = employes.stream()
-                .sorted(Comparator.comparing(Employe::getNom).thenComparing(Employe::getPrenom))
-                .collect(Collectors.toList());
-
-        for (Employe emp : sortedEmployes) {
-            Object[] rowData = {
-                    emp.getId(),
-                    emp.getNom(),
-                    emp.getPrenom(),
-                    emp.getMail(),
-                    (emp.getDateArrivee() != null) ? emp.getDateArrivee().toString() : "N/A",
-                    (emp.getDateDepart() != null) ? emp.getDateDepart().toString() : "N/A",
-                    emp.estRoot() ? "Oui" : "Non"
-            };
-            tableModel.addRow(rowData);
-        }
+        searchBar.load(); // Les deux instantanés sont déjà triés par nom puis prénom
     }
 
     private void addEmploye() {
@@ -248,7 +209,6 @@ public class EmployeManagementPanel extends JPanel {
                 );
 
                 JOptionPane.showMessageDialog(addDialog, "Employé '" + nouvelEmploye.getNom() + " " + nouvelEmploye.getPrenom() + "' ajouté avec succès à la ligue " + ligue.getNom() + " !", "Succès", JOptionPane.INFORMATION_MESSAGE);
-                loadEmployes(); // Rafraîchit le tableau des employés
                 addDialog.dispose(); // Ferme la boîte de dialogue
             } catch (DateTimeParseException ex) {
                 JOptionPane.showMessageDialog(addDialog, "Format de date invalide. Utilisez le format AAAA-MM-JJ.", "Erreur de date", JOptionPane.ERROR_MESSAGE);
@@ -278,13 +238,13 @@ public class EmployeManagementPanel extends JPanel {
         }
 
         // Récupère l'ID de l'employé à partir du modèle de table
-        int employeId = (Integer) tableModel.getValueAt(selectedRow, 0);
+        int employeId = tableModel.getElement(selectedRow).getId();
 
             Employe employeToEdit = mainFrame.getGestionPersonnel().getEmploye(employeId);
 
             if (employeToEdit == null) {
                 JOptionPane.showMessageDialog(mainFrame, "Employé introuvable dans le système. Veuillez rafraîchir.", "Erreur", JOptionPane.ERROR_MESSAGE);
-                loadEmployes(); // Tente de rafraîchir
+                updateEmployeTable(); // Tente de rafraîchir
                 return;
             }
 
@@ -391,25 +351,19 @@ public class EmployeManagementPanel extends JPanel {
                     LocalDate dateArrivee = LocalDate.parse(dateArriveeStr);
                     LocalDate dateDepart = dateDepartStr.isEmpty() ? null : LocalDate.parse(dateDepartStr);
 
-                    // Mise à jour de l'objet Employe
-                    employeToEdit.setNom(nom);
-                    employeToEdit.setPrenom(prenom);
-                    
-                    // L'email est mis à jour directement sur l'objet employeToEdit.
-                    // La VÉRIFICATION D'UNICITÉ se fera dans GestionPersonnel.update().
-                    employeToEdit.setMail(mail);
-
+                    // Tous les champs sont validés puis enregistrés en une seule mise à jour
+                    Employe.Modification modification = employeToEdit.modifier()
+                            .nom(nom)
+                            .prenom(prenom)
+                            .mail(mail) // L'unicité de l'email est vérifiée avant toute modification
+                            .dateArrivee(dateArrivee)
+                            .dateDepart(dateDepart);
                     if (!password.isEmpty()) { // Si un nouveau mot de passe est saisi, le mettre à jour
-                        employeToEdit.setPassword(password);
+                        modification.password(password);
                     }
-                    employeToEdit.setDateArrivee(dateArrivee);
-                    employeToEdit.setDateDepart(dateDepart);
-
-                    // Appeler la méthode update de GestionPersonnel
-                    mainFrame.getGestionPersonnel().update(employeToEdit); // C'est ici que EmployeDejaExistantException pourrait être lancée
+                    modification.appliquer();
 
                     JOptionPane.showMessageDialog(editDialog, "Employé '" + employeToEdit.getNom() + " " + employeToEdit.getPrenom() + "' mis à jour avec succès !", "Succès", JOptionPane.INFORMATION_MESSAGE);
-                    loadEmployes(); // Rafraîchit le tableau
                     editDialog.dispose();
                 } catch (DateTimeParseException ex) {
                     JOptionPane.showMessageDialog(editDialog, "Format de date invalide. Utilisez le format AAAA-MM-JJ.", "Erreur de date", JOptionPane.ERROR_MESSAGE);
@@ -441,7 +395,7 @@ public class EmployeManagementPanel extends JPanel {
 
      // Récupère l'ID de l'employé à partir du modèle de table
      // Assurez-vous que la colonne 0 contient bien l'ID de l'employé
-     int employeId = (Integer) tableModel.getValueAt(selectedRow, 0);
+     int employeId = tableModel.getElement(selectedRow).getId();
 
      Employe employeToDelete = null;
      // Tente de récupérer l'objet Employe réel depuis GestionPersonnel
@@ -481,7 +435,6 @@ public class EmployeManagementPanel extends JPanel {
 	                 "Employé supprimé",
 	                 JOptionPane.INFORMATION_MESSAGE);
 
-	         loadEmployes(); // Rafraîchit le tableau après la suppression
 	     } catch (SauvegardeImpossible ex) {
 	         JOptionPane.showMessageDialog(mainFrame, "Erreur lors de la suppression de l'employé : " + ex.getMessage(), "Erreur de sauvegarde", JOptionPane.ERROR_MESSAGE);
 	         ex.printStackTrace();
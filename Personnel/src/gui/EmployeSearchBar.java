@@ -0,0 +1,113 @@
+// Fichier: src/gui/EmployeSearchBar.java
+package gui;
+
+import personnel.Employe;
+import personnel.EvenementPersonnel;
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Barre de recherche d'un tableau d'employés, avec la progression du chargement en cours.
+ * Le chargement et le filtrage sont faits par un {@link TableLoader}, hors du thread Swing ;
+ * un seul chargement est actif à la fois, le précédent étant annulé.
+ */
+class EmployeSearchBar extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int SEARCH_DELAY_MS = 250;
+
+    private final EmployeTableModel tableModel;
+    private final JTextField searchField;
+    private final JProgressBar progressBar;
+    private final Timer searchTimer;
+    private TableLoader<Employe> loader;
+
+    /**
+     * @param tableModel Le modèle du tableau à charger.
+     */
+    EmployeSearchBar(EmployeTableModel tableModel) {
+        super(new BorderLayout(10, 0));
+        this.tableModel = tableModel;
+        setOpaque(false);
+
+        JLabel searchLabel = new JLabel("Rechercher :");
+        searchLabel.setFont(Style.FONT_LABEL);
+        searchLabel.setForeground(Style.TEXT_COLOR);
+        add(searchLabel, BorderLayout.WEST);
+
+        searchField = new JTextField();
+        Style.styleTextField(searchField);
+        add(searchField, BorderLayout.CENTER);
+
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setVisible(false);
+        add(progressBar, BorderLayout.EAST);
+
+        // Relance la recherche une fois la saisie terminée, pas à chaque touche
+        searchTimer = new Timer(SEARCH_DELAY_MS, e -> load());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { searchTimer.restart(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { searchTimer.restart(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { searchTimer.restart(); }
+        });
+    }
+
+    /**
+     * Lance le chargement du tableau avec la recherche saisie, en annulant le chargement précédent.
+     */
+    void load() {
+        cancel();
+        loader = new TableLoader<>(tableModel, filter(searchField.getText()), progressBar);
+        loader.execute();
+    }
+
+    /**
+     * Annule le chargement en cours, par exemple quand le panneau est masqué.
+     */
+    void cancel() {
+        searchTimer.stop();
+        if (loader != null) {
+            loader.cancel(true);
+            loader = null;
+        }
+        progressBar.setVisible(false);
+    }
+
+    /**
+     * Applique un changement du modèle : ligne par ligne sur le tableau complet,
+     * par un nouveau chargement si le tableau est filtré ou si un chargement est en cours
+     * (l'instantané qu'il affichera peut être antérieur à l'événement).
+     * @param evenement L'événement reçu, sur le thread Swing.
+     */
+    void apply(EvenementPersonnel evenement) {
+        if (tableModel.isFiltered() || (loader != null && !loader.isDone())) {
+            searchTimer.restart(); // Regroupe les changements reçus en rafale
+        } else {
+            tableModel.apply(evenement);
+        }
+    }
+
+    /**
+     * Filtre sur le nom, le prénom ou le mail, sans tenir compte de la casse ; null si la recherche est vide.
+     */
+    private static Predicate<Employe> filter(String text) {
+        String recherche = text.trim().toLowerCase(Locale.ROOT);
+        if (recherche.isEmpty()) {
+            return null;
+        }
+        return employe -> contient(employe.getNom(), recherche)
+                || contient(employe.getPrenom(), recherche)
+                || contient(employe.getMail(), recherche);
+    }
+
+    private static boolean contient(String valeur, String recherche) {
+        return valeur != null && valeur.toLowerCase(Locale.ROOT).contains(recherche);
+    }
+}
@@ -0,0 +1,77 @@
+// Fichier: src/gui/EmployeTableModel.java
+package gui;
+
+import personnel.Employe;
+import personnel.EvenementPersonnel;
+import personnel.ListeTriee;
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Modèle virtuel d'un tableau d'employés (ID, Nom, Prénom, Mail, Date Arrivée, Date Départ et, en option, Root).
+ * Les dates restent des LocalDate : elles ne sont converties en texte que pour les lignes affichées.
+ */
+class EmployeTableModel extends SnapshotTableModel<Employe> {
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] COLUMNS = {"ID", "Nom", "Prénom", "Mail", "Date Arrivée", "Date Départ", "Root"};
+
+    /**
+     * @param source Fournit l'instantané des employés à afficher.
+     * @param withRoot true pour ajouter la colonne Root.
+     */
+    EmployeTableModel(Supplier<ListeTriee<Employe>> source, boolean withRoot) {
+        super(source, withRoot ? COLUMNS : Arrays.copyOf(COLUMNS, 6));
+    }
+
+    /**
+     * Installe sur le tableau l'affichage des dates ("N/A" si la date n'est pas renseignée).
+     * @param table Le tableau utilisant ce modèle.
+     */
+    static void installRenderers(JTable table) {
+        table.setDefaultRenderer(LocalDate.class, new DefaultTableCellRenderer() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void setValue(Object value) {
+                setText(value != null ? value.toString() : "N/A");
+            }
+        });
+    }
+
+    @Override
+    protected Object valueOf(Employe employe, int column) {
+        switch (column) {
+            case 0: return employe.getId();
+            case 1: return employe.getNom();
+            case 2: return employe.getPrenom();
+            case 3: return employe.getMail();
+            case 4: return employe.getDateArrivee();
+            case 5: return employe.getDateDepart();
+            default: return employe.estRoot() ? "Oui" : "Non";
+        }
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case 0: return Integer.class;
+            case 4:
+            case 5: return LocalDate.class;
+            default: return String.class;
+        }
+    }
+
+    @Override
+    protected Employe elementOf(EvenementPersonnel evenement) {
+        return evenement.getEmploye();
+    }
+
+    @Override
+    protected void applyOther(EvenementPersonnel evenement) {
+        // Les événements sur les ligues ne changent aucune colonne affichée
+    }
+}
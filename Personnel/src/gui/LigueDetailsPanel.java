@@ -287,7 +287,7 @@ public class LigueDetailsPanel extends JPanel {
      */
     private void changeLigueAdministrator() {
         GestionPersonnel gp = mainFrame.getGestionPersonnel();
-        Set<Employe> allEmployes = gp.getEmployes();
+        Set<Employe> allEmployes = gp.getEmployes(); // Déjà trié par nom et prénom
 
         java.util.List<Employe> eligibleEmployes = new java.util.ArrayList<>();
         for (Employe emp : allEmployes) {
@@ -295,8 +295,6 @@ public class LigueDetailsPanel extends JPanel {
                  eligibleEmployes.add(emp);
             }
         }
-        
-        eligibleEmployes.sort(Comparator.comparing(Employe::getNom).thenComparing(Employe::getPrenom));
 
         if (eligibleEmployes.isEmpty()) {
             JOptionPane.showMessageDialog(mainFrame,
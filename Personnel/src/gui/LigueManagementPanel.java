@@ -6,11 +6,10 @@ import personnel.Ligue;
 import personnel.SauvegardeImpossible;
 import personnel.DroitsInsuffisants;
 import personnel.Employe; // Importation ajoutée pour Employe
+import personnel.EcouteurPersonnel;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
-import java.util.Comparator;
 import java.awt.event.HierarchyEvent; // Importation ajoutée pour HierarchyEvent
 
 /**
@@ -20,10 +19,13 @@ import java.awt.event.HierarchyEvent; // Importation ajoutée pour HierarchyEven
 public class LigueManagementPanel extends JPanel {
     private PersonnelGUI mainFrame;
     private JTable liguesTable;
-    private DefaultTableModel tableModel;
+    private LigueTableModel tableModel;
     private JButton addLigueButton;
     private JButton selectLigueButton;
     private JButton backButton;
+    private JProgressBar progressBar;
+    // Applique chaque changement de ligue à sa seule ligne
+    private final EcouteurPersonnel ecouteur = evenement -> tableModel.apply(evenement);
 
     /**
      * Constructeur du panneau de gestion des ligues.
@@ -43,13 +45,7 @@ public class LigueManagementPanel extends JPanel {
         add(titleLabel, BorderLayout.NORTH);
 
         // Tableau des ligues
-        String[] columnNames = {"ID", "Nom de la Ligue", "Administrateur"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Les cellules ne sont pas éditables directement dans le tableau
-            }
-        };
+        tableModel = new LigueTableModel(mainFrame.getGestionPersonnel()); // Lu dans l'instantané des ligues, déjà triées par nom
         liguesTable = new JTable(tableModel);
         // Stylisation du tableau
         liguesTable.setBackground(Style.SECONDARY_BACKGROUND);
@@ -91,10 +87,20 @@ public class LigueManagementPanel extends JPanel {
 
         add(buttonPanel, BorderLayout.SOUTH);
 
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+        buttonPanel.add(progressBar);
+
         // Met à jour la liste des ligues lorsque le panneau est affiché
         addHierarchyListener(e -> {
-            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
-                loadLigues();
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                if (isShowing()) {
+                    mainFrame.getGestionPersonnel().ajouterEcouteur(ecouteur, SwingUtilities::invokeLater);
+                    loadLigues();
+                } else {
+                    mainFrame.getGestionPersonnel().retirerEcouteur(ecouteur);
+                }
             }
         });
     }
@@ -115,18 +121,8 @@ public class LigueManagementPanel extends JPanel {
             return;
         }
 
-        tableModel.setRowCount(0); // Efface les lignes existantes
-
-        // Récupère les ligues et les trie par nom
-        mainFrame.getGestionPersonnel().getLigues().stream()
-                .sorted(Comparator.comparing(Ligue::getNom))
-                .forEach(ligue -> {
-                    String adminName = "Non défini";
-                    if (ligue.getAdministrateur() != null) {
-                        adminName = ligue.getAdministrateur().getNom() + " " + ligue.getAdministrateur().getPrenom();
-                    }
-                    tableModel.addRow(new Object[]{ligue.getId(), ligue.getNom(), adminName});
-                });
+        // Les ligues sont peu nombreuses : l'instantané est lu en arrière-plan puis affiché d'un coup
+        new TableLoader<>(tableModel, null, progressBar).execute();
     }
 
     /**
@@ -146,7 +142,6 @@ public class LigueManagementPanel extends JPanel {
                         "Ligue '" + nomLigue.trim() + "' ajoutée avec succès !",
                         "Succès",
                         JOptionPane.INFORMATION_MESSAGE);
-                loadLigues(); // Recharger le tableau
             } catch (SauvegardeImpossible e) {
                 JOptionPane.showMessageDialog(mainFrame,
                         "Erreur lors de l'ajout de la ligue : " + e.getMessage(),
@@ -180,7 +175,7 @@ public class LigueManagementPanel extends JPanel {
         }
 
         try {
-            int ligueId = (int) tableModel.getValueAt(selectedRow, 0); // Récupère l'ID de la ligue
+            int ligueId = tableModel.getElement(selectedRow).getId(); // Récupère l'ID de la ligue
             Ligue selectedLigue = mainFrame.getGestionPersonnel().getLigue(ligueId);
 
             if (selectedLigue != null) {
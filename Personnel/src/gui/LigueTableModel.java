@@ -0,0 +1,55 @@
+// Fichier: src/gui/LigueTableModel.java
+package gui;
+
+import personnel.Employe;
+import personnel.EvenementPersonnel;
+import personnel.GestionPersonnel;
+import personnel.Ligue;
+
+/**
+ * Modèle virtuel du tableau des ligues (ID, Nom de la Ligue, Administrateur), lu dans l'instantané des ligues.
+ */
+class LigueTableModel extends SnapshotTableModel<Ligue> {
+    private static final long serialVersionUID = 1L;
+
+    private final GestionPersonnel gestionPersonnel;
+
+    LigueTableModel(GestionPersonnel gestionPersonnel) {
+        super(() -> gestionPersonnel.getInstantane().getLigues(), "ID", "Nom de la Ligue", "Administrateur");
+        this.gestionPersonnel = gestionPersonnel;
+    }
+
+    @Override
+    protected Object valueOf(Ligue ligue, int column) {
+        switch (column) {
+            case 0: return ligue.getId();
+            case 1: return ligue.getNom();
+            default:
+                Employe administrateur = ligue.getAdministrateur();
+                return administrateur != null ? administrateur.getNom() + " " + administrateur.getPrenom() : "Non défini";
+        }
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 0 ? Integer.class : String.class;
+    }
+
+    @Override
+    protected Ligue elementOf(EvenementPersonnel evenement) {
+        return evenement.getEmploye() == null ? evenement.getLigue() : null;
+    }
+
+    @Override
+    protected void applyOther(EvenementPersonnel evenement) {
+        // Seul le nom affiché d'un administrateur peut changer avec un employé
+        if (evenement.getType() == EvenementPersonnel.Type.EMPLOYE_MODIFIE) {
+            for (Ligue ligue : gestionPersonnel.getLiguesAdministrees(evenement.getEmploye())) {
+                int row = rowOf(ligue);
+                if (row != -1) {
+                    fireTableRowsUpdated(row, row);
+                }
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Panneau de connexion de l'application.
@@ -18,6 +19,11 @@ public class LoginPanel extends JPanel {
     private JPasswordField passwordField;
     private JButton loginButton;
     private JLabel messageLabel;
+    // Authentification en cours, null sinon : une seule à la fois, les validations répétées sont ignorées
+    private SwingWorker<Employe, Void> loginWorker;
+    private Timer loginTimeout;
+    // Délai au-delà duquel on rend la main à l'utilisateur si la base ne répond pas
+    private static final int LOGIN_TIMEOUT_MS = 10_000;
 
     /**
      * Constructeur du panneau de connexion.
@@ -116,56 +122,118 @@ public class LoginPanel extends JPanel {
             return;
         }
 
-        try {
-            Employe authenticatedEmploye = mainFrame.getGestionPersonnel().authentifier(username, password);
-            if (authenticatedEmploye != null) {
-                mainFrame.setUtilisateurConnecte(authenticatedEmploye);
-                displayMessage("Authentification réussie pour " + authenticatedEmploye.getNom() + " " + authenticatedEmploye.getPrenom() + " !", Style.SUCCESS_COLOR);
-
-                // Naviguer vers le menu principal après un court délai pour que l'utilisateur voie le message de succès
-                Timer timer = new Timer(1000, new ActionListener() {
-                    @Override
-                    public void actionPerformed(ActionEvent e) {
-                        ((Timer)e.getSource()).stop(); // Arrête le timer
-                        // Initialise et ajoute le MainMenuPanel si ce n'est pas déjà fait
-                        // Une approche plus robuste serait de stocker les panneaux dans un Map
-                        // ou de les créer une fois et de les réinitialiser.
-                        // Pour cet exemple, nous allons l'ajouter si ce n'est pas déjà fait.
-                        // On vérifie si un composant avec le nom MAIN_MENU_PANEL existe déjà
-                        boolean mainMenuPanelExists = false;
-                        for (Component comp : mainFrame.mainPanel.getComponents()) {
-                            if (mainFrame.mainPanel.getLayout() instanceof CardLayout) {
-                                // Il n'y a pas de méthode directe pour obtenir le nom d'une carte
-                                // On suppose que si le composant est un MainMenuPanel, il est celui que l'on cherche.
-                                if (comp instanceof MainMenuPanel) {
-                                    mainMenuPanelExists = true;
-                                    break;
-                                }
-                            }
-                        }
+        if (loginWorker != null) {
+            return; // Une authentification est déjà en cours (Entrée pressée plusieurs fois)
+        }
+
+        // La recherche de l'employé (aller-retour vers la base) et le hachage se font hors du thread Swing
+        setFormEnabled(false);
+        displayMessage("Connexion en cours...", Style.TEXT_COLOR);
+        SwingWorker<Employe, Void> worker = new SwingWorker<Employe, Void>() {
+            @Override
+            protected Employe doInBackground() throws SauvegardeImpossible {
+                return mainFrame.getGestionPersonnel().authentifier(username, password);
+            }
+
+            @Override
+            protected void done() {
+                if (loginWorker != this) {
+                    return; // Délai dépassé : le résultat arrive trop tard et n'est plus attendu
+                }
+                endLogin();
+                try {
+                    loginSucceeded(get());
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof IllegalArgumentException) {
+                        displayMessage("Erreur d'authentification : " + cause.getMessage(), Style.ERROR_COLOR);
+                    } else {
+                        displayMessage("Erreur de base de données lors de l'authentification : " + cause.getMessage(), Style.ERROR_COLOR);
+                        cause.printStackTrace(); // Afficher la stack trace pour le débogage
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        loginWorker = worker;
+        loginTimeout = new Timer(LOGIN_TIMEOUT_MS, e -> {
+            if (loginWorker == worker) {
+                endLogin();
+                worker.cancel(true);
+                displayMessage("Le serveur ne répond pas, veuillez réessayer.", Style.ERROR_COLOR);
+            }
+        });
+        loginTimeout.setRepeats(false);
+        loginTimeout.start();
+        worker.execute();
+    }
 
-                        if (!mainMenuPanelExists) {
-                            MainMenuPanel menuPanel = new MainMenuPanel(mainFrame);
-                            mainFrame.mainPanel.add(menuPanel, PersonnelGUI.MAIN_MENU_PANEL);
+    /**
+     * Termine l'authentification en cours : arrête le délai et réactive le formulaire.
+     */
+    private void endLogin() {
+        loginTimeout.stop();
+        loginWorker = null;
+        setFormEnabled(true);
+    }
+
+    /**
+     * Active ou désactive le formulaire pendant une authentification.
+     */
+    private void setFormEnabled(boolean enabled) {
+        usernameField.setEnabled(enabled);
+        passwordField.setEnabled(enabled);
+        loginButton.setEnabled(enabled);
+    }
+
+    /**
+     * Traite le résultat d'une authentification, sur le thread Swing.
+     * @param authenticatedEmploye L'employé authentifié, ou null si les identifiants sont incorrects.
+     */
+    private void loginSucceeded(Employe authenticatedEmploye) {
+        if (authenticatedEmploye != null) {
+            mainFrame.setUtilisateurConnecte(authenticatedEmploye);
+            displayMessage("Authentification réussie pour " + authenticatedEmploye.getNom() + " " + authenticatedEmploye.getPrenom() + " !", Style.SUCCESS_COLOR);
+
+            // Naviguer vers le menu principal après un court délai pour que l'utilisateur voie le message de succès
+            Timer timer = new Timer(1000, new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    ((Timer)e.getSource()).stop(); // Arrête le timer
+                    // Initialise et ajoute le MainMenuPanel si ce n'est pas déjà fait
+                    // Une approche plus robuste serait de stocker les panneaux dans un Map
+                    // ou de les créer une fois et de les réinitialiser.
+                    // Pour cet exemple, nous allons l'ajouter si ce n'est pas déjà fait.
+                    // On vérifie si un composant avec le nom MAIN_MENU_PANEL existe déjà
+                    boolean mainMenuPanelExists = false;
+                    for (Component comp : mainFrame.mainPanel.getComponents()) {
+                        if (mainFrame.mainPanel.getLayout() instanceof CardLayout) {
+                            // Il n'y a pas de méthode directe pour obtenir le nom d'une carte
+                            // On suppose que si le composant est un MainMenuPanel, il est celui que l'on cherche.
+                            if (comp instanceof MainMenuPanel) {
+                                mainMenuPanelExists = true;
+                                break;
+                            }
                         }
-                        mainFrame.showPanel(PersonnelGUI.MAIN_MENU_PANEL);
-                        // Réinitialiser les champs pour une prochaine connexion (si déconnexion)
-                        usernameField.setText("");
-                        passwordField.setText("");
-                        messageLabel.setText("");
                     }
-                });
-                timer.setRepeats(false); // S'exécute une seule fois
-                timer.start();
 
-            } else {
-                displayMessage("Nom d'utilisateur ou mot de passe incorrect.", Style.ERROR_COLOR);
-            }
-        } catch (IllegalArgumentException ex) {
-            displayMessage("Erreur d'authentification : " + ex.getMessage(), Style.ERROR_COLOR);
-        } catch (SauvegardeImpossible ex) {
-            displayMessage("Erreur de base de données lors de l'authentification : " + ex.getMessage(), Style.ERROR_COLOR);
-            ex.printStackTrace(); // Afficher la stack trace pour le débogage
+                    if (!mainMenuPanelExists) {
+                        MainMenuPanel menuPanel = new MainMenuPanel(mainFrame);
+                        mainFrame.mainPanel.add(menuPanel, PersonnelGUI.MAIN_MENU_PANEL);
+                    }
+                    mainFrame.showPanel(PersonnelGUI.MAIN_MENU_PANEL);
+                    // Réinitialiser les champs pour une prochaine connexion (si déconnexion)
+                    usernameField.setText("");
+                    passwordField.setText("");
+                    messageLabel.setText("");
+                }
+            });
+            timer.setRepeats(false); // S'exécute une seule fois
+            timer.start();
+
+        } else {
+            displayMessage("Nom d'utilisateur ou mot de passe incorrect.", Style.ERROR_COLOR);
         }
     }
 
@@ -10,6 +10,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.HierarchyEvent; // Importation ajoutée
 import java.util.Set;
+import java.util.TreeSet;
 import javax.swing.border.EmptyBorder; // Importation ajoutée
 
 /**
@@ -93,10 +94,16 @@ public class MainMenuPanel extends JPanel {
             addSeparator();
             addMenuItem("Gérer les ligues", e -> manageLigues());
             addMenuItem("Gérer le compte root", e -> manageRootAccount());
-        } else if (utilisateurConnecte.getLigue() != null && utilisateurConnecte.getLigue().getAdministrateur() != null && utilisateurConnecte.getLigue().getAdministrateur().equals(utilisateurConnecte)) {
+        } else {
             // Options spécifiques à l'Administrateur de Ligue (via l'application bureau, mais ici pour la cohérence si on étend)
-            addSeparator();
-            addMenuItem("Gérer les employés de ma ligue (" + utilisateurConnecte.getLigue().getNom() + ")", e -> manageLigueEmployes(utilisateurConnecte.getLigue()));
+            // L'index inverse donne directement les ligues administrées, sans parcourir toutes les ligues
+            Set<Ligue> liguesAdministrees = mainFrame.getGestionPersonnel().getLiguesAdministrees(utilisateurConnecte);
+            if (!liguesAdministrees.isEmpty()) {
+                addSeparator();
+                for (Ligue ligue : new TreeSet<>(liguesAdministrees)) {
+                    addMenuItem("Gérer les employés de ma ligue (" + ligue.getNom() + ")", e -> manageLigueEmployes(ligue));
+                }
+            }
         }
 
         optionsPanel.revalidate();
@@ -158,7 +165,7 @@ public class MainMenuPanel extends JPanel {
             employe.getDateArrivee() != null ? employe.getDateArrivee().toString() : "N/A",
             employe.getDateDepart() != null ? employe.getDateDepart().toString() : "N/A",
             employe.getId(),
-            employe.estRoot() ? "Super-Administrateur" : (employe.getLigue() != null && employe.getLigue().getAdministrateur() != null && employe.getLigue().getAdministrateur().equals(employe) ? "Administrateur de Ligue" : "Employé Standard")
+            employe.estRoot() ? "Super-Administrateur" : (employe.estAdministrateurLigue() ? "Administrateur de Ligue" : "Employé Standard")
         );
         mainFrame.showPanel(PersonnelGUI.EMPLOYE_DETAILS_PANEL);
        // JOptionPane.showMessageDialog(mainFrame, profileInfo, "Mon Profil", JOptionPane.INFORMATION_MESSAGE);
@@ -6,6 +6,8 @@ import personnel.Employe;
 import personnel.SauvegardeImpossible;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
 /**
  * Fenêtre principale de l'application de gestion du personnel.
@@ -45,6 +47,26 @@ public class PersonnelGUI extends JFrame {
         }
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Les échecs d'écriture différée arrivent du thread de fond : affichage sur le thread Swing
+        gestionPersonnel.ajouterEcouteurEchecSauvegarde((entite, erreur) -> SwingUtilities.invokeLater(() ->
+                JOptionPane.showMessageDialog(this,
+                        "La modification de " + entite + " n'a pas pu être enregistrée : " + erreur.getMessage(),
+                        "Erreur de sauvegarde",
+                        JOptionPane.ERROR_MESSAGE)));
+        // Enregistre les modifications en attente avant la fermeture
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                try {
+                    gestionPersonnel.sauvegarder();
+                } catch (SauvegardeImpossible ex) {
+                    JOptionPane.showMessageDialog(PersonnelGUI.this,
+                            "Erreur lors de la sauvegarde : " + ex.getMessage(),
+                            "Erreur de sauvegarde",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
         setSize(1000, 700); // Taille initiale de la fenêtre ajustée pour plus d'espace
         setLocationRelativeTo(null); // Centrer la fenêtre sur l'écran
 
@@ -185,16 +185,15 @@ public class RootAccountPanel extends JPanel {
                 dateDepart = LocalDate.parse(dateDepartStr);
             }
 
-            // Mettre à jour l'objet Employe root
-            rootEmploye.setNom(nom);
-            rootEmploye.setPrenom(prenom);
-            rootEmploye.setMail(mail);
-            rootEmploye.setPassword(password);
-            rootEmploye.setDateArrivee(dateArrivee);
-            rootEmploye.setDateDepart(dateDepart);
-
-            // Appel explicite à la méthode update de GestionPersonnel pour persister les changements
-            mainFrame.getGestionPersonnel().update(rootEmploye); 
+            // Mettre à jour l'objet Employe root en une seule sauvegarde
+            rootEmploye.modifier()
+                    .nom(nom)
+                    .prenom(prenom)
+                    .mail(mail)
+                    .password(password)
+                    .dateArrivee(dateArrivee)
+                    .dateDepart(dateDepart)
+                    .appliquer();
 
             displayMessage("Profil 'root' mis à jour avec succès !", Style.SUCCESS_COLOR);
         } catch (DateTimeParseException e) {
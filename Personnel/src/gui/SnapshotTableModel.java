@@ -0,0 +1,205 @@
+// Fichier: src/gui/SnapshotTableModel.java
+package gui;
+
+import personnel.EvenementPersonnel;
+import personnel.ListeTriee;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Modèle de tableau virtuel lu directement dans un instantané trié du modèle (ListeTriee).
+ * Aucune ligne n'est copiée : chaque cellule est lue à la demande dans l'élément à cette position,
+ * et seules les lignes visibles sont lues par le JTable. L'instantané étant partagé avec
+ * GestionPersonnel, la mémoire occupée par une vue ne dépend pas de la taille de l'annuaire.
+ * <p>
+ * L'instantané est obtenu hors du thread Swing par un {@link TableLoader}, qui peut aussi filtrer
+ * les lignes : le modèle affiche alors les éléments retenus, reçus par blocs.
+ * @param <E> Le type des éléments affichés (Employe ou Ligue).
+ */
+abstract class SnapshotTableModel<E> extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private final Supplier<ListeTriee<E>> source;
+    private final String[] columnNames;
+    private ListeTriee<E> snapshot;
+    // Éléments retenus par le filtre, dans l'ordre de l'instantané ; null si aucun filtre n'est appliqué
+    private List<E> filtered;
+
+    /**
+     * Le tableau est vide tant qu'aucun instantané n'a été chargé.
+     * @param source Fournit l'instantané courant, par exemple gp.getInstantane()::getEmployes ou ligue::getEmployes.
+     * @param columnNames Les titres des colonnes.
+     */
+    SnapshotTableModel(Supplier<ListeTriee<E>> source, String... columnNames) {
+        this.source = source;
+        this.columnNames = columnNames;
+        this.snapshot = new ListeTriee<>(Collections.emptyList(), null);
+    }
+
+    /**
+     * Retourne la source de l'instantané, à appeler hors du thread Swing.
+     */
+    Supplier<ListeTriee<E>> getSource() {
+        return source;
+    }
+
+    /**
+     * Retourne la valeur d'une colonne pour un élément.
+     */
+    protected abstract Object valueOf(E element, int column);
+
+    /**
+     * Retourne l'élément concerné par un événement, ou null si l'événement ne porte pas sur ce type d'élément.
+     */
+    protected abstract E elementOf(EvenementPersonnel evenement);
+
+    /**
+     * Retourne l'élément affiché à une ligne.
+     * @param row La ligne (indice du modèle).
+     */
+    public E getElement(int row) {
+        return filtered != null ? filtered.get(row) : snapshot.get(row);
+    }
+
+    /**
+     * Indique si les lignes affichées sont filtrées : les événements ne sont alors pas appliqués
+     * ligne par ligne, la vue relance le filtre.
+     */
+    public boolean isFiltered() {
+        return filtered != null;
+    }
+
+    /**
+     * Affiche tout un instantané déjà obtenu (thread Swing).
+     * @param loaded L'instantané chargé.
+     */
+    void show(ListeTriee<E> loaded) {
+        snapshot = loaded;
+        filtered = null;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Vide le tableau avant de recevoir les éléments filtrés de l'instantané (thread Swing).
+     * @param loaded L'instantané en cours de filtrage.
+     */
+    void startFiltered(ListeTriee<E> loaded) {
+        snapshot = loaded;
+        filtered = new ArrayList<>();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Ajoute un bloc d'éléments filtrés à la fin du tableau (thread Swing).
+     * @param rows Les éléments, dans l'ordre de l'instantané.
+     */
+    void appendFiltered(List<E> rows) {
+        if (filtered == null || rows.isEmpty()) {
+            return;
+        }
+        int first = filtered.size();
+        filtered.addAll(rows);
+        fireTableRowsInserted(first, filtered.size() - 1);
+    }
+
+    /**
+     * Passe à l'instantané courant après un changement, en ne signalant au JTable que les lignes touchées
+     * lorsque le changement se résume à cet événement. Sinon (plusieurs changements reçus d'un coup),
+     * tout le tableau est signalé comme modifié.
+     * @param evenement L'événement reçu de GestionPersonnel, sur le thread Swing.
+     */
+    public void apply(EvenementPersonnel evenement) {
+        if (filtered != null) {
+            return; // La vue filtrée est recalculée par un nouveau chargement
+        }
+        ListeTriee<E> previous = snapshot;
+        ListeTriee<E> current = source.get();
+        if (current == previous) {
+            return; // Changement sans effet sur cette vue (autre ligue, ou déjà pris en compte)
+        }
+        snapshot = current;
+        E element = elementOf(evenement);
+        if (element == null) {
+            applyOther(evenement);
+            return;
+        }
+        // Seule une modification peut avoir changé la clé de tri de l'élément présent dans l'ancien instantané
+        boolean renamed = evenement.getType() == EvenementPersonnel.Type.EMPLOYE_MODIFIE
+                || evenement.getType() == EvenementPersonnel.Type.LIGUE_RENOMMEE;
+        int before = position(previous, element, renamed);
+        int after = position(current, element, false);
+        if (before == -1 && after != -1 && current.size() == previous.size() + 1) {
+            fireTableRowsInserted(after, after);
+        } else if (before != -1 && after == -1 && current.size() == previous.size() - 1) {
+            fireTableRowsDeleted(before, before);
+        } else if (before != -1 && after != -1 && current.size() == previous.size()) {
+            // Un renommage déplace l'élément : les lignes entre ses deux positions sont décalées d'un cran
+            fireTableRowsUpdated(Math.min(before, after), Math.max(before, after));
+        } else {
+            fireTableDataChanged();
+        }
+    }
+
+    /**
+     * Applique un événement qui ne porte pas sur un élément de cette vue. Par défaut, tout le tableau est redessiné.
+     * @param evenement L'événement, l'instantané étant déjà à jour.
+     */
+    protected void applyOther(EvenementPersonnel evenement) {
+        fireTableDataChanged();
+    }
+
+    /**
+     * Retourne la ligne d'un élément dans l'instantané affiché, ou -1.
+     */
+    protected int rowOf(E element) {
+        return position(snapshot, element, false);
+    }
+
+    /**
+     * Position d'un élément dans un instantané, par dichotomie. Après un renommage, l'ancien instantané
+     * n'est plus trié selon la nouvelle clé de l'élément : il y est alors cherché par identité.
+     */
+    private int position(ListeTriee<E> liste, E element, boolean renamed) {
+        int position = liste.indexOf(element);
+        if (position >= 0 && liste.get(position) == element) {
+            return position;
+        }
+        if (!renamed) {
+            return -1;
+        }
+        for (int i = 0; i < liste.size(); i++) {
+            if (liste.get(i) == element) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getRowCount() {
+        return filtered != null ? filtered.size() : snapshot.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return valueOf(getElement(row), column);
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Les cellules ne sont pas éditables
+    }
+}
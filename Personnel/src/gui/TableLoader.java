@@ -0,0 +1,106 @@
+// Fichier: src/gui/TableLoader.java
+package gui;
+
+import personnel.ListeTriee;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Charge l'instantané d'un tableau hors du thread Swing, et le filtre s'il y a lieu.
+ * Les éléments filtrés sont publiés par blocs : les premières lignes s'affichent avant la fin du parcours,
+ * et le thread Swing ne fait qu'ajouter des blocs prêts au modèle.
+ * Le chargement est annulé par cancel(true), par exemple quand le panneau est masqué.
+ * @param <E> Le type des éléments affichés.
+ */
+class TableLoader<E> extends SwingWorker<ListeTriee<E>, List<E>> {
+    private static final int CHUNK_SIZE = 1000;
+
+    private final SnapshotTableModel<E> model;
+    private final Predicate<E> filter;
+    private final JProgressBar progressBar;
+
+    /**
+     * @param model Le modèle à remplir.
+     * @param filter Le filtre des lignes, ou null pour afficher tout l'instantané.
+     * @param progressBar La barre de progression, affichée pendant le chargement.
+     */
+    TableLoader(SnapshotTableModel<E> model, Predicate<E> filter, JProgressBar progressBar) {
+        this.model = model;
+        this.filter = filter;
+        this.progressBar = progressBar;
+        progressBar.setValue(0);
+        progressBar.setVisible(true);
+        addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName()) && !isCancelled()) {
+                progressBar.setValue((Integer) e.getNewValue());
+            }
+        });
+    }
+
+    @Override
+    protected ListeTriee<E> doInBackground() {
+        // L'instantané est (re)construit ici si le modèle a changé, pas sur le thread Swing
+        ListeTriee<E> snapshot = model.getSource().get();
+        if (filter == null) {
+            return snapshot; // Tableau virtuel : rien à copier ni à trier
+        }
+        publishStart(snapshot);
+        int size = snapshot.size();
+        List<E> chunk = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (isCancelled()) {
+                return null;
+            }
+            E element = snapshot.get(i);
+            if (filter.test(element)) {
+                chunk.add(element);
+            }
+            if ((i + 1) % CHUNK_SIZE == 0) {
+                publish(chunk);
+                chunk = new ArrayList<>();
+                setProgress((int) ((i + 1) * 100L / size));
+            }
+        }
+        publish(chunk);
+        return snapshot;
+    }
+
+    /**
+     * Vide le tableau avant le premier bloc, sur le thread Swing.
+     */
+    private void publishStart(ListeTriee<E> snapshot) {
+        javax.swing.SwingUtilities.invokeLater(() -> {
+            if (!isCancelled()) {
+                model.startFiltered(snapshot);
+            }
+        });
+    }
+
+    @Override
+    protected void process(List<List<E>> chunks) {
+        if (isCancelled()) {
+            return; // Blocs publiés avant l'annulation : la vue a changé depuis
+        }
+        for (List<E> chunk : chunks) {
+            model.appendFiltered(chunk);
+        }
+    }
+
+    @Override
+    protected void done() {
+        if (isCancelled()) {
+            return; // La barre appartient au chargement suivant ou au panneau masqué
+        }
+        progressBar.setVisible(false);
+        if (filter == null) {
+            try {
+                model.show(get());
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package jdbc;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool de connexions JDBC borné, partagé par toutes les sessions (console, GUI, service).
+ * - le nombre de connexions ouvertes est limité à maxSize ;
+ * - chaque connexion est validée avant d'être prêtée ;
+ * - les connexions inactives depuis plus de idleTimeout sont fermées ;
+ * - une connexion empruntée depuis plus de leakThreshold est comptée comme fuite, son site d'emprunt
+ *   est exposé par getLastLeakSite() ;
+ * - le temps d'attente des emprunts est mesuré.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private final String url, user, password;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutNanos;
+    private final long leakThresholdNanos;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    // Connexions disponibles, la plus récemment rendue en tête
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Métriques
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    // Pile d'appel de l'emprunt de la dernière fuite détectée
+    private volatile Throwable lastLeakSite;
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    ConnectionPool(String url, String user, String password, int maxSize, long borrowTimeoutMillis,
+                   long idleTimeoutMillis, long leakThresholdMillis, int validationTimeoutSeconds, int statementCacheSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("La taille du pool doit être positive.");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(leakThresholdMillis);
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jdbc-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMillis = Math.max(1_000, Math.min(idleTimeoutMillis, leakThresholdMillis > 0 ? leakThresholdMillis : idleTimeoutMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeeping, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Crée un pool configuré à partir de la classe Credentials.
+     * @return Le pool de connexions.
+     */
+    static ConnectionPool fromCredentials() {
+        return new ConnectionPool(Credentials.getUrl(), Credentials.getUser(), Credentials.getPassword(),
+                Credentials.getPoolMaxSize(), Credentials.getPoolBorrowTimeoutMillis(),
+                Credentials.getPoolIdleTimeoutMillis(), Credentials.getPoolLeakThresholdMillis(),
+                Credentials.getPoolValidationTimeoutSeconds(), Credentials.getStatementCacheSize());
+    }
+
+    /**
+     * Emprunte une connexion validée, en attendant au plus borrowTimeout si le pool est plein.
+     * @return La connexion empruntée, à fermer pour la rendre au pool.
+     * @throws SQLException Si le délai d'attente est dépassé ou si aucune connexion ne peut être ouverte.
+     */
+    PooledConnection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Le pool de connexions est fermé.");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException("Aucune connexion disponible après " + borrowTimeoutMillis + " ms (pool de " + maxSize + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente d'une connexion interrompue.", e);
+        }
+        recordWait(System.nanoTime() - start);
+        try {
+            PooledConnection connection;
+            while ((connection = pollIdle()) != null) {
+                if (connection.isValid(validationTimeoutSeconds)) {
+                    return checkout(connection);
+                }
+                connection.closePhysical(); // Connexion morte : on en essaie une autre
+                evictedCount.incrementAndGet();
+            }
+            Connection physical = DriverManager.getConnection(url, user, password);
+            connection = new PooledConnection(this, physical,
+                    new StatementCache(physical, statementCacheSize, statementCacheHits, statementCacheMisses));
+            createdCount.incrementAndGet();
+            return checkout(connection);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Rend une connexion au pool. Appelé par PooledConnection.close().
+     */
+    void release(PooledConnection connection) {
+        borrowed.remove(connection);
+        try {
+            connection.reset();
+            connection.lastUsedNanos = System.nanoTime();
+            connection.borrowSite = null;
+            if (closed) {
+                connection.closePhysical();
+            } else {
+                synchronized (idle) {
+                    idle.addFirst(connection);
+                }
+            }
+        } catch (SQLException e) {
+            connection.closePhysical(); // Connexion dans un état incertain : elle n'est pas réutilisée
+            evictedCount.incrementAndGet();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledConnection pollIdle() {
+        synchronized (idle) {
+            return idle.pollFirst();
+        }
+    }
+
+    private PooledConnection checkout(PooledConnection connection) {
+        connection.markBorrowed(leakThresholdNanos > 0 ? new Throwable("Connexion empruntée ici") : null);
+        borrowed.add(connection);
+        borrowCount.incrementAndGet();
+        return connection;
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        long max;
+        while (waitNanos > (max = maxWaitNanos.get()) && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+            // Nouvel essai
+        }
+    }
+
+    /**
+     * Tâche périodique : éviction des connexions inactives et détection des fuites.
+     */
+    private void housekeeping() {
+        long now = System.nanoTime();
+        synchronized (idle) {
+            Iterator<PooledConnection> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                PooledConnection connection = iterator.next();
+                if (now - connection.lastUsedNanos > idleTimeoutNanos) {
+                    iterator.remove();
+                    connection.closePhysical();
+                    evictedCount.incrementAndGet();
+                }
+            }
+        }
+        if (leakThresholdNanos > 0) {
+            for (PooledConnection connection : borrowed) {
+                if (!connection.leakReported && now - connection.borrowedAtNanos > leakThresholdNanos) {
+                    connection.leakReported = true;
+                    leakCount.incrementAndGet();
+                    if (connection.borrowSite != null) {
+                        lastLeakSite = connection.borrowSite;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Ferme le pool : les connexions disponibles sont fermées immédiatement,
+     * les connexions empruntées le seront lorsqu'elles seront rendues.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        synchronized (idle) {
+            for (PooledConnection connection : idle) {
+                connection.closePhysical();
+            }
+            idle.clear();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // --- Métriques ---
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    /**
+     * @return La pile d'appel de l'emprunt de la dernière connexion signalée comme fuite, vide s'il n'y en a pas.
+     */
+    public StackTraceElement[] getLastLeakSite() {
+        Throwable site = lastLeakSite;
+        return site == null ? new StackTraceElement[0] : site.getStackTrace();
+    }
+
+    /**
+     * @return Le premier appel hors du pool dans le site d'emprunt de la dernière fuite, ou null.
+     */
+    private String lastLeakCaller() {
+        for (StackTraceElement element : getLastLeakSite()) {
+            if (!element.getClassName().equals(ConnectionPool.class.getName())) {
+                return element.toString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Le temps d'attente moyen d'un emprunt, en millisecondes.
+     */
+    public double getAverageWaitMillis() {
+        long count = borrowCount.get();
+        return count == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / count;
+    }
+
+    /**
+     * @return Le plus long temps d'attente observé pour un emprunt, en millisecondes.
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    @Override
+    public String toString() {
+        String caller = lastLeakCaller();
+        return String.format("Pool JDBC : %d actives, %d disponibles / %d, %d emprunts, attente moy. %.2f ms, max %.2f ms, %d délais dépassés, %d fuites%s, cache d'instructions %d succès / %d échecs",
+                getActiveCount(), getIdleCount(), maxSize, getBorrowCount(), getAverageWaitMillis(), getMaxWaitMillis(),
+                getTimeoutCount(), getLeakCount(), caller != null ? " (dernière empruntée par " + caller + ")" : "",
+                getStatementCacheHits(), getStatementCacheMisses());
+    }
+}
@@ -9,10 +9,20 @@ public class CredentialsExample
 	private static String database = "";
 	private static String user = "";
 	private static String password = "";
+	// Configuration du pool de connexions
+	private static int poolMaxSize = 10;
+	private static long poolBorrowTimeoutMillis = 5_000;
+	private static long poolIdleTimeoutMillis = 300_000;
+	private static long poolLeakThresholdMillis = 60_000;
+	private static int poolValidationTimeoutSeconds = 2;
+	// Nombre d'instructions préparées gardées en cache par connexion (0 pour désactiver)
+	private static int statementCacheSize = 50;
 	
 	static String getUrl() 
 	{
-		return "jdbc:" + driver + "://" + host + ":" + port + "/" + database ;
+		// useServerPrepStmts : les instructions mises en cache sont préparées côté serveur MySQL
+		// rewriteBatchedStatements : les lots d'insertion sont envoyés en une seule requête multi-lignes
+		return "jdbc:" + driver + "://" + host + ":" + port + "/" + database + "?useServerPrepStmts=true&rewriteBatchedStatements=true";
 	}
 	
 	static String getDriverClassName()
@@ -29,4 +39,34 @@ public class CredentialsExample
 	{
 		return password;
 	}
+
+	static int getPoolMaxSize()
+	{
+		return poolMaxSize;
+	}
+
+	static long getPoolBorrowTimeoutMillis()
+	{
+		return poolBorrowTimeoutMillis;
+	}
+
+	static long getPoolIdleTimeoutMillis()
+	{
+		return poolIdleTimeoutMillis;
+	}
+
+	static long getPoolLeakThresholdMillis()
+	{
+		return poolLeakThresholdMillis;
+	}
+
+	static int getPoolValidationTimeoutSeconds()
+	{
+		return poolValidationTimeoutSeconds;
+	}
+
+	static int getStatementCacheSize()
+	{
+		return statementCacheSize;
+	}
 }
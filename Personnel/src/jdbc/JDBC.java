@@ -3,40 +3,57 @@ package jdbc;
 
 import personnel.*;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JDBC implements Passerelle {
-    private Connection connection;
+    private ConnectionPool pool;
     private GestionPersonnel gestionPersonnel;
-    private HashMap<Integer, Ligue> liguesLoaded;
-    private HashMap<Integer, Employe> employesLoaded;
+    // Maps partagées entre les sessions qui utilisent le pool en parallèle
+    private Map<Integer, Ligue> liguesLoaded;
+    private Map<Integer, Employe> employesLoaded;
 
     public JDBC(GestionPersonnel gestionPersonnel) {
         this.gestionPersonnel = gestionPersonnel;
-        this.liguesLoaded = new HashMap<>();
-        this.employesLoaded = new HashMap<>();
+        this.liguesLoaded = new ConcurrentHashMap<>();
+        this.employesLoaded = new ConcurrentHashMap<>();
         try {
             Class.forName(Credentials.getDriverClassName());
-            connection = DriverManager.getConnection(Credentials.getUrl(), Credentials.getUser(), Credentials.getPassword());
-            initializeDatabaseSchema();
+            pool = ConnectionPool.fromCredentials();
+            try (PooledConnection connection = pool.borrow()) {
+                initializeDatabaseSchema(connection);
+            }
         } catch (ClassNotFoundException e) {
             throw new RuntimeException("Pilote JDBC introuvable : " + e.getMessage(), e);
         } catch (SQLException e) {
+            pool.close();
             throw new RuntimeException("Erreur de connexion à la base de données : " + e.getMessage(), e);
         }
     }
 
-    private void initializeDatabaseSchema() throws SQLException {
+    /**
+     * Retourne le pool de connexions, notamment pour consulter ses métriques.
+     * @return Le pool de connexions.
+     */
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    private void initializeDatabaseSchema(PooledConnection connection) throws SQLException {
         try (Statement statement = connection.createStatement()) {
             statement.executeUpdate("CREATE TABLE IF NOT EXISTS ligue (" +
                                     "id INTEGER PRIMARY KEY AUTO_INCREMENT," +
                                     "nom VARCHAR(255) UNIQUE NOT NULL)");
-            addColumnIfNotExist(statement, "ligue", "administrateur_id", "INTEGER");
+            addColumnIfNotExist(connection, statement, "ligue", "administrateur_id", "INTEGER");
 
             statement.executeUpdate("CREATE TABLE IF NOT EXISTS employe (" +
                                     "id INTEGER PRIMARY KEY AUTO_INCREMENT," +
@@ -46,20 +63,20 @@ public class JDBC implements Passerelle {
                                     "password VARCHAR(255) NOT NULL," +
                                     "ligue_id INTEGER," +
                                     "FOREIGN KEY (ligue_id) REFERENCES ligue(id) ON DELETE SET NULL)");
-            addColumnIfNotExist(statement, "employe", "date_arrivee", "DATE");
-            addColumnIfNotExist(statement, "employe", "date_depart", "DATE");
-            addColumnIfNotExist(statement, "employe", "est_root", "BOOLEAN DEFAULT FALSE");
+            addColumnIfNotExist(connection, statement, "employe", "date_arrivee", "DATE");
+            addColumnIfNotExist(connection, statement, "employe", "date_depart", "DATE");
+            addColumnIfNotExist(connection, statement, "employe", "est_root", "BOOLEAN DEFAULT FALSE");
 
-            if (!indexExists("employe", "idx_mail")) {
+            if (!indexExists(connection, "employe", "idx_mail")) {
                 statement.executeUpdate("CREATE UNIQUE INDEX idx_mail ON employe (mail)");
             }
-            if (!indexExists("ligue", "idx_ligue_nom")) {
+            if (!indexExists(connection, "ligue", "idx_ligue_nom")) {
                 statement.executeUpdate("CREATE UNIQUE INDEX idx_ligue_nom ON ligue (nom)");
             }
         }
     }
 
-    private void addColumnIfNotExist(Statement statement, String tableName, String columnName, String columnType) throws SQLException {
+    private void addColumnIfNotExist(PooledConnection connection, Statement statement, String tableName, String columnName, String columnType) throws SQLException {
         DatabaseMetaData metaData = connection.getMetaData();
         try (ResultSet columns = metaData.getColumns(null, null, tableName, columnName)) {
             if (!columns.next()) {
@@ -68,7 +85,7 @@ public class JDBC implements Passerelle {
         }
     }
 
-    private boolean indexExists(String tableName, String indexName) throws SQLException {
+    private boolean indexExists(PooledConnection connection, String tableName, String indexName) throws SQLException {
         DatabaseMetaData metaData = connection.getMetaData();
         try (ResultSet indexes = metaData.getIndexInfo(null, null, tableName, false, false)) {
             while (indexes.next()) {
@@ -83,7 +100,8 @@ public class JDBC implements Passerelle {
     @Override
     public int insert(Ligue ligue) throws SauvegardeImpossible {
         String sql = "INSERT INTO ligue (nom) VALUES (?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS); // Instruction du cache : ne pas la fermer
             pstmt.setString(1, ligue.getNom());
             pstmt.executeUpdate();
             try (ResultSet rs = pstmt.getGeneratedKeys()) {
@@ -99,18 +117,13 @@ public class JDBC implements Passerelle {
         return -1;
     }
 
+    private static final String INSERT_EMPLOYE = "INSERT INTO employe (nom, prenom, mail, password, date_arrivee, date_depart, ligue_id, est_root) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
     @Override
     public int insert(Employe employe) throws SauvegardeImpossible {
-        String sql = "INSERT INTO employe (nom, prenom, mail, password, date_arrivee, date_depart, ligue_id, est_root) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, employe.getNom());
-            pstmt.setString(2, employe.getPrenom());
-            pstmt.setString(3, employe.getMail());
-            pstmt.setString(4, hashPassword(employe.getPassword()));
-            pstmt.setDate(5, employe.getDateArrivee() != null ? Date.valueOf(employe.getDateArrivee()) : null);
-            pstmt.setDate(6, employe.getDateDepart() != null ? Date.valueOf(employe.getDateDepart()) : null);
-            pstmt.setObject(7, employe.getLigue() != null ? employe.getLigue().getId() : null, Types.INTEGER);
-            pstmt.setBoolean(8, employe.estRoot());
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement pstmt = connection.prepareStatement(INSERT_EMPLOYE, Statement.RETURN_GENERATED_KEYS); // Instruction du cache : ne pas la fermer
+            bindInsert(pstmt, employe);
             pstmt.executeUpdate();
             try (ResultSet rs = pstmt.getGeneratedKeys()) {
                 if (rs.next()) {
@@ -125,52 +138,87 @@ public class JDBC implements Passerelle {
         return -1;
     }
 
-    public String hashPassword(String password) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashedBytes = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hashedBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
+    /**
+     * Insère les employés en un seul lot, dans une transaction.
+     * Les identifiants générés sont retournés dans l'ordre de la liste.
+     */
+    @Override
+    public int[] insertAll(List<Employe> employes) throws SauvegardeImpossible {
+        int[] ids = new int[employes.size()];
+        if (employes.isEmpty()) {
+            return ids;
+        }
+        try (PooledConnection connection = pool.borrow()) {
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement pstmt = connection.prepareStatement(INSERT_EMPLOYE, Statement.RETURN_GENERATED_KEYS); // Instruction du cache : ne pas la fermer
+                for (Employe employe : employes) {
+                    bindInsert(pstmt, employe);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                int count = 0;
+                try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                    while (count < ids.length && rs.next()) {
+                        ids[count++] = rs.getInt(1); // Les clés sont rendues dans l'ordre du lot
+                    }
+                }
+                if (count != ids.length) {
+                    throw new SQLException(count + " identifiants générés pour " + ids.length + " employés insérés.");
                 }
-                hexString.append(hex);
+                connection.commit();
+            } catch (SQLException | SauvegardeImpossible e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Erreur lors du hachage du mot de passe : " + e.getMessage(), e);
+        } catch (SQLException e) {
+            throw new SauvegardeImpossible("Erreur lors de l'insertion groupée des employés : " + e.getMessage(), e);
+        }
+        for (int i = 0; i < ids.length; i++) {
+            employesLoaded.put(ids[i], employes.get(i));
         }
+        return ids;
+    }
+
+    private void bindInsert(PreparedStatement pstmt, Employe employe) throws SQLException, SauvegardeImpossible {
+        pstmt.setString(1, employe.getNom());
+        pstmt.setString(2, employe.getPrenom());
+        pstmt.setString(3, employe.getMail());
+        pstmt.setString(4, hashPassword(employe.getPassword()));
+        pstmt.setDate(5, employe.getDateArrivee() != null ? Date.valueOf(employe.getDateArrivee()) : null);
+        pstmt.setDate(6, employe.getDateDepart() != null ? Date.valueOf(employe.getDateDepart()) : null);
+        pstmt.setObject(7, employe.getLigue() != null ? employe.getLigue().getId() : null, Types.INTEGER);
+        pstmt.setBoolean(8, employe.estRoot());
     }
 
     @Override
     public void close() throws SauvegardeImpossible {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        } catch (SQLException exception) {
-            throw new SauvegardeImpossible(exception);
+        if (pool != null && !pool.isClosed()) {
+            pool.close();
         }
     }
 
     @Override
     public GestionPersonnel getGestionPersonnel() throws SauvegardeImpossible {
-        // Chargement des ligues et employés
+        // Chargement en deux phases : ligues puis employés, les administrateurs étant résolus
+        // à la fin à partir des employés déjà chargés (deux requêtes quel que soit le nombre de ligues)
         liguesLoaded.clear();
         employesLoaded.clear();
+        HashMap<Integer, Integer> administrateursParLigue = new HashMap<>();
         String selectLiguesSql = "SELECT id, nom, administrateur_id FROM ligue";
-        try (Statement stmt = connection.createStatement();
+        try (PooledConnection connection = pool.borrow();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(selectLiguesSql)) {
             while (rs.next()) {
                 int id = rs.getInt("id");
                 String nom = rs.getString("nom");
                 int administrateurId = rs.getInt("administrateur_id");
-                Employe administrateur = null; // Initialisation de l'administrateur
                 if (administrateurId != 0) {
-					 administrateur = getEmploye(administrateurId);// Récupère l'administrateur par ID
+                    administrateursParLigue.put(id, administrateurId); // Résolu après le chargement des employés
                 }
-                Ligue ligue = new Ligue(gestionPersonnel, id, nom, administrateur);
+                Ligue ligue = new Ligue(gestionPersonnel, id, nom);
                 gestionPersonnel.add(ligue);
                 liguesLoaded.put(id, ligue);
             }
@@ -179,74 +227,210 @@ public class JDBC implements Passerelle {
         }
 
         String selectEmployesSql = "SELECT id, nom, prenom, mail, password, date_arrivee, date_depart, ligue_id, est_root FROM employe";
-        try (Statement stmt = connection.createStatement();
+        try (PooledConnection connection = pool.borrow();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(selectEmployesSql)) {
             while (rs.next()) {
-                int id = rs.getInt("id");
-                String nom = rs.getString("nom");
-                String prenom = rs.getString("prenom");
-                String mail = rs.getString("mail");
-                String password = rs.getString("password");
-                LocalDate dateArrivee = rs.getDate("date_arrivee") != null ? rs.getDate("date_arrivee").toLocalDate() : null;
-                LocalDate dateDepart = rs.getDate("date_depart") != null ? rs.getDate("date_depart").toLocalDate() : null;
-                int ligueId = rs.getInt("ligue_id");
-                boolean estRoot = rs.getBoolean("est_root");
-
-                Ligue ligue = liguesLoaded.get(ligueId);
-                Employe employe = new Employe(gestionPersonnel, id, ligue, nom, prenom, mail, password, dateArrivee, dateDepart);
-                if (ligue != null) {
-                    ligue.addEmploye(employe);
-                }
-                employesLoaded.put(id, employe);
-
-                if (estRoot) {
-                    gestionPersonnel.setRoot(employe);
-                    employe.setEstRoot(true);
-                }
+                hydrateEmploye(rs);
             }
         } catch (SQLException e) {
             throw new SauvegardeImpossible("Erreur lors du chargement des employés : " + e.getMessage(), e);
         }
 
+        // Résolution des administrateurs sur les instances déjà chargées (une seule instance par employé)
+        for (Map.Entry<Integer, Integer> entry : administrateursParLigue.entrySet()) {
+            Ligue ligue = liguesLoaded.get(entry.getKey());
+            Employe administrateur = employesLoaded.get(entry.getValue());
+            if (ligue != null && administrateur != null) {
+                ligue.initialiserAdministrateur(administrateur);
+            }
+        }
+
         return gestionPersonnel;
     }
 
+    /**
+     * Met à jour uniquement les colonnes modifiées depuis le dernier enregistrement.
+     * Aucune requête n'est envoyée si rien n'a changé.
+     */
     @Override
     public void update(Ligue ligue) throws SauvegardeImpossible {
-        String sql = "UPDATE ligue SET nom = ?, administrateur_id = ? WHERE id = ?"; // NOM CORRIGÉ
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, ligue.getNom());
-            pstmt.setObject(2, ligue.getAdministrateur() != null ? ligue.getAdministrateur().getId() : null, Types.INTEGER);
-            pstmt.setInt(3, ligue.getId());
+        update(ligue, ligue.getChampsModifies());
+    }
+
+    @Override
+    public void update(Ligue ligue, Set<Ligue.Champ> champs) throws SauvegardeImpossible {
+        if (champs.isEmpty()) {
+            return; // Rien à écrire
+        }
+        StringJoiner sql = new StringJoiner(", ", "UPDATE ligue SET ", " WHERE id = ?");
+        for (Ligue.Champ champ : champs) {
+            sql.add(colonne(champ) + " = ?");
+        }
+        // L'ordre de parcours d'un EnumSet est fixe : chaque combinaison de champs donne le même SQL, réutilisé par le cache
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement pstmt = connection.prepareStatement(sql.toString()); // Instruction du cache : ne pas la fermer
+            int index = 1;
+            for (Ligue.Champ champ : champs) {
+                switch (champ) {
+                    case NOM:
+                        pstmt.setString(index++, ligue.getNom());
+                        break;
+                    case ADMINISTRATEUR:
+                        pstmt.setObject(index++, ligue.getAdministrateur() != null ? ligue.getAdministrateur().getId() : null, Types.INTEGER);
+                        break;
+                }
+            }
+            pstmt.setInt(index, ligue.getId());
             pstmt.executeUpdate();
         } catch (SQLException e) {
             throw new SauvegardeImpossible("Erreur lors de la mise à jour de la ligue : " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Met à jour uniquement les colonnes modifiées depuis le dernier enregistrement.
+     * Aucune requête n'est envoyée si rien n'a changé ; le mot de passe n'est réécrit
+     * (haché, comme à l'insertion) que s'il a été changé.
+     */
     @Override
     public void update(Employe employe) throws SauvegardeImpossible {
-        String sql = "UPDATE employe SET nom = ?, prenom = ?, mail = ?, password = ?, date_arrivee = ?, date_depart = ?, ligue_id = ?, est_root = ? WHERE id = ?"; // NOM CORRIGÉ
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, employe.getNom());
-            pstmt.setString(2, employe.getPrenom());
-            pstmt.setString(3, employe.getMail());
-            pstmt.setString(4, employe.getPassword());
-            pstmt.setDate(5, employe.getDateArrivee() != null ? Date.valueOf(employe.getDateArrivee()) : null);
-            pstmt.setDate(6, employe.getDateDepart() != null ? Date.valueOf(employe.getDateDepart()) : null);
-            pstmt.setObject(7, employe.getLigue() != null ? employe.getLigue().getId() : null, Types.INTEGER);
-            pstmt.setBoolean(8, employe.estRoot()); // Met à jour le statut root
-            pstmt.setInt(9, employe.getId());
+        update(employe, employe.getChampsModifies());
+    }
+
+    @Override
+    public void update(Employe employe, Set<Employe.Champ> champs) throws SauvegardeImpossible {
+        if (champs.isEmpty()) {
+            return; // Rien à écrire
+        }
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement pstmt = connection.prepareStatement(updateSql(champs)); // Instruction du cache : ne pas la fermer
+            bindUpdate(pstmt, employe, champs);
             pstmt.executeUpdate();
         } catch (SQLException e) {
             throw new SauvegardeImpossible("Erreur lors de la mise à jour de l'employé : " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Met à jour les champs modifiés des employés dans une seule transaction.
+     * Les employés ayant les mêmes champs modifiés partagent une requête exécutée en lot.
+     */
+    @Override
+    public void updateAll(Collection<Employe> employes) throws SauvegardeImpossible {
+        Map<Set<Employe.Champ>, List<Employe>> parChamps = new LinkedHashMap<>();
+        for (Employe employe : employes) {
+            Set<Employe.Champ> champs = employe.getChampsModifies();
+            if (!champs.isEmpty()) {
+                parChamps.computeIfAbsent(champs, c -> new ArrayList<>()).add(employe);
+            }
+        }
+        if (parChamps.isEmpty()) {
+            return; // Rien à écrire
+        }
+        try (PooledConnection connection = pool.borrow()) {
+            connection.setAutoCommit(false);
+            try {
+                for (Map.Entry<Set<Employe.Champ>, List<Employe>> groupe : parChamps.entrySet()) {
+                    PreparedStatement pstmt = connection.prepareStatement(updateSql(groupe.getKey())); // Instruction du cache : ne pas la fermer
+                    for (Employe employe : groupe.getValue()) {
+                        bindUpdate(pstmt, employe, groupe.getKey());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException | SauvegardeImpossible e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new SauvegardeImpossible("Erreur lors de la mise à jour groupée des employés : " + e.getMessage(), e);
+        }
+    }
+
+    private static String updateSql(Set<Employe.Champ> champs) {
+        StringJoiner sql = new StringJoiner(", ", "UPDATE employe SET ", " WHERE id = ?");
+        for (Employe.Champ champ : champs) {
+            sql.add(colonne(champ) + " = ?");
+        }
+        return sql.toString();
+    }
+
+    private void bindUpdate(PreparedStatement pstmt, Employe employe, Set<Employe.Champ> champs) throws SQLException, SauvegardeImpossible {
+        int index = 1;
+        for (Employe.Champ champ : champs) {
+            switch (champ) {
+                case NOM:
+                    pstmt.setString(index++, employe.getNom());
+                    break;
+                case PRENOM:
+                    pstmt.setString(index++, employe.getPrenom());
+                    break;
+                case MAIL:
+                    pstmt.setString(index++, employe.getMail());
+                    break;
+                case PASSWORD:
+                    pstmt.setString(index++, hashPassword(employe.getPassword()));
+                    break;
+                case DATE_ARRIVEE:
+                    pstmt.setDate(index++, employe.getDateArrivee() != null ? Date.valueOf(employe.getDateArrivee()) : null);
+                    break;
+                case DATE_DEPART:
+                    pstmt.setDate(index++, employe.getDateDepart() != null ? Date.valueOf(employe.getDateDepart()) : null);
+                    break;
+                case LIGUE:
+                    pstmt.setObject(index++, employe.getLigue() != null ? employe.getLigue().getId() : null, Types.INTEGER);
+                    break;
+                case ROOT:
+                    pstmt.setBoolean(index++, employe.estRoot());
+                    break;
+            }
+        }
+        pstmt.setInt(index, employe.getId());
+    }
+
+    private static String colonne(Ligue.Champ champ) {
+        switch (champ) {
+            case NOM:
+                return "nom";
+            case ADMINISTRATEUR:
+                return "administrateur_id";
+            default:
+                throw new IllegalArgumentException("Champ inconnu : " + champ);
+        }
+    }
+
+    private static String colonne(Employe.Champ champ) {
+        switch (champ) {
+            case NOM:
+                return "nom";
+            case PRENOM:
+                return "prenom";
+            case MAIL:
+                return "mail";
+            case PASSWORD:
+                return "password";
+            case DATE_ARRIVEE:
+                return "date_arrivee";
+            case DATE_DEPART:
+                return "date_depart";
+            case LIGUE:
+                return "ligue_id";
+            case ROOT:
+                return "est_root";
+            default:
+                throw new IllegalArgumentException("Champ inconnu : " + champ);
+        }
+    }
+
     @Override
     public void delete(Ligue ligue) throws SauvegardeImpossible {
         String sql = "DELETE FROM ligue WHERE id = ?"; // NOM CORRIGÉ
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement pstmt = connection.prepareStatement(sql); // Instruction du cache : ne pas la fermer
             pstmt.setInt(1, ligue.getId());
             pstmt.executeUpdate();
             liguesLoaded.remove(ligue.getId()); // Supprime de la map des ligues chargées
@@ -255,10 +439,46 @@ public class JDBC implements Passerelle {
         }
     }
 
+    /**
+     * Supprime la ligue et ses employés dans une seule transaction :
+     * une mise à jour des administrateurs, une suppression des employés, une suppression de la ligue.
+     */
+    @Override
+    public void deleteCascade(Ligue ligue) throws SauvegardeImpossible {
+        try (PooledConnection connection = pool.borrow()) {
+            connection.setAutoCommit(false);
+            try {
+                // Retire les liens d'administrateur vers les employés supprimés, dans toutes les ligues
+                PreparedStatement pstmt = connection.prepareStatement("UPDATE ligue SET administrateur_id = NULL WHERE administrateur_id IN (SELECT id FROM employe WHERE ligue_id = ?)"); // Instruction du cache : ne pas la fermer
+                pstmt.setInt(1, ligue.getId());
+                pstmt.executeUpdate();
+                pstmt = connection.prepareStatement("DELETE FROM employe WHERE ligue_id = ?"); // Instruction du cache : ne pas la fermer
+                pstmt.setInt(1, ligue.getId());
+                pstmt.executeUpdate();
+                pstmt = connection.prepareStatement("DELETE FROM ligue WHERE id = ?"); // Instruction du cache : ne pas la fermer
+                pstmt.setInt(1, ligue.getId());
+                pstmt.executeUpdate();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new SauvegardeImpossible("Erreur lors de la suppression de la ligue et de ses employés : " + e.getMessage(), e);
+        }
+        for (Employe employe : ligue.getEmployes()) {
+            employesLoaded.remove(employe.getId());
+        }
+        liguesLoaded.remove(ligue.getId());
+    }
+
     @Override
     public void delete(Employe employe) throws SauvegardeImpossible {
         String sql = "DELETE FROM employe WHERE id = ?"; // NOM CORRIGÉ
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement pstmt = connection.prepareStatement(sql); // Instruction du cache : ne pas la fermer
             pstmt.setInt(1, employe.getId());
             pstmt.executeUpdate();
             employesLoaded.remove(employe.getId()); // Supprime de la map des employés chargés
@@ -267,29 +487,57 @@ public class JDBC implements Passerelle {
         }
     }
 
+    /**
+     * Supprime les employés en un seul lot, dans une transaction.
+     */
+    @Override
+    public void deleteAll(Collection<Employe> employes) throws SauvegardeImpossible {
+        if (employes.isEmpty()) {
+            return;
+        }
+        try (PooledConnection connection = pool.borrow()) {
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement pstmt = connection.prepareStatement("DELETE FROM employe WHERE id = ?"); // Instruction du cache : ne pas la fermer
+                for (Employe employe : employes) {
+                    pstmt.setInt(1, employe.getId());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new SauvegardeImpossible("Erreur lors de la suppression groupée des employés : " + e.getMessage(), e);
+        }
+        for (Employe employe : employes) {
+            employesLoaded.remove(employe.getId());
+        }
+    }
+
     @Override
     public Employe getEmployeByNom(String nom) throws SauvegardeImpossible {
-        String sql = "SELECT id, nom, prenom, mail, password, date_arrivee, date_depart, ligue_id, est_root FROM employe WHERE nom = ?"; // NOM CORRIGÉ
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        // Cherche d'abord parmi les employés déjà chargés (plus petit ID, comme l'ordre de la clé primaire)
+        Employe trouve = null;
+        for (Employe employe : employesLoaded.values()) {
+            if (nom.equals(employe.getNom()) && (trouve == null || employe.getId() < trouve.getId())) {
+                trouve = employe;
+            }
+        }
+        if (trouve != null) {
+            return trouve;
+        }
+        String sql = "SELECT id, nom, prenom, mail, password, date_arrivee, date_depart, ligue_id, est_root FROM employe WHERE nom = ? ORDER BY id";
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement pstmt = connection.prepareStatement(sql); // Instruction du cache : ne pas la fermer
             pstmt.setString(1, nom);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    int id = rs.getInt("id");
-                    String prenom = rs.getString("prenom");
-                    String mail = rs.getString("mail");
-                    String password = rs.getString("password");
-                    LocalDate dateArrivee = rs.getDate("date_arrivee") != null ? rs.getDate("date_arrivee").toLocalDate() : null;
-                    LocalDate dateDepart = rs.getDate("date_depart") != null ? rs.getDate("date_depart").toLocalDate() : null;
-                    int ligueId = rs.getInt("ligue_id");
-                    boolean estRoot = rs.getBoolean("est_root");
-
-                    Ligue ligue = liguesLoaded.get(ligueId); // Récupère la ligue par son ID
-
-                    Employe employe = new Employe(gestionPersonnel, id, ligue, nom, prenom, mail, password, dateArrivee, dateDepart);
-                    if (estRoot) {
-                        employe.setEstRoot(true);
-                    }
-                    return employe;
+                    return hydrateEmploye(rs);
                 }
             }
         } catch (SQLException e) {
@@ -300,27 +548,18 @@ public class JDBC implements Passerelle {
 
     @Override
     public Employe getEmployeByMail(String mail) throws SauvegardeImpossible {
-        String sql = "SELECT id, nom, prenom, mail, password, date_arrivee, date_depart, ligue_id, est_root FROM employe WHERE mail = ?"; // NOM CORRIGÉ
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        // Les employés chargés sont indexés par mail dans GestionPersonnel
+        Employe charge = gestionPersonnel.getEmploye(mail);
+        if (charge != null) {
+            return charge;
+        }
+        String sql = "SELECT id, nom, prenom, mail, password, date_arrivee, date_depart, ligue_id, est_root FROM employe WHERE mail = ?";
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement pstmt = connection.prepareStatement(sql); // Instruction du cache : ne pas la fermer
             pstmt.setString(1, mail);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    int id = rs.getInt("id");
-                    String nom = rs.getString("nom");
-                    String prenom = rs.getString("prenom");
-                    String password = rs.getString("password");
-                    LocalDate dateArrivee = rs.getDate("date_arrivee") != null ? rs.getDate("date_arrivee").toLocalDate() : null;
-                    LocalDate dateDepart = rs.getDate("date_depart") != null ? rs.getDate("date_depart").toLocalDate() : null;
-                    int ligueId = rs.getInt("ligue_id");
-                    boolean estRoot = rs.getBoolean("est_root");
-
-                    Ligue ligue = liguesLoaded.get(ligueId); // Récupère la ligue par son ID
-
-                    Employe employe = new Employe(gestionPersonnel, id, ligue, nom, prenom, mail, password, dateArrivee, dateDepart);
-                    if (estRoot) {
-                        employe.setEstRoot(true);
-                    }
-                    return employe;
+                    return hydrateEmploye(rs);
                 }
             }
         } catch (SQLException e) {
@@ -331,27 +570,17 @@ public class JDBC implements Passerelle {
 
     @Override
     public Employe getEmploye(int id) throws SauvegardeImpossible {
-        String sql = "SELECT id, nom, prenom, mail, password, date_arrivee, date_depart, ligue_id, est_root FROM employe WHERE id = ?"; // NOM CORRIGÉ
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        Employe charge = employesLoaded.get(id);
+        if (charge != null) {
+            return charge;
+        }
+        String sql = "SELECT id, nom, prenom, mail, password, date_arrivee, date_depart, ligue_id, est_root FROM employe WHERE id = ?";
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement pstmt = connection.prepareStatement(sql); // Instruction du cache : ne pas la fermer
             pstmt.setInt(1, id);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    String nom = rs.getString("nom");
-                    String prenom = rs.getString("prenom");
-                    String mail = rs.getString("mail");
-                    String password = rs.getString("password");
-                    LocalDate dateArrivee = rs.getDate("date_arrivee") != null ? rs.getDate("date_arrivee").toLocalDate() : null;
-                    LocalDate dateDepart = rs.getDate("date_depart") != null ? rs.getDate("date_depart").toLocalDate() : null;
-                    int ligueId = rs.getInt("ligue_id");
-                    boolean estRoot = rs.getBoolean("est_root");
-
-                    Ligue ligue = liguesLoaded.get(ligueId); // Récupère la ligue par son ID
-
-                    Employe employe = new Employe(gestionPersonnel, id, ligue, nom, prenom, mail, password, dateArrivee, dateDepart);
-                    if (estRoot) {
-                        employe.setEstRoot(true);
-                    }
-                    return employe;
+                    return hydrateEmploye(rs);
                 }
             }
         } catch (SQLException e) {
@@ -360,15 +589,52 @@ public class JDBC implements Passerelle {
         return null;
     }
 
+    /**
+     * Retourne l'instance canonique correspondant à la ligne courante du ResultSet.
+     * Si l'employé est déjà chargé, l'instance existante est retournée ; sinon il est construit,
+     * ajouté une seule fois à sa ligue et enregistré dans la map des employés chargés.
+     * @param rs Le ResultSet positionné sur une ligne de la table employe.
+     * @return L'employé correspondant.
+     * @throws SQLException Si une colonne ne peut pas être lue.
+     */
+    private Employe hydrateEmploye(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        Employe existant = employesLoaded.get(id);
+        if (existant != null) {
+            return existant;
+        }
+        String nom = rs.getString("nom");
+        String prenom = rs.getString("prenom");
+        String mail = rs.getString("mail");
+        String password = rs.getString("password");
+        LocalDate dateArrivee = rs.getDate("date_arrivee") != null ? rs.getDate("date_arrivee").toLocalDate() : null;
+        LocalDate dateDepart = rs.getDate("date_depart") != null ? rs.getDate("date_depart").toLocalDate() : null;
+        int ligueId = rs.getInt("ligue_id");
+        boolean estRoot = rs.getBoolean("est_root");
+
+        Ligue ligue = liguesLoaded.get(ligueId);
+        // Le constructeur de chargement n'ajoute pas l'employé à sa ligue : un seul ajout ici
+        Employe employe = new Employe(gestionPersonnel, id, ligue, nom, prenom, mail, password, dateArrivee, dateDepart);
+        if (ligue != null) {
+            ligue.addEmploye(employe);
+        }
+        employesLoaded.put(id, employe);
+
+        if (estRoot && gestionPersonnel.getRoot() == null) {
+            gestionPersonnel.setRoot(employe); // Statut root en mémoire, sans UPDATE
+        }
+        return employe;
+    }
+
     /**
      * Sauvegarde l'état complet de la gestion du personnel.
-     * Pour JDBC, les modifications sont persistées directement, donc cette méthode ferme la connexion.
+     * Pour JDBC, les modifications sont persistées directement, donc cette méthode ferme le pool de connexions.
      * @param gestionPersonnel L'instance de GestionPersonnel à sauvegarder.
      * @throws SauvegardeImpossible Si une erreur de sauvegarde se produit.
      */
     @Override
     public void sauvegarderGestionPersonnel(GestionPersonnel gestionPersonnel) throws SauvegardeImpossible {
-        close(); // Ferme la connexion à la base de données
+        close(); // Ferme le pool de connexions
     }
 
 	@Override
@@ -0,0 +1,114 @@
+package jdbc;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Connexion empruntée au pool. La fermer (try-with-resources) la rend au pool
+ * au lieu de fermer la connexion physique.
+ */
+class PooledConnection implements AutoCloseable {
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final StatementCache statementCache;
+    // Horodatages en nanosecondes (System.nanoTime) pour l'éviction et la détection de fuites
+    long lastUsedNanos;
+    long borrowedAtNanos;
+    // Pile d'appel de l'emprunt, conservée pour signaler une fuite
+    Throwable borrowSite;
+    boolean leakReported;
+    private boolean returned = true;
+
+    PooledConnection(ConnectionPool pool, Connection connection, StatementCache statementCache) {
+        this.pool = pool;
+        this.connection = connection;
+        this.statementCache = statementCache;
+        this.lastUsedNanos = System.nanoTime();
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Retourne une instruction préparée issue du cache de la connexion.
+     * L'instruction ne doit pas être fermée par l'appelant (seuls ses ResultSet le sont).
+     */
+    PreparedStatement prepareStatement(String sql) throws SQLException {
+        return statementCache.prepare(sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return statementCache.prepare(sql, autoGeneratedKeys);
+    }
+
+    Statement createStatement() throws SQLException {
+        return connection.createStatement();
+    }
+
+    DatabaseMetaData getMetaData() throws SQLException {
+        return connection.getMetaData();
+    }
+
+    void setAutoCommit(boolean autoCommit) throws SQLException {
+        connection.setAutoCommit(autoCommit);
+    }
+
+    void commit() throws SQLException {
+        connection.commit();
+    }
+
+    void rollback() throws SQLException {
+        connection.rollback();
+    }
+
+    boolean isValid(int timeoutSeconds) {
+        try {
+            return !connection.isClosed() && connection.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void markBorrowed(Throwable site) {
+        returned = false;
+        borrowedAtNanos = System.nanoTime();
+        borrowSite = site;
+        leakReported = false;
+    }
+
+    /**
+     * Ferme les instructions préparées hors cache et remet la connexion en autocommit
+     * si une transaction a été laissée ouverte.
+     */
+    void reset() throws SQLException {
+        statementCache.closeUncached();
+        if (!connection.getAutoCommit()) {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+    }
+
+    void closePhysical() {
+        statementCache.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // La connexion est abandonnée de toute façon
+        }
+    }
+
+    /**
+     * Rend la connexion au pool. Un second appel est sans effet.
+     */
+    @Override
+    public void close() {
+        if (!returned) {
+            returned = true;
+            pool.release(this);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache LRU des instructions préparées d'une connexion, indexé par texte SQL.
+ * Les instructions retournées appartiennent au cache : l'appelant ne doit pas les fermer.
+ * Elles sont fermées lorsqu'elles sont évincées ou lorsque la connexion est fermée.
+ * Avec une taille nulle (cache désactivé), chaque appel prépare une nouvelle instruction,
+ * qui reste tout de même la propriété du cache et est fermée lorsque la connexion est rendue au pool.
+ */
+class StatementCache {
+    private final Connection connection;
+    private final int maxSize;
+    // Compteurs partagés par toutes les connexions du pool
+    private final AtomicLong hits, misses;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    // Instructions préparées hors cache (taille nulle), fermées au retour de la connexion
+    private final List<PreparedStatement> uncached = new ArrayList<>();
+
+    StatementCache(Connection connection, int maxSize, AtomicLong hits, AtomicLong misses) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true); // Ordre d'accès pour l'éviction LRU
+    }
+
+    /**
+     * Retourne l'instruction préparée pour ce SQL, en la préparant au premier appel.
+     * @param sql Le texte SQL.
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS ou Statement.NO_GENERATED_KEYS.
+     * @return L'instruction, paramètres effacés.
+     * @throws SQLException Si la préparation échoue.
+     */
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        if (maxSize <= 0) {
+            misses.incrementAndGet();
+            PreparedStatement statement = connection.prepareStatement(sql, autoGeneratedKeys);
+            uncached.add(statement);
+            return statement;
+        }
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+        PreparedStatement statement = statements.get(key);
+        if (statement != null && !statement.isClosed()) {
+            hits.incrementAndGet();
+            statement.clearParameters();
+            return statement;
+        }
+        misses.incrementAndGet();
+        statement = connection.prepareStatement(sql, autoGeneratedKeys);
+        statements.put(key, statement);
+        evictIfNeeded();
+        return statement;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, PreparedStatement>> iterator = statements.entrySet().iterator();
+        while (statements.size() > maxSize && iterator.hasNext()) {
+            closeQuietly(iterator.next().getValue());
+            iterator.remove();
+        }
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    /**
+     * Ferme les instructions préparées hors cache depuis l'emprunt de la connexion.
+     */
+    void closeUncached() {
+        for (PreparedStatement statement : uncached) {
+            closeQuietly(statement);
+        }
+        uncached.clear();
+    }
+
+    /**
+     * Ferme toutes les instructions du cache.
+     */
+    void clear() {
+        closeUncached();
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // L'instruction est abandonnée de toute façon
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package personnel;
+
+/**
+ * Écouteur des changements du modèle, enregistré par GestionPersonnel.ajouterEcouteur().
+ * Chaque écouteur est prévenu sur l'exécuteur choisi à l'enregistrement, par exemple
+ * SwingUtilities::invokeLater pour une vue Swing : avec un exécuteur à un seul thread comme celui-ci,
+ * les événements arrivent dans l'ordre où ils ont été publiés.
+ */
+@FunctionalInterface
+public interface EcouteurPersonnel {
+    void changement(EvenementPersonnel evenement);
+}
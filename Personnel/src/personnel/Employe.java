@@ -2,10 +2,22 @@ package personnel;
 
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 public class Employe implements Serializable, Comparable<Employe> {
     private static final long serialVersionUID = 4795721718037994734L;
+    /**
+     * Ordre de l'annuaire : nom, prénom, puis identifiant pour que deux homonymes restent distincts.
+     */
+    public static final Comparator<Employe> ORDRE_ANNUAIRE = (Comparator<Employe> & Serializable) (a, b) -> {
+        int cmp = a.compareTo(b);
+        return cmp != 0 ? cmp : Integer.compare(a.id, b.id);
+    };
     private int id;
     private String nom, prenom, password, mail;
     private Ligue ligue;
@@ -15,6 +27,15 @@ public class Employe implements Serializable, Comparable<Employe> {
     // Ajout d'un champ pour stocker le statut root en mémoire.
     // La persistance est gérée par la colonne 'est_root' dans la BD via JDBC.
     private boolean estRootStatus; 
+    // Champs modifiés depuis le dernier enregistrement, pour que la passerelle n'écrive que ceux-là
+    private EnumSet<Champ> champsModifies = EnumSet.noneOf(Champ.class);
+
+    /**
+     * Champs persistants d'un employé.
+     */
+    public enum Champ {
+        NOM, PRENOM, MAIL, PASSWORD, DATE_ARRIVEE, DATE_DEPART, LIGUE, ROOT
+    }
 
     /**
      * Constructeur pour la création d'un NOUVEL employé (qui sera inséré en base de données).
@@ -58,7 +79,8 @@ public class Employe implements Serializable, Comparable<Employe> {
 
     /**
      * Constructeur pour le chargement d'un employé existant depuis la base de données.
-     * Il ne déclenche PAS d'insertion dans la base de données.
+     * Il ne déclenche PAS d'insertion dans la base de données, et n'ajoute pas l'employé
+     * à sa ligue : c'est à la passerelle de le faire une seule fois avec ligue.addEmploye.
      * @param gestionPersonnel L'instance de GestionPersonnel.
      * @param id L'ID de l'employé dans la base de données.
      * @param ligue La ligue à laquelle l'employé appartient.
@@ -82,11 +104,16 @@ public class Employe implements Serializable, Comparable<Employe> {
         // Le statut root sera défini par la passerelle lors du chargement, via gestionPersonnel.setRoot()
         this.estRootStatus = false; // Initialisé à false, sera mis à jour si c'est le root
         // AUCUN APPEL À gestionPersonnel.insert(this) ici !
-        if (ligue != null) {
-            ligue.addEmploye(this); // Ajoute à la collection d'employés de la ligue
-        }
     }
 
+    /**
+     * Crée un nouvel employé sans l'enregistrer, pour un ajout groupé avec GestionPersonnel.addEmployes().
+     * Son ID reste à -1 jusqu'à l'enregistrement.
+     * @return L'employé, pas encore ajouté à sa ligue.
+     */
+    public static Employe nouveau(GestionPersonnel gestionPersonnel, Ligue ligue, String nom, String prenom, String mail, String password, LocalDate dateArrivee, LocalDate dateDepart) {
+        return new Employe(gestionPersonnel, -1, ligue, nom, prenom, mail, password, dateArrivee, dateDepart);
+    }
 
     // --- Getters ---
     public int getId() {
@@ -137,39 +164,195 @@ public class Employe implements Serializable, Comparable<Employe> {
         return gestionPersonnel;
     }
 
+    /**
+     * Retourne les champs modifiés depuis le dernier enregistrement.
+     * @return Une copie de l'ensemble des champs modifiés, vide si l'employé est à jour.
+     */
+    public Set<Champ> getChampsModifies() {
+        return champsModifies == null ? EnumSet.noneOf(Champ.class) : EnumSet.copyOf(champsModifies);
+    }
+
+    /**
+     * Indique que l'état en mémoire a été enregistré : plus aucun champ n'est modifié.
+     */
+    public void marquerEnregistre() {
+        if (champsModifies != null) {
+            champsModifies.clear();
+        }
+    }
+
+    private void marquer(Champ champ) {
+        if (champsModifies == null) { // Objet désérialisé depuis une ancienne version
+            champsModifies = EnumSet.noneOf(Champ.class);
+        }
+        champsModifies.add(champ);
+    }
+
     // --- Setters ---
     public void setNom(String nom) throws SauvegardeImpossible {
-        this.nom = nom;
-        gestionPersonnel.update(this); // Persiste la modification en base de données
+        if (Objects.equals(nom, this.nom)) {
+            return; // Rien à enregistrer
+        }
+        VerrousParLigue.Verrouillage verrouillage = verrouillerLigue();
+        try {
+            renommer(nom, this.prenom);
+            gestionPersonnel.update(this); // Persiste la modification en base de données
+        } finally {
+            verrouillage.liberer();
+        }
     }
 
     public void setPrenom(String prenom) throws SauvegardeImpossible {
-        this.prenom = prenom;
-        gestionPersonnel.update(this); // Persiste la modification en base de données
+        if (Objects.equals(prenom, this.prenom)) {
+            return; // Rien à enregistrer
+        }
+        VerrousParLigue.Verrouillage verrouillage = verrouillerLigue();
+        try {
+            renommer(this.nom, prenom);
+            gestionPersonnel.update(this); // Persiste la modification en base de données
+        } finally {
+            verrouillage.liberer();
+        }
+    }
+
+    /**
+     * Prend le verrou de la ligue de l'employé, qui sérialise les écritures sur cette ligue
+     * (mémoire et base de données) sans bloquer celles des autres ligues.
+     * Si l'employé change de ligue pendant l'attente, le verrou de sa nouvelle ligue est pris à la place.
+     * @param autres D'autres ligues à verrouiller en même temps (destination d'un transfert).
+     * @return Le verrouillage, à libérer dans un bloc finally.
+     */
+    private VerrousParLigue.Verrouillage verrouillerLigue(Ligue... autres) {
+        while (true) {
+            Ligue courante = ligue;
+            Ligue[] ligues = Arrays.copyOf(autres, autres.length + 1);
+            ligues[autres.length] = courante;
+            VerrousParLigue.Verrouillage verrouillage = gestionPersonnel.verrouiller(ligues);
+            if (courante == ligue) {
+                return verrouillage;
+            }
+            verrouillage.liberer();
+        }
+    }
+
+    /**
+     * Change le nom et le prénom en retirant puis réinsérant l'employé dans les collections triées
+     * qui le contiennent (le nom et le prénom font partie de la clé de tri).
+     * Le tout se fait sous le verrou d'écriture du modèle : un instantané ne peut pas voir l'employé absent.
+     */
+    private void renommer(String nom, String prenom) {
+        Lock verrou = gestionPersonnel.verrouEcriture();
+        verrou.lock();
+        try {
+            boolean dansLigue = ligue != null && ligue.retirerDuTri(this);
+            boolean dansIndex = gestionPersonnel.retirerDuTri(this);
+            if (!Objects.equals(nom, this.nom)) {
+                marquer(Champ.NOM);
+            }
+            if (!Objects.equals(prenom, this.prenom)) {
+                marquer(Champ.PRENOM);
+            }
+            this.nom = nom;
+            this.prenom = prenom;
+            if (dansLigue) {
+                ligue.reinsererDansTri(this);
+            }
+            if (dansIndex) {
+                gestionPersonnel.reinsererDansTri(this);
+            }
+        } finally {
+            verrou.unlock();
+        }
     }
 
     public void setMail(String mail) throws SauvegardeImpossible {
+        VerrousParLigue.Verrouillage verrouillage = verrouillerLigue();
+        try {
+            // Vérification et réindexation sous le verrou global : deux employés de ligues différentes
+            // ne peuvent pas prendre la même adresse en même temps
+            Lock verrou = gestionPersonnel.verrouEcriture();
+            verrou.lock();
+            try {
+                verifierMail(mail);
+                if (Objects.equals(mail, this.mail)) {
+                    return; // Rien à enregistrer
+                }
+                remplacerMail(mail);
+            } finally {
+                verrou.unlock();
+            }
+            gestionPersonnel.update(this); // Persiste la modification en base de données
+        } finally {
+            verrouillage.liberer();
+        }
+    }
+
+    /**
+     * Vérifie que le mail n'est ni utilisé par un autre employé ni réservé par un ajout en cours.
+     * À appeler sous le verrou d'écriture du modèle, jusqu'à remplacerMail.
+     * @throws EmployeDejaExistantException Si le mail est déjà pris.
+     */
+    private void verifierMail(String mail) {
+        if (gestionPersonnel.mailPris(mail, this)) {
+            throw new EmployeDejaExistantException("Un employé avec cet email existe déjà.");
+        }
+    }
+
+    /**
+     * Remplace le mail et maintient l'index des mails à jour, sous le verrou d'écriture du modèle.
+     */
+    private void remplacerMail(String mail) {
+        String ancienMail = this.mail;
         this.mail = mail;
-        gestionPersonnel.update(this); // Persiste la modification en base de données
+        marquer(Champ.MAIL);
+        gestionPersonnel.reindexerMail(this, ancienMail);
     }
 
     public void setPassword(String password) throws SauvegardeImpossible {
         if (password == null || password.trim().isEmpty()) {
             throw new IllegalArgumentException("Le mot de passe ne peut pas être vide.");
         }
-        this.password = password;
-        gestionPersonnel.update(this); // Persiste la modification en base de données
+        VerrousParLigue.Verrouillage verrouillage = verrouillerLigue();
+        try {
+            this.password = password;
+            marquer(Champ.PASSWORD);
+            gestionPersonnel.update(this); // Persiste la modification en base de données
+        } finally {
+            verrouillage.liberer();
+        }
     }
 
     public void setLigue(Ligue ligue) throws SauvegardeImpossible {
-        if (this.ligue != null) {
-            this.ligue.removeEmploye(this); // Retire de l'ancienne ligue
-        }
-        this.ligue = ligue;
-        if (this.ligue != null) {
-            this.ligue.addEmploye(this); // Ajoute à la nouvelle ligue
+        // Verrous de l'ancienne et de la nouvelle ligue, pris dans un ordre fixe : deux transferts
+        // en sens inverse entre les mêmes ligues ne peuvent pas s'interbloquer
+        VerrousParLigue.Verrouillage verrouillage = verrouillerLigue(ligue);
+        try {
+            if (Objects.equals(ligue, this.ligue)) {
+                return; // Rien à enregistrer
+            }
+            Ligue ancienne = this.ligue;
+            // Le transfert est publié d'un bloc : l'employé n'apparaît jamais absent des instantanés
+            Lock verrou = gestionPersonnel.verrouEcriture();
+            verrou.lock();
+            try {
+                if (this.ligue != null) {
+                    this.ligue.removeEmploye(this); // Retire de l'ancienne ligue
+                }
+                this.ligue = ligue;
+                if (this.ligue != null) {
+                    this.ligue.addEmploye(this); // Ajoute à la nouvelle ligue
+                } else {
+                    gestionPersonnel.indexer(this); // Reste recherchable même sans ligue
+                }
+            } finally {
+                verrou.unlock();
+            }
+            marquer(Champ.LIGUE);
+            gestionPersonnel.update(this); // Persiste la modification en base de données
+            gestionPersonnel.publier(EvenementPersonnel.Type.EMPLOYE_DEPLACE, this, ligue, ancienne);
+        } finally {
+            verrouillage.liberer();
         }
-        gestionPersonnel.update(this); // Persiste la modification en base de données
     }
 
     public void setDateArrivee(LocalDate dateArrivee) throws DateInvalideException, SauvegardeImpossible {
@@ -179,16 +362,208 @@ public class Employe implements Serializable, Comparable<Employe> {
         if (this.dateDepart != null && dateArrivee != null && dateArrivee.isAfter(this.dateDepart)) {
             throw new DateInvalideException("La date d'arrivée ne peut pas être après la date de départ.");
         }
-        this.dateArrivee = dateArrivee;
-        gestionPersonnel.update(this); // Persiste la modification en base de données
+        if (!Objects.equals(dateArrivee, this.dateArrivee)) {
+            VerrousParLigue.Verrouillage verrouillage = verrouillerLigue();
+            try {
+                this.dateArrivee = dateArrivee;
+                marquer(Champ.DATE_ARRIVEE);
+                gestionPersonnel.update(this);
+            } finally {
+                verrouillage.liberer();
+            }
+        } // Persiste la modification en base de données
     }
 
     public void setDateDepart(LocalDate dateDepart) throws DateInvalideException, SauvegardeImpossible {
         if (dateDepart != null && this.dateArrivee != null && dateDepart.isBefore(this.dateArrivee)) {
             throw new DateIncoherenteException("La date de départ ne peut pas être avant la date d'arrivée.");
         }
-        this.dateDepart = dateDepart;
-        gestionPersonnel.update(this); // Persiste la modification en base de données
+        if (!Objects.equals(dateDepart, this.dateDepart)) {
+            VerrousParLigue.Verrouillage verrouillage = verrouillerLigue();
+            try {
+                this.dateDepart = dateDepart;
+                marquer(Champ.DATE_DEPART);
+                gestionPersonnel.update(this);
+            } finally {
+                verrouillage.liberer();
+            }
+        } // Persiste la modification en base de données
+    }
+
+    /**
+     * Commence une modification groupée de plusieurs champs. Les valeurs sont toutes
+     * validées avant d'être appliquées, puis enregistrées en une seule mise à jour :
+     * <pre>employe.modifier().nom("Martin").mail("a.martin@gmail.com").appliquer();</pre>
+     * @return La modification, à terminer par appliquer().
+     */
+    public Modification modifier() {
+        return new Modification();
+    }
+
+    /**
+     * Modification groupée des champs d'un employé. Seuls les champs renseignés sont modifiés.
+     */
+    public class Modification {
+        private String nom, prenom, mail, password;
+        private LocalDate dateArrivee, dateDepart;
+        private boolean nomModifie, prenomModifie, mailModifie, passwordModifie, dateArriveeModifiee, dateDepartModifiee;
+
+        private Modification() {
+        }
+
+        public Modification nom(String nom) {
+            this.nom = nom;
+            nomModifie = true;
+            return this;
+        }
+
+        public Modification prenom(String prenom) {
+            this.prenom = prenom;
+            prenomModifie = true;
+            return this;
+        }
+
+        public Modification mail(String mail) {
+            this.mail = mail;
+            mailModifie = true;
+            return this;
+        }
+
+        public Modification password(String password) {
+            this.password = password;
+            passwordModifie = true;
+            return this;
+        }
+
+        public Modification dateArrivee(LocalDate dateArrivee) {
+            this.dateArrivee = dateArrivee;
+            dateArriveeModifiee = true;
+            return this;
+        }
+
+        public Modification dateDepart(LocalDate dateDepart) {
+            this.dateDepart = dateDepart;
+            dateDepartModifiee = true;
+            return this;
+        }
+
+        /**
+         * Valide tous les champs, les applique puis les enregistre en une seule mise à jour.
+         * Si une règle n'est pas respectée, l'employé n'est pas modifié.
+         * Si l'enregistrement échoue, les anciennes valeurs sont restaurées.
+         * @throws SauvegardeImpossible Si une erreur se produit lors de la sauvegarde.
+         * @throws DateInvalideException Si la date d'arrivée est dans le futur ou après la date de départ.
+         * @throws DateIncoherenteException Si la date de départ est avant la date d'arrivée.
+         * @throws EmployeDejaExistantException Si le mail est déjà utilisé par un autre employé.
+         */
+        public void appliquer() throws SauvegardeImpossible {
+            // Validation, affectation et enregistrement sous le verrou de la ligue
+            VerrousParLigue.Verrouillage verrouillage = verrouillerLigue();
+            try {
+                String nouveauNom = nomModifie ? nom : Employe.this.nom;
+                String nouveauPrenom = prenomModifie ? prenom : Employe.this.prenom;
+                String nouveauMail = mailModifie ? mail : Employe.this.mail;
+                LocalDate nouvelleArrivee = dateArriveeModifiee ? dateArrivee : Employe.this.dateArrivee;
+                LocalDate nouveauDepart = dateDepartModifiee ? dateDepart : Employe.this.dateDepart;
+
+                // Validation complète avant toute modification
+                if (passwordModifie && (password == null || password.trim().isEmpty())) {
+                    throw new IllegalArgumentException("Le mot de passe ne peut pas être vide.");
+                }
+                if (dateArriveeModifiee && nouvelleArrivee != null && nouvelleArrivee.isAfter(LocalDate.now())) {
+                    throw new DateInvalideException("La date d'arrivée ne peut pas être dans le futur.");
+                }
+                if (nouvelleArrivee != null && nouveauDepart != null && nouveauDepart.isBefore(nouvelleArrivee)) {
+                    if (dateDepartModifiee) {
+                        throw new DateIncoherenteException("La date de départ ne peut pas être avant la date d'arrivée.");
+                    }
+                    throw new DateInvalideException("La date d'arrivée ne peut pas être après la date de départ.");
+                }
+
+                Etat ancien = new Etat();
+
+                // Le mail est vérifié avec l'affectation, sous le verrou d'écriture, comme dans setMail
+                appliquerValeurs(nouveauNom, nouveauPrenom, nouveauMail, passwordModifie ? password : Employe.this.password,
+                        nouvelleArrivee, nouveauDepart, mailModifie);
+                try {
+                    gestionPersonnel.update(Employe.this); // Un seul enregistrement pour tous les champs
+                } catch (SauvegardeImpossible e) {
+                    ancien.restaurer();
+                    throw e;
+                }
+            } finally {
+                verrouillage.liberer();
+            }
+        }
+    }
+
+    /**
+     * Retient les valeurs actuelles de l'employé, pour les restaurer si une modification échoue.
+     * À appeler sous le verrou de sa ligue.
+     * @return L'état actuel de l'employé.
+     */
+    Etat sauvegarderEtat() {
+        return new Etat();
+    }
+
+    /**
+     * Valeurs des champs modifiables et champs à enregistrer d'un employé, à un instant donné.
+     */
+    final class Etat {
+        private final String nom = Employe.this.nom, prenom = Employe.this.prenom;
+        private final String mail = Employe.this.mail, password = Employe.this.password;
+        private final LocalDate dateArrivee = Employe.this.dateArrivee, dateDepart = Employe.this.dateDepart;
+        private final boolean estRoot = estRootStatus;
+        private final Set<Champ> champs = getChampsModifies();
+
+        private Etat() {
+        }
+
+        /**
+         * Remet l'employé dans cet état, sans rien enregistrer : les champs à enregistrer redeviennent ceux de l'instantané.
+         */
+        void restaurer() {
+            appliquerValeurs(nom, prenom, mail, password, dateArrivee, dateDepart, false);
+            estRootStatus = estRoot;
+            champsModifies = EnumSet.noneOf(Champ.class);
+            champsModifies.addAll(champs);
+        }
+    }
+
+    /**
+     * Affecte les champs en maintenant les collections triées et l'index des mails.
+     * @param verifierMail Vrai pour vérifier d'abord que le mail est libre ; rien n'est modifié sinon.
+     * @throws EmployeDejaExistantException Si le mail est déjà pris.
+     */
+    private void appliquerValeurs(String nom, String prenom, String mail, String password, LocalDate dateArrivee,
+            LocalDate dateDepart, boolean verifierMail) {
+        Lock verrou = gestionPersonnel.verrouEcriture(); // Tous les champs sont publiés ensemble
+        verrou.lock();
+        try {
+            if (verifierMail) {
+                verifierMail(mail);
+            }
+            if (!Objects.equals(nom, this.nom) || !Objects.equals(prenom, this.prenom)) {
+                renommer(nom, prenom);
+            }
+            if (!Objects.equals(mail, this.mail)) {
+                remplacerMail(mail);
+            }
+            if (!Objects.equals(password, this.password)) {
+                this.password = password;
+                marquer(Champ.PASSWORD);
+            }
+            if (!Objects.equals(dateArrivee, this.dateArrivee)) {
+                this.dateArrivee = dateArrivee;
+                marquer(Champ.DATE_ARRIVEE);
+            }
+            if (!Objects.equals(dateDepart, this.dateDepart)) {
+                this.dateDepart = dateDepart;
+                marquer(Champ.DATE_DEPART);
+            }
+        } finally {
+            verrou.unlock();
+        }
     }
 
     /**
@@ -197,8 +572,25 @@ public class Employe implements Serializable, Comparable<Employe> {
      * @throws SauvegardeImpossible Si une erreur se produit lors de la sauvegarde.
      */
     public void setEstRoot(boolean isRoot) throws SauvegardeImpossible {
+        if (isRoot == this.estRootStatus) {
+            return; // Rien à enregistrer
+        }
+        VerrousParLigue.Verrouillage verrouillage = verrouillerLigue();
+        try {
+            this.estRootStatus = isRoot;
+            marquer(Champ.ROOT);
+            gestionPersonnel.update(this); // Persiste la modification en base de données
+        } finally {
+            verrouillage.liberer();
+        }
+    }
+
+    /**
+     * Positionne le statut 'root' en mémoire, sans persistance (utilisé lors du chargement).
+     * @param isRoot true si l'employé est root.
+     */
+    void definirStatutRoot(boolean isRoot) {
         this.estRootStatus = isRoot;
-        gestionPersonnel.update(this); // Persiste la modification en base de données
     }
 
     // --- Méthodes métier ---
@@ -213,23 +605,9 @@ public class Employe implements Serializable, Comparable<Employe> {
         if (estRoot()) { // Utilise la méthode estRoot() pour vérifier
             throw new ImpossibleDeSupprimerRoot("L'employé 'root' ne peut pas être supprimé.");
         }
-        if (ligue != null) {
-            // Si cet employé est administrateur de sa ligue, l'admin doit être remplacé (mis à null)
-            if (equals(ligue.getAdministrateur())) {
-                ligue.setAdministrateur(null); // L'administrateur est mis à null pour le moment
-            }
-            ligue.removeEmploye(this); // Retire l'employé de la ligue
-        }
-
-        // Vérifie si cet employé est administrateur d'une autre ligue et supprime cette affiliation
-        // (ceci est géré par la clé étrangère ON DELETE SET NULL dans la BD pour administrateur_id)
-        for (Ligue l : gestionPersonnel.getLigues()) {
-            if (l.getAdministrateur() != null && l.getAdministrateur().equals(this)) {
-                l.setAdministrateur(null); // Retire l'admin de cette ligue aussi en mémoire et persiste
-            }
-        }
-
-        gestionPersonnel.remove(this); // Supprime l'employé de la base de données et des collections
+        // Retire l'employé de sa ligue et des ligues qu'il administre (l'admin est mis à null pour le moment),
+        // puis le supprime de la base de données et des collections
+        gestionPersonnel.remove(this);
     }
 
     /**
@@ -253,7 +631,7 @@ public class Employe implements Serializable, Comparable<Employe> {
             return true; // Le root est super-administrateur et a tous les droits
         }
         // Sinon, il est admin s'il est l'administrateur désigné de la ligue.
-        return ligue != null && ligue.getAdministrateur() != null && ligue.getAdministrateur().equals(this);
+        return ligue != null && gestionPersonnel.administre(this, ligue);
     }
     
     /**
@@ -261,7 +639,7 @@ public class Employe implements Serializable, Comparable<Employe> {
      * @return true si l'employé est administrateur de sa ligue, false sinon.
      */
     public boolean estAdministrateurLigue() {
-        return this.ligue != null && this.ligue.getAdministrateur() != null && this.ligue.getAdministrateur().equals(this);
+        return this.ligue != null && gestionPersonnel.administre(this, this.ligue);
     }
 
 
@@ -311,7 +689,7 @@ public class Employe implements Serializable, Comparable<Employe> {
         }
         if (estRoot()) {
             res += " (ROOT)";
-        } else if (ligue != null && ligue.getAdministrateur() != null && ligue.getAdministrateur().equals(this)) {
+        } else if (estAdministrateurLigue()) {
             res += " (Admin de " + ligue.getNom() + ")";
         }
         return res;
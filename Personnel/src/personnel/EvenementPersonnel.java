@@ -0,0 +1,76 @@
+package personnel;
+
+/**
+ * Changement du modèle publié par GestionPersonnel à ses écouteurs (voir {@link EcouteurPersonnel}).
+ * Un événement est publié une fois la modification enregistrée par la passerelle.
+ * Il ne contient que des références : les vues relisent les valeurs de l'employé ou de la ligue concernés.
+ */
+public final class EvenementPersonnel {
+
+    /**
+     * Nature du changement.
+     */
+    public enum Type {
+        EMPLOYE_AJOUTE, EMPLOYE_MODIFIE, EMPLOYE_SUPPRIME,
+        /** L'employé a changé de ligue : voir getAncienneLigue() et getLigue(). */
+        EMPLOYE_DEPLACE,
+        LIGUE_AJOUTEE, LIGUE_RENOMMEE, LIGUE_SUPPRIMEE, ADMINISTRATEUR_CHANGE
+    }
+
+    private final Type type;
+    private final Employe employe;
+    private final Ligue ligue, ancienneLigue;
+    private final long version;
+
+    EvenementPersonnel(Type type, Employe employe, Ligue ligue, Ligue ancienneLigue, long version) {
+        this.type = type;
+        this.employe = employe;
+        this.ligue = ligue;
+        this.ancienneLigue = ancienneLigue;
+        this.version = version;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return L'employé concerné, ou null pour un événement sur une ligue.
+     */
+    public Employe getEmploye() {
+        return employe;
+    }
+
+    /**
+     * @return La ligue concernée : celle de l'employé, ou sa nouvelle ligue s'il a été déplacé.
+     */
+    public Ligue getLigue() {
+        return ligue;
+    }
+
+    /**
+     * @return La ligue quittée par l'employé (EMPLOYE_DEPLACE uniquement), sinon null.
+     */
+    public Ligue getAncienneLigue() {
+        return ancienneLigue;
+    }
+
+    /**
+     * @return La version du modèle juste après le changement.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return true si l'événement peut changer le contenu d'une vue de la ligue donnée.
+     */
+    public boolean concerne(Ligue vue) {
+        return vue == null || vue.equals(ligue) || vue.equals(ancienneLigue);
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + (employe != null ? employe.getMail() : ligue) + " (version " + version + ")";
+    }
+}
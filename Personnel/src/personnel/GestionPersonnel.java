@@ -2,22 +2,82 @@ package personnel;
 
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.HashSet; // Pour collecter tous les employés
 import java.util.Set; // Pour collecter tous les employés
 
+/**
+ * Point d'entrée du modèle : ligues, employés et index de recherche.
+ * <p>
+ * Le modèle peut être lu par plusieurs threads pendant qu'un autre le modifie :
+ * les modifications des collections et des index se font sous un verrou d'écriture,
+ * et chacune publie une nouvelle version. Les lectures de listes passent par un
+ * {@link Instantane} immuable, parcourable sans verrou ni ConcurrentModificationException.
+ */
 public class GestionPersonnel implements Serializable {
     private static final long serialVersionUID = -105283113987886425L;
-    private static GestionPersonnel gestionPersonnel = null;
+    // Publiée seulement une fois le chargement terminé (double vérification sur GestionPersonnel.class)
+    private static volatile GestionPersonnel gestionPersonnel = null;
     private SortedSet<Ligue> ligues;
     private Employe root; // Garde une référence à l'employé root
+    // Index des employés par adresse mail normalisée (insensible à la casse)
+    private Map<String, Employe> employesParMail;
+    // Index des employés et des ligues par identifiant (clés int, sans boxing)
+    private IndexParId<Employe> employesParId;
+    private IndexParId<Ligue> liguesParId;
+    // Index inverse : ligues administrées, par identifiant de l'administrateur
+    private IndexParId<Set<Ligue>> liguesParAdministrateur;
+    // Index global trié de tous les employés, maintenu à chaque ajout, suppression ou renommage
+    private TreeSet<Employe> employesTries;
+    // Numéro de version incrémenté (sous le verrou d'écriture) à chaque modification des ligues ou des employés
+    private volatile long version;
+    // Dernier instantané publié ; remplacé d'un bloc quand la version a changé
+    private transient volatile Instantane instantane;
+    // Protège les collections et les index ci-dessus : lectures partagées, écritures exclusives
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    // Verrous par ligue : sérialisent les écritures (mémoire et passerelle) d'une même ligue,
+    // celles de ligues différentes s'exécutent en parallèle. Toujours pris avant le verrou ci-dessus.
+    private final VerrousParLigue verrousLigues = new VerrousParLigue(NOMBRE_VERROUS_LIGUES);
+    // Mails normalisés des employés en cours d'ajout, réservés sous le verrou d'écriture jusqu'à leur indexation
+    private final transient Set<String> mailsReserves = new HashSet<>();
+    // Écouteurs des changements du modèle, chacun avec l'exécuteur sur lequel il est prévenu
+    private final transient List<Abonnement> abonnements = new CopyOnWriteArrayList<>();
+    // Durées des authentifications (recherche de l'employé puis hachage), pour repérer une passerelle lente
+    private final transient AtomicLong nombreAuthentifications = new AtomicLong();
+    private final transient AtomicLong dureeTotaleAuthentifications = new AtomicLong();
+    private final transient AtomicLong dureeMaxAuthentification = new AtomicLong();
+    // Persistance de cette instance (JDBC, fichier binaire ou stockage projeté)
+    private transient Passerelle passerelle;
+    // Vrai pendant le chargement initial : les entités sont construites sans écriture vers la passerelle
+    private transient boolean hydratation;
+    // Employés mis à jour par le thread courant pendant modifierEmployes, enregistrés ensemble à la fin
+    private final transient ThreadLocal<Set<Employe>> lotEnCours = new ThreadLocal<>();
 
-    public final static int SERIALIZATION = 1, JDBC = 2;
+    public final static int SERIALIZATION = 1, JDBC = 2, STOCKAGE_MAPPE = 3;
     public final static int TYPE_PASSERELLE = JDBC; // Utilise JDBC par défaut
+    // Écriture différée : les mises à jour sont enregistrées par un thread de fond (voir PasserelleDifferee)
+    public final static boolean ECRITURE_DIFFEREE = false;
+    private final static int CAPACITE_ECRITURE_DIFFEREE = 10_000, LOT_ECRITURE_DIFFEREE = 100;
+    private final static int NOMBRE_VERROUS_LIGUES = 64;
 
-    private static Passerelle passerelle;
     
 
     /**
@@ -27,25 +87,61 @@ public class GestionPersonnel implements Serializable {
      * @throws RuntimeException Si une erreur fatale se produit lors du chargement des données.
      */
     public static GestionPersonnel getGestionPersonnel() {
-        if (gestionPersonnel == null) {
-            gestionPersonnel = new GestionPersonnel();
-            try {
-                // Initialise la passerelle (JDBC dans ce cas)
-                if (TYPE_PASSERELLE == JDBC) {
-                    passerelle = new jdbc.JDBC(gestionPersonnel); // Passe l'instance de GestionPersonnel
+        GestionPersonnel instance = gestionPersonnel;
+        if (instance != null) {
+            return instance; // Cas courant : aucune synchronisation
+        }
+        synchronized (GestionPersonnel.class) {
+            if (gestionPersonnel == null) {
+                try {
+                    // L'instance n'est visible des autres threads qu'une fois complètement chargée
+                    gestionPersonnel = charger(nouvelle -> {
+                        // Initialise la passerelle (JDBC, fichier binaire ou stockage projeté)
+                        Passerelle choisie = null;
+                        if (TYPE_PASSERELLE == JDBC) {
+                            choisie = new jdbc.JDBC(nouvelle); // Passe l'instance de GestionPersonnel
+                        } else if (TYPE_PASSERELLE == SERIALIZATION) {
+                            choisie = new serialisation.Serialization(nouvelle);
+                        } else if (TYPE_PASSERELLE == STOCKAGE_MAPPE) {
+                            choisie = new serialisation.StockageMappe(nouvelle);
+                        }
+                        if (ECRITURE_DIFFEREE) {
+                            choisie = new PasserelleDifferee(choisie, CAPACITE_ECRITURE_DIFFEREE, LOT_ECRITURE_DIFFEREE);
+                        }
+                        return choisie;
+                    });
+                } catch (SauvegardeImpossible e) {
+                    // Gère les erreurs de chargement des données
+                    throw new RuntimeException("Impossible de charger les données : " + e.getMessage(), e);
                 }
-                // Charge toutes les ligues et leurs employés, y compris le root si existant
-                // Cette méthode va peupler les collections internes de gestionPersonnel
-                passerelle.getGestionPersonnel();
-
-                // S'assure que root est bien défini, le crée si inexistant dans la BD
-                gestionPersonnel.initialiserRoot(); 
-            } catch (SauvegardeImpossible e) {
-                // Gère les erreurs de chargement des données
-                throw new RuntimeException("Impossible de charger les données : " + e.getMessage(), e); 
             }
+            return gestionPersonnel;
         }
-        return gestionPersonnel;
+    }
+
+    /**
+     * Crée une instance indépendante de l'instance unique et la charge depuis sa propre passerelle,
+     * par exemple pour ouvrir un autre fichier de sauvegarde. L'instance unique n'est pas modifiée.
+     * @param creation Crée la passerelle de l'instance.
+     * @return L'instance chargée, avec son root.
+     * @throws SauvegardeImpossible Si les données ne peuvent pas être chargées.
+     */
+    public static GestionPersonnel charger(Function<GestionPersonnel, Passerelle> creation) throws SauvegardeImpossible {
+        GestionPersonnel instance = new GestionPersonnel();
+        instance.passerelle = creation.apply(instance);
+        // Charge toutes les ligues et leurs employés, y compris le root si existant
+        // Cette méthode va peupler les collections internes de l'instance.
+        // Pendant le chargement, aucune écriture n'est renvoyée vers la passerelle.
+        instance.hydratation = true;
+        try {
+            instance.passerelle.getGestionPersonnel();
+        } finally {
+            instance.terminerHydratation();
+        }
+
+        // S'assure que root est bien défini, le crée si inexistant dans la BD
+        instance.initialiserRoot();
+        return instance;
     }
     
     /**
@@ -54,30 +150,260 @@ public class GestionPersonnel implements Serializable {
      */
     private GestionPersonnel() {
         ligues = new TreeSet<>();
+        employesParMail = new HashMap<>();
+        employesParId = new IndexParId<>();
+        liguesParId = new IndexParId<>();
+        liguesParAdministrateur = new IndexParId<>();
+        employesTries = new TreeSet<>(Employe.ORDRE_ANNUAIRE);
     }
 
     /**
-     * Retourne une vue non modifiable de la collection des ligues.
-     * @return Un SortedSet non modifiable de Ligue.
+     * Instantané immuable des ligues et des employés, à une version donnée du modèle.
+     * Peut être parcouru par n'importe quel thread sans verrou, même pendant une modification :
+     * les modifications ultérieures produisent un nouvel instantané sans toucher celui-ci.
+     */
+    public static final class Instantane {
+        private final long version;
+        private final ListeTriee<Ligue> ligues;
+        private final ListeTriee<Employe> employes;
+
+        private Instantane(long version, ListeTriee<Ligue> ligues, ListeTriee<Employe> employes) {
+            this.version = version;
+            this.ligues = ligues;
+            this.employes = employes;
+        }
+
+        /**
+         * @return La version du modèle à laquelle correspond cet instantané.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return Les ligues, triées par nom.
+         */
+        public ListeTriee<Ligue> getLigues() {
+            return ligues;
+        }
+
+        /**
+         * @return Tous les employés (root compris), triés par nom puis prénom.
+         */
+        public ListeTriee<Employe> getEmployes() {
+            return employes;
+        }
+    }
+
+    /**
+     * Retourne l'instantané de la version courante du modèle.
+     * Sans modification depuis le dernier appel, l'instantané déjà publié est retourné sans verrou ;
+     * sinon il est reconstruit sous le verrou de lecture (partagé) puis publié.
+     * @return L'instantané courant.
+     */
+    public Instantane getInstantane() {
+        Instantane courant = instantane;
+        if (courant != null && courant.getVersion() == version) {
+            return courant;
+        }
+        verrou.readLock().lock();
+        try {
+            courant = instantane;
+            if (courant == null || courant.getVersion() != version) {
+                // Aucune écriture possible ici : la version lue correspond exactement aux collections copiées
+                courant = new Instantane(version, new ListeTriee<>(ligues, Comparator.naturalOrder()), new ListeTriee<>(employesTries, Employe.ORDRE_ANNUAIRE));
+                instantane = courant;
+            }
+            return courant;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne les ligues triées par nom.
+     * @return Un SortedSet immuable de Ligue (instantané de la version courante).
      */
     public SortedSet<Ligue> getLigues() {
-        return Collections.unmodifiableSortedSet(ligues);
+        return getInstantane().getLigues();
     }
 
     /**
      * Retourne une collection de tous les employés gérés par cette instance de GestionPersonnel.
-     * Inclut le root et tous les employés de toutes les ligues.
-     * @return Un SortedSet non modifiable de tous les employés.
+     * Inclut le root et tous les employés de toutes les ligues, triés par nom puis prénom.
+     * L'instantané retourné est immuable et n'est reconstruit qu'après une modification :
+     * les appels répétés sans changement du modèle retournent le même objet.
+     * @return Un SortedSet immuable de tous les employés.
      */
     public SortedSet<Employe> getEmployes() {
-        SortedSet<Employe> allEmployes = new TreeSet<>();
-        if (root != null) {
-            allEmployes.add(root);
+        return getInstantane().getEmployes();
+    }
+
+    /**
+     * Retourne le numéro de version du modèle, incrémenté à chaque ajout, suppression ou modification
+     * d'une ligue ou d'un employé.
+     * Permet aux vues de savoir si l'instantané qu'elles affichent est encore à jour.
+     * @return Le numéro de version courant.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Retourne le verrou d'écriture du modèle, à prendre par Ligue et Employe autour des modifications
+     * qui touchent plusieurs collections (renommage, changement de ligue) pour qu'elles soient publiées d'un bloc.
+     * Le verrou est réentrant : les méthodes d'indexation appelées sous ce verrou le reprennent sans bloquer.
+     * @return Le verrou d'écriture.
+     */
+    Lock verrouEcriture() {
+        return verrou.writeLock();
+    }
+
+    /**
+     * Prend les verrous des ligues données, dans un ordre fixe (pas d'interblocage entre deux opérations
+     * portant sur les mêmes ligues). À prendre avant le verrou d'écriture, jamais sous lui.
+     * @param ligues Les ligues concernées par l'écriture ; null désigne les employés sans ligue.
+     * @return Le verrouillage, à libérer dans un bloc finally.
+     */
+    VerrousParLigue.Verrouillage verrouiller(Ligue... ligues) {
+        return verrousLigues.verrouiller(ligues);
+    }
+
+    /**
+     * Prend les verrous des ligues calculées, puis les recalcule sous ces verrous : si un employé a changé
+     * de ligue ou d'administration pendant l'attente, les verrous sont rendus et pris de nouveau
+     * (comme Employe.verrouillerLigue pour une seule ligue).
+     * @param calcul Calcule les ligues concernées par l'écriture à partir de l'état courant des employés.
+     * @return Le verrouillage, à libérer dans un bloc finally.
+     */
+    private VerrousParLigue.Verrouillage verrouiller(Supplier<Set<Ligue>> calcul) {
+        while (true) {
+            Set<Ligue> ligues = calcul.get();
+            VerrousParLigue.Verrouillage verrouillage = verrousLigues.verrouiller(ligues);
+            if (ligues.containsAll(calcul.get())) {
+                return verrouillage;
+            }
+            verrouillage.liberer();
+        }
+    }
+
+    /**
+     * Retourne le verrou de lecture du modèle, pour copier une collection interne de façon cohérente.
+     * @return Le verrou de lecture.
+     */
+    Lock verrouLecture() {
+        return verrou.readLock();
+    }
+
+    private static final class Abonnement {
+        final EcouteurPersonnel ecouteur;
+        final Executor executeur;
+
+        Abonnement(EcouteurPersonnel ecouteur, Executor executeur) {
+            this.ecouteur = ecouteur;
+            this.executeur = executeur;
+        }
+    }
+
+    /**
+     * Enregistre un écouteur prévenu de chaque changement du modèle (ajout, modification, suppression,
+     * déplacement d'un employé ; ajout, renommage, suppression d'une ligue ; changement d'administrateur).
+     * @param ecouteur L'écouteur.
+     * @param executeur L'exécuteur sur lequel l'écouteur est appelé, par exemple SwingUtilities::invokeLater.
+     */
+    public void ajouterEcouteur(EcouteurPersonnel ecouteur, Executor executeur) {
+        abonnements.add(new Abonnement(ecouteur, executeur));
+    }
+
+    /**
+     * Retire un écouteur. Les événements déjà transmis à son exécuteur lui parviennent encore.
+     * @param ecouteur L'écouteur à retirer.
+     */
+    public void retirerEcouteur(EcouteurPersonnel ecouteur) {
+        abonnements.removeIf(abonnement -> abonnement.ecouteur == ecouteur);
+    }
+
+    /**
+     * Publie un changement aux écouteurs. Rien n'est publié pendant le chargement initial.
+     * Appelé une fois le changement enregistré, hors du verrou d'écriture du modèle.
+     */
+    void publier(EvenementPersonnel.Type type, Employe employe, Ligue ligue, Ligue ancienneLigue) {
+        if (hydratation || abonnements.isEmpty()) {
+            return;
+        }
+        EvenementPersonnel evenement = new EvenementPersonnel(type, employe, ligue, ancienneLigue, version);
+        // Les instantanés sont reconstruits ici, dans le thread qui a fait le changement :
+        // les écouteurs (le thread Swing notamment) les trouvent déjà prêts
+        getInstantane();
+        if (ligue != null) {
+            ligue.getEmployes();
+        }
+        if (ancienneLigue != null) {
+            ancienneLigue.getEmployes();
         }
-        for (Ligue ligue : ligues) {
-            allEmployes.addAll(ligue.getEmployes());
+        for (Abonnement abonnement : abonnements) {
+            abonnement.executeur.execute(() -> abonnement.ecouteur.changement(evenement));
+        }
+    }
+
+    /**
+     * Retourne les ligues administrées par un employé.
+     * @param employe L'employé.
+     * @return Un ensemble non modifiable, vide si l'employé n'administre aucune ligue.
+     */
+    public Set<Ligue> getLiguesAdministrees(Employe employe) {
+        verrou.readLock().lock();
+        try {
+            Set<Ligue> administrees = liguesParAdministrateur.get(employe.getId());
+            return administrees == null ? Collections.emptySet() : Collections.unmodifiableSet(new LinkedHashSet<>(administrees));
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indique si un employé administre une ligue, sans copier l'ensemble de ses ligues administrées.
+     * @param employe L'employé.
+     * @param ligue La ligue.
+     * @return true si l'employé est l'administrateur désigné de la ligue.
+     */
+    public boolean administre(Employe employe, Ligue ligue) {
+        verrou.readLock().lock();
+        try {
+            Set<Ligue> administrees = liguesParAdministrateur.get(employe.getId());
+            return administrees != null && administrees.contains(ligue);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Met à jour l'index inverse des administrateurs. Appelé par Ligue lors d'un changement d'administrateur.
+     * @param ligue La ligue dont l'administrateur change.
+     * @param ancien L'ancien administrateur, ou null.
+     * @param nouveau Le nouvel administrateur, ou null.
+     */
+    void changerAdministrateur(Ligue ligue, Employe ancien, Employe nouveau) {
+        verrou.writeLock().lock();
+        try {
+            if (ancien != null) {
+                Set<Ligue> administrees = liguesParAdministrateur.get(ancien.getId());
+                if (administrees != null && administrees.remove(ligue) && administrees.isEmpty()) {
+                    liguesParAdministrateur.remove(ancien.getId());
+                }
+            }
+            if (nouveau != null) {
+                Set<Ligue> administrees = liguesParAdministrateur.get(nouveau.getId());
+                if (administrees == null) {
+                    administrees = new LinkedHashSet<>();
+                    liguesParAdministrateur.put(nouveau.getId(), administrees);
+                }
+                administrees.add(ligue);
+            }
+            version++;
+        } finally {
+            verrou.writeLock().unlock();
         }
-        return Collections.unmodifiableSortedSet(allEmployes);
     }
 
     /**
@@ -95,7 +421,7 @@ public class GestionPersonnel implements Serializable {
             throw new IllegalArgumentException("Une ligue avec ce nom existe déjà.");
         }
         Ligue ligue = new Ligue(this, nom); // Le constructeur insère la ligue dans la BD
-        ligues.add(ligue); // Ajoute la ligue à la collection interne
+        add(ligue); // Ajoute la ligue à la collection interne et à l'index
         // Définit le root comme administrateur par défaut si c'est la première ligue et si root existe
         if (root != null && ligue.getAdministrateur() == null) {
             ligue.setAdministrateur(root); // Ceci appellera update(Ligue) via la passerelle
@@ -117,22 +443,249 @@ public class GestionPersonnel implements Serializable {
      * @throws IllegalArgumentException Si les données fournies sont invalides.
      */
     public Employe addEmploye(Ligue ligue, String nom, String prenom, String mail, String password, LocalDate dateArrivee, LocalDate dateDepart) throws SauvegardeImpossible, IllegalArgumentException {
+        validerNouvelEmploye(ligue, mail, password);
+        List<String> mails = Collections.singletonList(mail);
+        reserverMails(mails);
+        try {
+            // Le constructeur d'Employe gère l'insertion en base de données et l'ajout à la ligue
+            VerrousParLigue.Verrouillage verrouillage = verrouiller(ligue);
+            try {
+                Employe employe = new Employe(this, ligue, nom, prenom, mail, password, dateArrivee, dateDepart);
+                publier(EvenementPersonnel.Type.EMPLOYE_AJOUTE, employe, ligue, null);
+                return employe;
+            } finally {
+                verrouillage.liberer();
+            }
+        } finally {
+            libererMails(mails);
+        }
+    }
+
+    private void validerNouvelEmploye(Ligue ligue, String mail, String password) {
         if (ligue == null) {
             throw new IllegalArgumentException("Un employé doit être associé à une ligue.");
         }
         if (mail == null || !mail.contains("@")) {
             throw new IllegalArgumentException("Adresse mail invalide.");
         }
-        if (getEmploye(mail) != null) {
-            throw new IllegalArgumentException("Un employé avec cet email existe déjà.");
-        }
         if (password == null || password.trim().isEmpty()) {
             throw new IllegalArgumentException("Le mot de passe ne peut pas être vide.");
         }
+    }
+
+    /**
+     * Vérifie que les mails ne sont ni utilisés ni en cours d'ajout, puis les réserve, le tout sous le verrou
+     * d'écriture : deux ajouts simultanés dans des ligues différentes ne peuvent pas prendre la même adresse.
+     * La réservation est levée par libererMails, une fois les employés indexés ou l'ajout abandonné.
+     * @throws EmployeDejaExistantException Si l'un des mails est déjà pris.
+     */
+    private void reserverMails(Collection<String> mails) {
+        verrou.writeLock().lock();
+        try {
+            for (String mail : mails) {
+                if (mailPris(mail, null)) {
+                    throw new EmployeDejaExistantException("Un employé avec cet email existe déjà : " + mail + ".");
+                }
+            }
+            for (String mail : mails) {
+                mailsReserves.add(normaliserMail(mail));
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private void libererMails(Collection<String> mails) {
+        verrou.writeLock().lock();
+        try {
+            for (String mail : mails) {
+                mailsReserves.remove(normaliserMail(mail));
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indique si un mail est utilisé par un autre employé ou réservé par un ajout en cours.
+     * À appeler sous le verrou d'écriture, jusqu'à l'indexation du nouveau mail.
+     * @param mail Le mail à vérifier.
+     * @param employe L'employé qui le demande, ou null pour un nouvel employé.
+     * @return true si le mail n'est pas disponible pour cet employé.
+     */
+    boolean mailPris(String mail, Employe employe) {
+        if (mail == null) {
+            return false;
+        }
+        String cle = normaliserMail(mail);
+        Employe existant = employesParMail.get(cle);
+        return (existant != null && existant != employe) || mailsReserves.contains(cle);
+    }
+
+    /**
+     * Ajoute plusieurs nouveaux employés en une seule écriture groupée (intégration en masse).
+     * Les employés sont créés avec Employe.nouveau() et ne sont pas encore enregistrés.
+     * Ils sont tous validés avant le premier enregistrement.
+     * @param nouveaux Les employés à ajouter.
+     * @return Les employés ajoutés, avec leur ID, dans l'ordre de la collection.
+     * @throws SauvegardeImpossible Si une erreur se produit lors de la sauvegarde (aucun employé n'est alors ajouté).
+     * @throws IllegalArgumentException Si un employé est invalide, déjà enregistré, ou si un mail est en double.
+     */
+    public List<Employe> addEmployes(Collection<Employe> nouveaux) throws SauvegardeImpossible {
+        List<Employe> employes = new ArrayList<>(nouveaux);
+        Set<String> mails = new HashSet<>();
+        for (Employe employe : employes) {
+            if (employe.getId() != -1) {
+                throw new IllegalArgumentException("L'employé " + employe.getMail() + " est déjà enregistré.");
+            }
+            validerNouvelEmploye(employe.getLigue(), employe.getMail(), employe.getPassword());
+            if (!mails.add(normaliserMail(employe.getMail()))) {
+                throw new EmployeDejaExistantException("L'adresse " + employe.getMail() + " apparaît plusieurs fois.");
+            }
+        }
+        Set<Ligue> concernees = new HashSet<>();
+        for (Employe employe : employes) {
+            concernees.add(employe.getLigue());
+        }
+        reserverMails(mails);
+        try {
+            VerrousParLigue.Verrouillage verrouillage = verrousLigues.verrouiller(concernees);
+            try {
+                int[] ids = passerelle.insertAll(employes);
+                for (int i = 0; i < ids.length; i++) {
+                    Employe employe = employes.get(i);
+                    employe.setId(ids[i]);
+                    employe.getLigue().addEmploye(employe);
+                }
+                for (Employe employe : employes) {
+                    publier(EvenementPersonnel.Type.EMPLOYE_AJOUTE, employe, employe.getLigue(), null);
+                }
+            } finally {
+                verrouillage.liberer();
+            }
+        } finally {
+            libererMails(mails);
+        }
+        return employes;
+    }
+
+    /**
+     * Modification à appliquer à chaque employé d'une modification groupée.
+     */
+    @FunctionalInterface
+    public interface ModificationEmploye {
+        void appliquer(Employe employe) throws SauvegardeImpossible;
+    }
+
+    /**
+     * Applique une modification à plusieurs employés, puis enregistre tous les champs modifiés
+     * en une seule écriture groupée au lieu d'une écriture par setter.
+     * Les ligues des employés restent verrouillées pendant toute l'opération. Les mises à jour faites
+     * par le thread courant sont rassemblées dans un lot, enregistré seulement si la modification
+     * a réussi pour tous les employés ; les mises à jour des autres threads ne sont pas concernées.
+     * En cas d'échec, rien n'est enregistré et les employés de la collection retrouvent leurs valeurs
+     * d'avant la modification, en mémoire comme en base.
+     * La modification ne doit pas changer la ligue des employés (voir Employe.setLigue).
+     * @param employes Les employés à modifier.
+     * @param modification La modification, par exemple {@code e -> e.setDateDepart(fin)}.
+     * @throws SauvegardeImpossible Si une erreur se produit lors de la sauvegarde.
+     */
+    public void modifierEmployes(Collection<Employe> employes, ModificationEmploye modification) throws SauvegardeImpossible {
+        if (lotEnCours.get() != null) {
+            throw new IllegalStateException("Une modification groupée est déjà en cours.");
+        }
+        List<Employe> liste = new ArrayList<>(employes);
+        VerrousParLigue.Verrouillage verrouillage = verrouiller(() -> {
+            Set<Ligue> concernees = new HashSet<>();
+            for (Employe employe : liste) {
+                concernees.add(employe.getLigue());
+            }
+            return concernees;
+        });
+        try {
+            Set<Employe> lot = new LinkedHashSet<>();
+            List<Employe.Etat> etats = new ArrayList<>();
+            boolean enregistre = false;
+            lotEnCours.set(lot);
+            try {
+                for (Employe employe : liste) {
+                    etats.add(employe.sauvegarderEtat());
+                    modification.appliquer(employe);
+                }
+                lotEnCours.remove();
+                if (lot.isEmpty()) {
+                    enregistre = true;
+                    return;
+                }
+                passerelle.updateAll(lot);
+                enregistre = true;
+            } finally {
+                lotEnCours.remove();
+                if (!enregistre) {
+                    // Ordre inverse : un mail passé d'un employé à un autre retrouve son premier propriétaire
+                    for (int i = etats.size() - 1; i >= 0; i--) {
+                        etats.get(i).restaurer();
+                    }
+                }
+            }
+            List<Employe> modifies = new ArrayList<>();
+            for (Employe employe : lot) {
+                if (!sansChampAffiche(employe.getChampsModifies())) {
+                    modifies.add(employe);
+                }
+            }
+            for (Employe employe : lot) {
+                employe.marquerEnregistre();
+            }
+            for (Employe employe : modifies) {
+                publier(EvenementPersonnel.Type.EMPLOYE_MODIFIE, employe, employe.getLigue(), null);
+            }
+        } finally {
+            verrouillage.liberer();
+        }
+    }
 
-        // Le constructeur d'Employe gère l'insertion en base de données et l'ajout à la ligue
-        Employe employe = new Employe(this, ligue, nom, prenom, mail, password, dateArrivee, dateDepart);
-        return employe;
+    /**
+     * Supprime plusieurs employés en une seule écriture groupée.
+     * @param employes Les employés à supprimer.
+     * @throws SauvegardeImpossible Si une erreur se produit lors de la suppression.
+     * @throws ImpossibleDeSupprimerRoot Si la collection contient le root.
+     */
+    public void removeEmployes(Collection<Employe> employes) throws SauvegardeImpossible {
+        Set<Employe> aSupprimer = new HashSet<>(employes);
+        for (Employe employe : aSupprimer) {
+            if (employe.estRoot()) {
+                throw new ImpossibleDeSupprimerRoot("L'employé 'root' ne peut pas être supprimé.");
+            }
+        }
+        VerrousParLigue.Verrouillage verrouillage = verrouiller(() -> {
+            Set<Ligue> concernees = new HashSet<>();
+            for (Employe employe : aSupprimer) {
+                concernees.add(employe.getLigue());
+                concernees.addAll(getLiguesAdministrees(employe));
+            }
+            return concernees;
+        });
+        try {
+            // Les ligues administrées par un employé supprimé n'ont plus d'administrateur
+            for (Employe employe : aSupprimer) {
+                for (Ligue ligue : new ArrayList<>(getLiguesAdministrees(employe))) {
+                    ligue.setAdministrateur(null);
+                }
+            }
+            for (Employe employe : aSupprimer) {
+                if (employe.getLigue() != null) {
+                    employe.getLigue().removeEmploye(employe);
+                }
+                desindexer(employe);
+            }
+            passerelle.deleteAll(aSupprimer);
+            for (Employe employe : aSupprimer) {
+                publier(EvenementPersonnel.Type.EMPLOYE_SUPPRIME, employe, employe.getLigue(), null);
+            }
+        } finally {
+            verrouillage.liberer();
+        }
     }
 
     /**
@@ -141,7 +694,7 @@ public class GestionPersonnel implements Serializable {
      * @return La ligue correspondante, ou null si non trouvée.
      */
     public Ligue getLigue(String nom) {
-        for (Ligue ligue : ligues) {
+        for (Ligue ligue : getLigues()) {
             if (ligue.getNom().equals(nom)) {
                 return ligue;
             }
@@ -155,12 +708,12 @@ public class GestionPersonnel implements Serializable {
      * @return La ligue correspondante, ou null si non trouvée.
      */
     public Ligue getLigue(int id) {
-        for (Ligue ligue : ligues) {
-            if (ligue.getId() == id) {
-                return ligue;
-            }
+        verrou.readLock().lock();
+        try {
+            return liguesParId.get(id);
+        } finally {
+            verrou.readLock().unlock();
         }
-        return null;
     }
 
     /**
@@ -169,19 +722,16 @@ public class GestionPersonnel implements Serializable {
      * @return L'employé correspondant, ou null si non trouvé.
      */
     public Employe getEmploye(String mail) {
-        // Cherche le root en premier
-        if (root != null && root.getMail().equalsIgnoreCase(mail)) {
-            return root;
+        if (mail == null) {
+            return null;
         }
-        // Parcourt les ligues pour trouver l'employé
-        for (Ligue ligue : ligues) {
-            for (Employe employe : ligue.getEmployes()) {
-                if (employe.getMail().equalsIgnoreCase(mail)) {
-                    return employe;
-                }
-            }
+        String cle = normaliserMail(mail);
+        verrou.readLock().lock();
+        try {
+            return employesParMail.get(cle);
+        } finally {
+            verrou.readLock().unlock();
         }
-        return null;
     }
     
     /**
@@ -190,19 +740,12 @@ public class GestionPersonnel implements Serializable {
      * @return L'employé correspondant, ou null si non trouvé.
      */
     public Employe getEmploye(int id) {
-        // Cherche le root en premier
-        if (root != null && root.getId() == id) {
-            return root;
-        }
-        // Parcourt les ligues pour trouver l'employé par ID
-        for (Ligue ligue : ligues) {
-            for (Employe employe : ligue.getEmployes()) {
-                if (employe.getId() == id) {
-                    return employe;
-                }
-            }
+        verrou.readLock().lock();
+        try {
+            return employesParId.get(id);
+        } finally {
+            verrou.readLock().unlock();
         }
-        return null;
     }
 
     /**
@@ -213,25 +756,57 @@ public class GestionPersonnel implements Serializable {
      * @throws SauvegardeImpossible Si une erreur se produit lors de l'accès à la base de données.
      */
     public Employe authentifier(String nomUtilisateur, String password) throws SauvegardeImpossible {
-        Employe employe = null;
+        long debut = System.nanoTime();
+        try {
+            Employe employe = null;
 
-        // Tente de trouver l'employé par mail d'abord
-        employe = getEmploye(nomUtilisateur);
+            // Tente de trouver l'employé par mail d'abord
+            employe = getEmploye(nomUtilisateur);
 
-        // Si non trouvé par mail, tente de trouver par nom via la passerelle
-        if (employe == null) {
-            if (passerelle != null) {
-                employe = passerelle.getEmployeByNom(nomUtilisateur);
+            // Si non trouvé par mail, tente de trouver par nom via la passerelle
+            if (employe == null) {
+                if (passerelle != null) {
+                    employe = passerelle.getEmployeByNom(nomUtilisateur);
+                }
             }
-        }
 
-        if (employe != null) {
-            String hashedPasswordInput = passerelle.hashPassword(password); // Ajoutez cette ligne
-            if (employe.getPassword().equals(hashedPasswordInput)) { // Modifiez cette ligne
-                return employe;
+            if (employe != null) {
+                String hashedPasswordInput = passerelle.hashPassword(password); // Ajoutez cette ligne
+                if (employe.getPassword().equals(hashedPasswordInput)) { // Modifiez cette ligne
+                    return employe;
+                }
             }
+            return null;
+        } finally {
+            enregistrerDureeAuthentification(System.nanoTime() - debut);
         }
-        return null; 
+    }
+
+    /**
+     * Comptabilise la durée d'une authentification, réussie ou non.
+     */
+    private void enregistrerDureeAuthentification(long dureeNanos) {
+        nombreAuthentifications.incrementAndGet();
+        dureeTotaleAuthentifications.addAndGet(dureeNanos);
+        long max;
+        while (dureeNanos > (max = dureeMaxAuthentification.get()) && !dureeMaxAuthentification.compareAndSet(max, dureeNanos)) {
+            // Nouvel essai
+        }
+    }
+
+    /**
+     * @return La durée moyenne d'une authentification, en millisecondes.
+     */
+    public double getDureeMoyenneAuthentificationMillis() {
+        long nombre = nombreAuthentifications.get();
+        return nombre == 0 ? 0 : dureeTotaleAuthentifications.get() / 1_000_000.0 / nombre;
+    }
+
+    /**
+     * @return La plus longue authentification observée, en millisecondes.
+     */
+    public double getDureeMaxAuthentificationMillis() {
+        return dureeMaxAuthentification.get() / 1_000_000.0;
     }
 
     // Méthodes d'insertion, mise à jour et suppression (qui délèguent à la passerelle)
@@ -243,35 +818,259 @@ public class GestionPersonnel implements Serializable {
         return passerelle.insert(employe);
     }
 
+    // Les champs sont marqués enregistrés dès que la passerelle accepte l'écriture ;
+    // PasserelleDifferee garde elle-même ceux d'une écriture de fond échouée pour la retenter.
     public void update(Ligue ligue) throws SauvegardeImpossible {
-        passerelle.update(ligue);
+        if (!hydratation) {
+            Set<Ligue.Champ> champs = ligue.getChampsModifies();
+            passerelle.update(ligue);
+            ligue.marquerEnregistre();
+            if (champs.contains(Ligue.Champ.NOM)) {
+                publier(EvenementPersonnel.Type.LIGUE_RENOMMEE, null, ligue, null);
+            }
+            if (champs.contains(Ligue.Champ.ADMINISTRATEUR)) {
+                publier(EvenementPersonnel.Type.ADMINISTRATEUR_CHANGE, null, ligue, null);
+            }
+        }
     }
 
     public void update(Employe employe) throws SauvegardeImpossible {
-        passerelle.update(employe);
+        Set<Employe> lot = lotEnCours.get();
+        if (lot != null) {
+            lot.add(employe); // Enregistré à la fin de modifierEmployes
+            return;
+        }
+        if (!hydratation) {
+            Set<Employe.Champ> champs = employe.getChampsModifies();
+            passerelle.update(employe);
+            employe.marquerEnregistre();
+            if (!sansChampAffiche(champs)) {
+                publier(EvenementPersonnel.Type.EMPLOYE_MODIFIE, employe, employe.getLigue(), null);
+            }
+        }
     }
 
+    /**
+     * Un changement de ligue seul est publié par Employe.setLigue (EMPLOYE_DEPLACE), pas comme une modification.
+     */
+    private static boolean sansChampAffiche(Set<Employe.Champ> champs) {
+        return champs.isEmpty() || champs.equals(EnumSet.of(Employe.Champ.LIGUE));
+    }
+
+    /**
+     * Supprime une ligue et tous ses employés.
+     * La passerelle supprime le tout en une seule transaction, puis la ligue est détachée en mémoire en une passe.
+     * @param ligue La ligue à supprimer.
+     * @throws SauvegardeImpossible Si une erreur se produit lors de la suppression (rien n'est alors supprimé en mémoire).
+     * @throws IllegalArgumentException Si l'on tente de supprimer la ligue associée à l'utilisateur 'root'.
+     */
     public void remove(Ligue ligue) throws SauvegardeImpossible {
-        // Supprime la ligue de la collection locale et de la BD
-        ligues.remove(ligue);
-        passerelle.delete(ligue);
+        // Empêche la suppression de la ligue si elle est associée à l'utilisateur 'root'
+        // (Bien que 'root' n'ait pas de ligue assignée directement, cette vérification est une sécurité)
+        if (root != null && root.getLigue() != null && root.getLigue().equals(ligue)) {
+            throw new IllegalArgumentException("La ligue du 'root' ne peut pas être supprimée directement.");
+        }
+        // Verrous de la ligue et des autres ligues administrées par ses employés, modifiées elles aussi
+        VerrousParLigue.Verrouillage verrouillage = verrouiller(() -> {
+            Set<Ligue> concernees = new HashSet<>();
+            concernees.add(ligue);
+            for (Employe employe : ligue.getEmployes()) {
+                concernees.addAll(getLiguesAdministrees(employe));
+            }
+            return concernees;
+        });
+        try {
+            passerelle.deleteCascade(ligue);
+
+            // La passerelle a déjà retiré les liens d'administrateur vers les employés supprimés,
+            // y compris vers une autre ligue (si l'administrateur a changé de ligue) : il reste à les retirer en mémoire
+            // Sous le verrou d'écriture, les lecteurs voient la ligue avec tous ses employés ou plus rien
+            List<Employe> supprimes;
+            List<Ligue> sansAdministrateur = new ArrayList<>();
+            verrou.writeLock().lock();
+            try {
+                ligue.initialiserAdministrateur(null);
+                supprimes = ligue.detacherEmployes();
+                for (Employe employe : supprimes) {
+                    for (Ligue autre : new ArrayList<>(getLiguesAdministrees(employe))) {
+                        autre.initialiserAdministrateur(null);
+                        sansAdministrateur.add(autre);
+                    }
+                    desindexer(employe);
+                }
+                ligues.remove(ligue);
+                liguesParId.remove(ligue.getId());
+                version++;
+            } finally {
+                verrou.writeLock().unlock();
+            }
+            for (Employe employe : supprimes) {
+                publier(EvenementPersonnel.Type.EMPLOYE_SUPPRIME, employe, ligue, null);
+            }
+            for (Ligue autre : sansAdministrateur) {
+                publier(EvenementPersonnel.Type.ADMINISTRATEUR_CHANGE, null, autre, null);
+            }
+            publier(EvenementPersonnel.Type.LIGUE_SUPPRIMEE, null, ligue, null);
+        } finally {
+            verrouillage.liberer();
+        }
     }
 
     public void remove(Employe employe) throws SauvegardeImpossible {
-        // Supprime l'employé de sa ligue si elle existe
-        if (employe.getLigue() != null) {
-            employe.getLigue().removeEmploye(employe); 
+        VerrousParLigue.Verrouillage verrouillage = verrouiller(() -> {
+            Set<Ligue> concernees = new HashSet<>(getLiguesAdministrees(employe));
+            concernees.add(employe.getLigue());
+            return concernees;
+        });
+        try {
+            // Les ligues qu'il administrait n'ont plus d'administrateur (index inverse, sans parcourir les ligues)
+            for (Ligue ligue : new ArrayList<>(getLiguesAdministrees(employe))) {
+                ligue.setAdministrateur(null);
+            }
+            // Supprime l'employé de sa ligue si elle existe
+            if (employe.getLigue() != null) {
+                employe.getLigue().removeEmploye(employe);
+            }
+            desindexer(employe);
+            // Supprime l'employé de la BD
+            passerelle.delete(employe);
+            publier(EvenementPersonnel.Type.EMPLOYE_SUPPRIME, employe, employe.getLigue(), null);
+        } finally {
+            verrouillage.liberer();
         }
-        // Supprime l'employé de la BD
-        passerelle.delete(employe);
     }
     
+    /**
+     * Termine le chargement initial : les modifications suivantes sont de nouveau persistées,
+     * et le modèle chargé est publié d'un seul coup (une seule nouvelle version).
+     */
+    private void terminerHydratation() {
+        hydratation = false;
+        verrou.writeLock().lock();
+        try {
+            version++;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Normalise une adresse mail pour l'index (comparaison insensible à la casse).
+     * @param mail L'adresse mail à normaliser.
+     * @return La clé d'index correspondante.
+     */
+    static String normaliserMail(String mail) {
+        return mail.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Ajoute un employé aux index de recherche.
+     * Appelé par Ligue.addEmploye et lors de la définition du root.
+     * @param employe L'employé à indexer.
+     */
+    void indexer(Employe employe) {
+        verrou.writeLock().lock();
+        try {
+            if (employe.getMail() != null) {
+                employesParMail.put(normaliserMail(employe.getMail()), employe);
+            }
+            if (employe.getId() != -1) {
+                employesParId.put(employe.getId(), employe);
+            }
+            employesTries.add(employe);
+            version++;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un employé des index de recherche.
+     * @param employe L'employé à retirer.
+     */
+    void desindexer(Employe employe) {
+        verrou.writeLock().lock();
+        try {
+            if (employe.getMail() != null) {
+                employesParMail.remove(normaliserMail(employe.getMail()), employe);
+            }
+            if (employesParId.get(employe.getId()) == employe) {
+                employesParId.remove(employe.getId());
+            }
+            if (employesTries.remove(employe)) {
+                version++;
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un employé de l'index trié avant un changement de nom ou de prénom.
+     * Doit être appelé sous le verrou d'écriture, jusqu'à la réinsertion.
+     * @param employe L'employé renommé.
+     * @return true si l'employé était indexé.
+     */
+    boolean retirerDuTri(Employe employe) {
+        return employesTries.remove(employe);
+    }
+
+    /**
+     * Réinsère un employé dans l'index trié après un changement de nom ou de prénom.
+     * Doit être appelé sous le verrou d'écriture.
+     * @param employe L'employé renommé.
+     */
+    void reinsererDansTri(Employe employe) {
+        employesTries.add(employe);
+        version++;
+    }
+
+    /**
+     * Retire une ligue de la collection triée avant un changement de nom.
+     * Doit être appelé sous le verrou d'écriture, jusqu'à la réinsertion.
+     * @param ligue La ligue renommée.
+     * @return true si la ligue était présente.
+     */
+    boolean retirerDuTri(Ligue ligue) {
+        return ligues.remove(ligue);
+    }
+
+    /**
+     * Réinsère une ligue dans la collection triée après un changement de nom.
+     * Doit être appelé sous le verrou d'écriture.
+     * @param ligue La ligue renommée.
+     */
+    void reinsererDansTri(Ligue ligue) {
+        ligues.add(ligue);
+        version++;
+    }
+
+    /**
+     * Met à jour l'index des mails après un changement d'adresse.
+     * @param employe L'employé dont l'adresse a changé.
+     * @param ancienMail L'ancienne adresse mail.
+     */
+    void reindexerMail(Employe employe, String ancienMail) {
+        verrou.writeLock().lock();
+        try {
+            if (ancienMail != null) {
+                employesParMail.remove(normaliserMail(ancienMail), employe);
+            }
+            indexer(employe);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
     /**
      * Initialise l'employé root. Le crée s'il n'existe pas dans la base de données.
      * @throws SauvegardeImpossible Si une erreur se produit lors de la sauvegarde.
      */
 
 void initialiserRoot() throws SauvegardeImpossible {
+    if (root != null) {
+        return; // Le root a été identifié lors du chargement (colonne est_root) : rien à écrire
+    }
     Employe loadedRoot = getEmploye("root");
     if (loadedRoot == null) {
         loadedRoot = passerelle.getEmployeByNom("root");
@@ -281,12 +1080,14 @@ void initialiserRoot() throws SauvegardeImpossible {
         // Hachage du mot de passe avant de créer l'utilisateur root
         String hashedPassword = passerelle.hashPassword("toor");
         root = new Employe(this, null, "root", "root", "root", hashedPassword, LocalDate.now(), null);
+        indexer(root);
         if (root != null) {
             root.setEstRoot(true);
         }
         System.out.println("Utilisateur 'root' créé dans la base de données.");
     } else {
         root = loadedRoot;
+        indexer(root);
         if (root != null) {
             root.setEstRoot(true);
         }
@@ -301,6 +1102,26 @@ void initialiserRoot() throws SauvegardeImpossible {
         return root;
     }
 
+    /**
+     * Enregistre toutes les modifications en attente et sauvegarde l'état complet
+     * via la passerelle. À appeler avant de quitter l'application.
+     * @throws SauvegardeImpossible Si une écriture en attente ou la sauvegarde échoue.
+     */
+    public void sauvegarder() throws SauvegardeImpossible {
+        passerelle.sauvegarderGestionPersonnel(this);
+    }
+
+    /**
+     * Enregistre un écouteur prévenu des échecs d'écriture différée.
+     * Sans effet si l'écriture différée n'est pas activée, les échecs étant alors levés directement.
+     * @param ecouteur L'écouteur, appelé depuis le thread d'écriture.
+     */
+    public void ajouterEcouteurEchecSauvegarde(PasserelleDifferee.EcouteurEchec ecouteur) {
+        if (passerelle instanceof PasserelleDifferee) {
+            ((PasserelleDifferee) passerelle).ajouterEcouteur(ecouteur);
+        }
+    }
+
     /**
      * Retourne l'instance de la passerelle de persistance.
      * @return La passerelle.
@@ -314,7 +1135,17 @@ void initialiserRoot() throws SauvegardeImpossible {
      * @param ligue La ligue à ajouter.
      */
     public void add(Ligue ligue) {
-        ligues.add(ligue);
+        verrou.writeLock().lock();
+        try {
+            ligues.add(ligue);
+            if (ligue.getId() != -1) {
+                liguesParId.put(ligue.getId(), ligue);
+            }
+            version++;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+        publier(EvenementPersonnel.Type.LIGUE_AJOUTEE, null, ligue, null);
     }
 
     /**
@@ -323,6 +1154,10 @@ void initialiserRoot() throws SauvegardeImpossible {
      */
 	public void setRoot(Employe root) {
 		this.root = root;
+		if (root != null) {
+			root.definirStatutRoot(true); // En mémoire : le statut vient d'être lu, rien à enregistrer
+			indexer(root);
+		}
 	}
 
 	/**
@@ -333,7 +1168,7 @@ void initialiserRoot() throws SauvegardeImpossible {
 	    if (ligues == null) {
 	        ligues = new TreeSet<>(); // Initialise si ce n'est pas déjà fait
 	    }
-	    ligues.add(ligue);
+	    add(ligue);
 	}
 
 	/**
@@ -0,0 +1,172 @@
+package personnel;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Table de hachage à adressage ouvert associant un identifiant entier à un objet.
+ * Les clés sont stockées dans un tableau de int : aucune boîte Integer n'est allouée
+ * lors des recherches, contrairement à une HashMap<Integer, V>.
+ * Les valeurs null ne sont pas acceptées (une case vide est une case dont la valeur est null).
+ * @param <V> Le type des objets indexés.
+ */
+public class IndexParId<V> implements Serializable {
+    private static final long serialVersionUID = 3120987425117765310L;
+    private static final int CAPACITE_INITIALE = 16;
+
+    private int[] cles;
+    private Object[] valeurs;
+    private int taille;
+
+    public IndexParId() {
+        this(CAPACITE_INITIALE);
+    }
+
+    /**
+     * Crée un index dimensionné pour contenir le nombre d'éléments attendu sans redimensionnement.
+     * @param capaciteAttendue Le nombre d'éléments attendus.
+     */
+    public IndexParId(int capaciteAttendue) {
+        int capacite = CAPACITE_INITIALE;
+        while (capacite < capaciteAttendue * 2) {
+            capacite <<= 1;
+        }
+        cles = new int[capacite];
+        valeurs = new Object[capacite];
+    }
+
+    /**
+     * Retourne l'objet associé à l'identifiant.
+     * @param id L'identifiant recherché.
+     * @return L'objet correspondant, ou null s'il n'est pas indexé.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int id) {
+        int masque = cles.length - 1;
+        for (int i = position(id, masque); valeurs[i] != null; i = (i + 1) & masque) {
+            if (cles[i] == id) {
+                return (V) valeurs[i];
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Associe un objet à un identifiant, en remplaçant l'éventuelle association existante.
+     * @param id L'identifiant.
+     * @param valeur L'objet à associer (non null).
+     * @return L'objet précédemment associé, ou null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int id, V valeur) {
+        if (valeur == null) {
+            throw new IllegalArgumentException("La valeur indexée ne peut pas être null.");
+        }
+        int masque = cles.length - 1;
+        int i = position(id, masque);
+        while (valeurs[i] != null) {
+            if (cles[i] == id) {
+                V ancienne = (V) valeurs[i];
+                valeurs[i] = valeur;
+                return ancienne;
+            }
+            i = (i + 1) & masque;
+        }
+        cles[i] = id;
+        valeurs[i] = valeur;
+        if (++taille * 2 > cles.length) {
+            agrandir();
+        }
+        return null;
+    }
+
+    /**
+     * Retire l'association d'un identifiant.
+     * Les éléments suivants de la même séquence de sondage sont recompactés (pas de marqueur de suppression).
+     * @param id L'identifiant à retirer.
+     * @return L'objet qui était associé, ou null.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int id) {
+        int masque = cles.length - 1;
+        int i = position(id, masque);
+        while (valeurs[i] != null) {
+            if (cles[i] == id) {
+                V ancienne = (V) valeurs[i];
+                compacter(i, masque);
+                taille--;
+                return ancienne;
+            }
+            i = (i + 1) & masque;
+        }
+        return null;
+    }
+
+    public int size() {
+        return taille;
+    }
+
+    public boolean isEmpty() {
+        return taille == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(valeurs, null);
+        taille = 0;
+    }
+
+    /**
+     * Applique une action à chaque objet indexé (ordre non spécifié).
+     * @param action L'action à appliquer.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super V> action) {
+        for (Object valeur : valeurs) {
+            if (valeur != null) {
+                action.accept((V) valeur);
+            }
+        }
+    }
+
+    private static int position(int id, int masque) {
+        int h = id * 0x9E3779B9; // Hachage de Fibonacci pour disperser les identifiants consécutifs
+        return (h ^ (h >>> 16)) & masque;
+    }
+
+    private void compacter(int trou, int masque) {
+        int i = trou;
+        while (true) {
+            i = (i + 1) & masque;
+            if (valeurs[i] == null) {
+                break;
+            }
+            int ideale = position(cles[i], masque);
+            // Déplace l'élément dans le trou si sa position idéale ne se trouve pas entre le trou et lui
+            if (((i - ideale) & masque) >= ((i - trou) & masque)) {
+                cles[trou] = cles[i];
+                valeurs[trou] = valeurs[i];
+                trou = i;
+            }
+        }
+        valeurs[trou] = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void agrandir() {
+        int[] anciennesCles = cles;
+        Object[] anciennesValeurs = valeurs;
+        cles = new int[anciennesCles.length * 2];
+        valeurs = new Object[anciennesValeurs.length * 2];
+        taille = 0;
+        for (int i = 0; i < anciennesCles.length; i++) {
+            if (anciennesValeurs[i] != null) {
+                put(anciennesCles[i], (V) anciennesValeurs[i]);
+            }
+        }
+    }
+}
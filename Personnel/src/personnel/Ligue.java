@@ -2,10 +2,14 @@ package personnel;
 
 import java.io.Serializable;
 import java.time.LocalDate;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
 
 public class Ligue implements Serializable, Comparable<Ligue> {
     private static final long serialVersionUID = 1L;
@@ -14,6 +18,31 @@ public class Ligue implements Serializable, Comparable<Ligue> {
     private SortedSet<Employe> employes; // Collection des employés de cette ligue
     private Employe administrateur; // L'employé administrateur de cette ligue
     private GestionPersonnel gestionPersonnel; // Référence à l'instance de GestionPersonnel
+    private EnumSet<Champ> champsModifies = EnumSet.noneOf(Champ.class); // Champs à enregistrer
+    // Incrémenté (sous le verrou d'écriture du modèle) à chaque changement de la collection des employés
+    private transient volatile long version;
+    // Dernier instantané des employés publié par getEmployes()
+    private transient volatile InstantaneEmployes instantane;
+
+    /**
+     * Employés de la ligue à une version donnée, publiés ensemble.
+     */
+    private static final class InstantaneEmployes {
+        final long version;
+        final ListeTriee<Employe> employes;
+
+        InstantaneEmployes(long version, ListeTriee<Employe> employes) {
+            this.version = version;
+            this.employes = employes;
+        }
+    }
+
+    /**
+     * Champs persistants d'une ligue.
+     */
+    public enum Champ {
+        NOM, ADMINISTRATEUR
+    }
 
     /**
      * Constructeur pour la création d'une NOUVELLE ligue (qui sera insérée en base de données).
@@ -35,7 +64,7 @@ public class Ligue implements Serializable, Comparable<Ligue> {
      */
     public Ligue(GestionPersonnel gestionPersonnel, int id, String nom) {
         this.nom = nom;
-        this.employes = new TreeSet<>(); // Initialise la collection d'employés
+        this.employes = new TreeSet<>(Employe.ORDRE_ANNUAIRE); // Initialise la collection d'employés
         this.gestionPersonnel = gestionPersonnel;
         this.administrateur = null; // L'administrateur sera défini après le chargement des employés
         this.id = id; // L'ID est fourni car la ligue existe déjà en BD
@@ -64,21 +93,93 @@ public class Ligue implements Serializable, Comparable<Ligue> {
     }
 
     /**
-     * Retourne une vue non modifiable de la collection des employés de cette ligue.
-     * @return Un SortedSet non modifiable d'Employe.
+     * Retourne un instantané immuable des employés de cette ligue, triés par nom puis prénom.
+     * Il peut être parcouru pendant qu'un autre thread modifie la ligue ;
+     * tant que la ligue ne change pas, le même instantané est retourné sans verrou.
+     * @return Un ensemble trié immuable d'Employe, accessible par position.
      */
-    public SortedSet<Employe> getEmployes() {
-        return Collections.unmodifiableSortedSet(employes); // Retourne une vue non modifiable
+    public ListeTriee<Employe> getEmployes() {
+        InstantaneEmployes courant = instantane;
+        if (courant != null && courant.version == version) {
+            return courant.employes;
+        }
+        Lock verrou = gestionPersonnel != null ? gestionPersonnel.verrouLecture() : null;
+        if (verrou != null) {
+            verrou.lock();
+        }
+        try {
+            courant = new InstantaneEmployes(version, new ListeTriee<>(employes, Employe.ORDRE_ANNUAIRE));
+            instantane = courant;
+            return courant.employes;
+        } finally {
+            if (verrou != null) {
+                verrou.unlock();
+            }
+        }
     }
 
     public Employe getAdministrateur() {
         return administrateur;
     }
 
+    /**
+     * Retourne les champs modifiés depuis le dernier enregistrement.
+     * @return Une copie de l'ensemble des champs modifiés, vide si la ligue est à jour.
+     */
+    public Set<Champ> getChampsModifies() {
+        return champsModifies == null ? EnumSet.noneOf(Champ.class) : EnumSet.copyOf(champsModifies);
+    }
+
+    /**
+     * Indique que l'état en mémoire a été enregistré : plus aucun champ n'est modifié.
+     */
+    public void marquerEnregistre() {
+        if (champsModifies != null) {
+            champsModifies.clear();
+        }
+    }
+
+    private void marquer(Champ champ) {
+        if (champsModifies == null) { // Objet désérialisé depuis une ancienne version
+            champsModifies = EnumSet.noneOf(Champ.class);
+        }
+        champsModifies.add(champ);
+    }
+
     // --- Setters ---
+    /**
+     * Renomme la ligue.
+     * @param nom Le nouveau nom.
+     * @throws SauvegardeImpossible Si une erreur se produit lors de la sauvegarde.
+     * @throws IllegalArgumentException Si une autre ligue porte déjà ce nom.
+     */
     public void setNom(String nom) throws SauvegardeImpossible {
-        this.nom = nom;
-        gestionPersonnel.update(this); // Persiste la modification en base de données
+        if (Objects.equals(nom, this.nom)) {
+            return; // Rien à enregistrer
+        }
+        VerrousParLigue.Verrouillage verrouillage = gestionPersonnel.verrouiller(this);
+        try {
+            // Le nom est la clé de tri des ligues : retrait et réinsertion sont publiés d'un bloc
+            Lock verrou = gestionPersonnel.verrouEcriture();
+            verrou.lock();
+            try {
+                // Vérifié sous le verrou : deux ligues portant le même nom ne tiennent pas dans l'ensemble trié
+                if (gestionPersonnel.getLigue(nom) != null) {
+                    throw new IllegalArgumentException("Une ligue avec ce nom existe déjà.");
+                }
+                boolean triee = gestionPersonnel.retirerDuTri(this);
+                this.nom = nom;
+                marquer(Champ.NOM);
+                if (triee) {
+                    gestionPersonnel.reinsererDansTri(this);
+                }
+            } finally {
+                verrou.unlock();
+            }
+            gestionPersonnel.update(this); // Persiste la modification en base de données
+        } finally {
+            verrouillage.liberer();
+        }
     }
 
     /**
@@ -96,8 +197,30 @@ public class Ligue implements Serializable, Comparable<Ligue> {
                 throw new IllegalArgumentException("L'administrateur doit être un employé de cette ligue ou le root.");
             }
         }
+        VerrousParLigue.Verrouillage verrouillage = gestionPersonnel.verrouiller(this);
+        try {
+            if (Objects.equals(administrateur, this.administrateur)) {
+                return; // Rien à enregistrer
+            }
+            gestionPersonnel.changerAdministrateur(this, this.administrateur, administrateur);
+            this.administrateur = administrateur;
+            marquer(Champ.ADMINISTRATEUR);
+            gestionPersonnel.update(this); // Persiste la modification en base de données
+        } finally {
+            verrouillage.liberer();
+        }
+    }
+
+    /**
+     * Définit l'administrateur sans validation ni persistance.
+     * Utilisé en interne par la passerelle lors du chargement initial, une fois les employés chargés.
+     * @param administrateur L'administrateur enregistré pour cette ligue.
+     */
+    public void initialiserAdministrateur(Employe administrateur) {
+        if (gestionPersonnel != null) {
+            gestionPersonnel.changerAdministrateur(this, this.administrateur, administrateur);
+        }
         this.administrateur = administrateur;
-        gestionPersonnel.update(this); // Persiste la modification en base de données
     }
 
     // --- Méthodes métier ---
@@ -109,10 +232,26 @@ public class Ligue implements Serializable, Comparable<Ligue> {
      * @param employe L'employé à ajouter.
      */
     public void addEmploye(Employe employe) {
+        if (gestionPersonnel == null) {
+            ajouter(employe);
+            return;
+        }
+        Lock verrou = gestionPersonnel.verrouEcriture();
+        verrou.lock();
+        try {
+            ajouter(employe);
+            gestionPersonnel.indexer(employe);
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    private void ajouter(Employe employe) {
         if (this.employes == null) {
-            this.employes = new TreeSet<>();
+            this.employes = new TreeSet<>(Employe.ORDRE_ANNUAIRE);
         }
         this.employes.add(employe);
+        version++;
     }
 
     /**
@@ -120,11 +259,44 @@ public class Ligue implements Serializable, Comparable<Ligue> {
      * @param employe L'employé à retirer.
      */
     public void removeEmploye(Employe employe) {
-        if (this.employes != null) {
-            this.employes.remove(employe);
+        if (gestionPersonnel == null) {
+            retirer(employe);
+            return;
+        }
+        Lock verrou = gestionPersonnel.verrouEcriture();
+        verrou.lock();
+        try {
+            retirer(employe);
+            gestionPersonnel.desindexer(employe);
+        } finally {
+            verrou.unlock();
         }
     }
 
+    private void retirer(Employe employe) {
+        if (this.employes != null && this.employes.remove(employe)) {
+            version++;
+        }
+    }
+
+    /**
+     * Retire temporairement un employé de la collection triée, avant un changement de sa clé de tri.
+     * @param employe L'employé à retirer.
+     * @return true si l'employé était présent.
+     */
+    boolean retirerDuTri(Employe employe) {
+        return employes != null && employes.remove(employe);
+    }
+
+    /**
+     * Réinsère un employé dans la collection triée après un changement de sa clé de tri.
+     * @param employe L'employé à réinsérer.
+     */
+    void reinsererDansTri(Employe employe) {
+        employes.add(employe);
+        version++;
+    }
+
     /**
      * Supprime cette ligue de l'application et de la base de données.
      * Supprime également tous les employés associés à cette ligue.
@@ -132,21 +304,20 @@ public class Ligue implements Serializable, Comparable<Ligue> {
      * @throws IllegalArgumentException Si l'on tente de supprimer la ligue associée à l'utilisateur 'root'.
      */
     public void remove() throws SauvegardeImpossible {
-        // Empêche la suppression de la ligue si elle est associée à l'utilisateur 'root'
-        // (Bien que 'root' n'ait pas de ligue assignée directement, cette vérification est une sécurité)
-        if (gestionPersonnel.getRoot() != null && gestionPersonnel.getRoot().getLigue() != null && equals(gestionPersonnel.getRoot().getLigue())) {
-            throw new IllegalArgumentException("La ligue du 'root' ne peut pas être supprimée directement.");
-        }
-        // Pour chaque employé de cette ligue, le supprimer (ce qui supprime aussi de la BD)
-        // Crée une copie pour éviter ConcurrentModificationException
-        for (Employe employe : new TreeSet<>(employes)) {
-            employe.remove(); // Ceci appellera gestionPersonnel.delete(employe)
-        }
-        employes.clear(); // Vide la collection locale après suppression
+        // La suppression en cascade (employés, liens d'administrateur, ligue) est faite
+        // en une seule transaction par GestionPersonnel
+        gestionPersonnel.remove(this);
+    }
 
-        // La suppression de la ligue dans la base de données via JDBC.delete(Ligue)
-        // gérera la mise à NULL de administrateur_id pour cette ligue.
-        gestionPersonnel.remove(this); // Supprime la ligue de la collection de GestionPersonnel et de la BD
+    /**
+     * Vide la collection des employés en une seule opération, lors de la suppression de la ligue.
+     * @return Les employés qui appartenaient à la ligue.
+     */
+    List<Employe> detacherEmployes() {
+        List<Employe> detaches = new ArrayList<>(employes);
+        employes.clear();
+        version++;
+        return detaches;
     }
 
     @Override
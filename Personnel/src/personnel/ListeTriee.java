@@ -0,0 +1,152 @@
+package personnel;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+/**
+ * Ensemble trié immuable stocké dans un tableau.
+ * Sert d'instantané en lecture seule : l'accès par position est en O(1),
+ * la recherche par dichotomie en O(log n), et les sous-ensembles partagent le tableau.
+ * @param <E> Le type des éléments.
+ */
+public class ListeTriee<E> extends AbstractSet<E> implements SortedSet<E>, Serializable {
+    private static final long serialVersionUID = -2281467398120743805L;
+
+    private final Object[] elements;
+    private final int debut, fin;
+    private final Comparator<? super E> comparateur;
+
+    /**
+     * Crée un instantané à partir d'une collection déjà triée selon le comparateur.
+     * @param triee Les éléments, dans l'ordre du comparateur.
+     * @param comparateur Le comparateur définissant l'ordre.
+     */
+    public ListeTriee(Collection<? extends E> triee, Comparator<? super E> comparateur) {
+        this(triee.toArray(), 0, triee.size(), comparateur);
+    }
+
+    private ListeTriee(Object[] elements, int debut, int fin, Comparator<? super E> comparateur) {
+        this.elements = elements;
+        this.debut = debut;
+        this.fin = fin;
+        this.comparateur = comparateur;
+    }
+
+    /**
+     * Retourne l'élément à la position donnée.
+     * @param index La position (0 pour le premier élément).
+     * @return L'élément correspondant.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index : " + index + ", taille : " + size());
+        }
+        return (E) elements[debut + index];
+    }
+
+    /**
+     * Retourne la position d'un élément dans l'ensemble.
+     * @param element L'élément recherché.
+     * @return Sa position, ou un nombre négatif s'il est absent.
+     */
+    @SuppressWarnings("unchecked")
+    public int indexOf(Object element) {
+        int position = Arrays.binarySearch(elements, debut, fin, element, (Comparator<Object>) comparateur);
+        return position >= 0 ? position - debut : -1;
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        try {
+            return indexOf(element) >= 0;
+        } catch (ClassCastException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public int size() {
+        return fin - debut;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int courant = debut;
+
+            @Override
+            public boolean hasNext() {
+                return courant < fin;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (courant >= fin) {
+                    throw new NoSuchElementException();
+                }
+                return (E) elements[courant++];
+            }
+        };
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return comparateur;
+    }
+
+    @Override
+    public SortedSet<E> subSet(E depuis, E jusqua) {
+        return new ListeTriee<>(elements, borne(depuis), Math.max(borne(depuis), borne(jusqua)), comparateur);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E jusqua) {
+        return new ListeTriee<>(elements, debut, borne(jusqua), comparateur);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E depuis) {
+        return new ListeTriee<>(elements, borne(depuis), fin, comparateur);
+    }
+
+    @Override
+    public E first() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return get(0);
+    }
+
+    @Override
+    public E last() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return get(size() - 1);
+    }
+
+    /**
+     * Retourne la première position dont l'élément n'est pas strictement inférieur à la borne.
+     */
+    @SuppressWarnings("unchecked")
+    private int borne(E element) {
+        int bas = debut, haut = fin;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (comparateur.compare((E) elements[milieu], element) < 0) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu;
+            }
+        }
+        return bas;
+    }
+}
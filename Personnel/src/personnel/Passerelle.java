@@ -1,7 +1,13 @@
 // Fichier: personnel/Passerelle.java
 package personnel;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.SortedSet;
 
 /**
@@ -41,6 +47,66 @@ public interface Passerelle {
      */
     void update(Employe employe) throws SauvegardeImpossible;
 
+    /**
+     * Met à jour les champs indiqués d'une ligue. Utilisé par l'écriture différée,
+     * qui enregistre des modifications cumulées après que la ligue a été marquée enregistrée.
+     * Par défaut, la ligue est entièrement mise à jour.
+     * @param ligue La ligue à mettre à jour.
+     * @param champs Les champs à écrire.
+     * @throws SauvegardeImpossible Si une erreur se produit lors de la sauvegarde.
+     */
+    default void update(Ligue ligue, Set<Ligue.Champ> champs) throws SauvegardeImpossible {
+        update(ligue);
+    }
+
+    /**
+     * Met à jour les champs indiqués d'un employé. Utilisé par l'écriture différée,
+     * qui enregistre des modifications cumulées après que l'employé a été marqué enregistré.
+     * Par défaut, l'employé est entièrement mis à jour.
+     * @param employe L'employé à mettre à jour.
+     * @param champs Les champs à écrire.
+     * @throws SauvegardeImpossible Si une erreur se produit lors de la sauvegarde.
+     */
+    default void update(Employe employe, Set<Employe.Champ> champs) throws SauvegardeImpossible {
+        update(employe);
+    }
+
+    /**
+     * Insère plusieurs employés. Par défaut, les employés sont insérés un par un.
+     * @param employes Les employés à insérer.
+     * @return Les ID générés, dans l'ordre de la liste.
+     * @throws SauvegardeImpossible Si une erreur se produit lors de la sauvegarde.
+     */
+    default int[] insertAll(List<Employe> employes) throws SauvegardeImpossible {
+        int[] ids = new int[employes.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = insert(employes.get(i));
+        }
+        return ids;
+    }
+
+    /**
+     * Met à jour les champs modifiés de plusieurs employés. Par défaut, un par un.
+     * @param employes Les employés à mettre à jour.
+     * @throws SauvegardeImpossible Si une erreur se produit lors de la sauvegarde.
+     */
+    default void updateAll(Collection<Employe> employes) throws SauvegardeImpossible {
+        for (Employe employe : employes) {
+            update(employe);
+        }
+    }
+
+    /**
+     * Supprime plusieurs employés. Par défaut, un par un.
+     * @param employes Les employés à supprimer.
+     * @throws SauvegardeImpossible Si une erreur se produit lors de la sauvegarde.
+     */
+    default void deleteAll(Collection<Employe> employes) throws SauvegardeImpossible {
+        for (Employe employe : employes) {
+            delete(employe);
+        }
+    }
+
     /**
      * Supprime une ligue du système de persistance.
      * @param ligue La ligue à supprimer.
@@ -48,6 +114,19 @@ public interface Passerelle {
      */
     void delete(Ligue ligue) throws SauvegardeImpossible;
 
+    /**
+     * Supprime une ligue et tous ses employés, et retire des autres ligues les liens
+     * d'administrateur vers ces employés. Appelé avant le détachement en mémoire :
+     * les employés sont encore dans ligue.getEmployes().
+     * Par défaut, les employés sont supprimés un par un puis la ligue.
+     * @param ligue La ligue à supprimer.
+     * @throws SauvegardeImpossible Si une erreur se produit lors de la suppression.
+     */
+    default void deleteCascade(Ligue ligue) throws SauvegardeImpossible {
+        deleteAll(ligue.getEmployes());
+        delete(ligue);
+    }
+
     /**
      * Supprime un employé du système de persistance.
      * @param employe L'employé à supprimer.
@@ -117,9 +196,21 @@ public interface Passerelle {
 
     /**
      * Hache un mot de passe .
+     * Par défaut, SHA-256 en hexadécimal, comme la colonne password de la base.
      * @param password Le mot de passe en clair à hacher.
      * @return Le mot de passe haché.
      * @throws SauvegardeImpossible Si une erreur se produit lors du hachage.
      */
-    String hashPassword(String password) throws SauvegardeImpossible; 
+    default String hashPassword(String password) throws SauvegardeImpossible {
+        try {
+            byte[] hashedBytes = MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder(2 * hashedBytes.length);
+            for (byte b : hashedBytes) {
+                hexString.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new SauvegardeImpossible("Erreur lors du hachage du mot de passe : " + e.getMessage(), e);
+        }
+    }
 }
\ No newline at end of file
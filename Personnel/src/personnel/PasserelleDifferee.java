@@ -0,0 +1,512 @@
+package personnel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Passerelle à écriture différée : les mises à jour sont mises en file et enregistrées
+ * par un thread de fond, au lieu de bloquer l'appelant (thread Swing ou console).
+ * - les mises à jour successives d'une même entité sont fusionnées en une seule écriture ;
+ * - la file est bornée : au-delà de sa capacité, l'appelant attend qu'elle se vide ;
+ * - flush() attend que toutes les écritures en file soient enregistrées ;
+ * - les échecs sont signalés aux écouteurs enregistrés ; l'écriture échouée est gardée, fusionnée avec
+ *   la mise à jour suivante de la même entité ou retentée par le flush() suivant, qui signale celles
+ *   qui échouent encore. Celles qui échouent encore à la fermeture sont perdues (signalées par close()).
+ * Les insertions, suppressions et lectures restent synchrones, après vidage de la file
+ * pour respecter l'ordre des opérations.
+ */
+public class PasserelleDifferee implements Passerelle {
+
+    /**
+     * Écouteur notifié lorsqu'une écriture différée échoue.
+     * Il est appelé depuis le thread d'écriture.
+     */
+    public interface EcouteurEchec {
+        void echec(Object entite, SauvegardeImpossible erreur);
+    }
+
+    private final Passerelle passerelle;
+    private final int capacite;
+    private final int tailleLot;
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final Condition nonVide = verrou.newCondition();
+    private final Condition nonPleine = verrou.newCondition();
+    private final Condition videe = verrou.newCondition();
+    // Écritures en attente, dans l'ordre de la première modification de chaque entité
+    private final LinkedHashMap<Object, Ecriture> enAttente = new LinkedHashMap<>();
+    // Écritures échouées, remises en file par le flush() suivant ou par une nouvelle mise à jour de l'entité
+    private final LinkedHashMap<Object, Ecriture> aReessayer = new LinkedHashMap<>();
+    private int enCours;
+    private boolean fermee;
+    private final List<EcouteurEchec> ecouteurs = new CopyOnWriteArrayList<>();
+    private SauvegardeImpossible premierEchec;
+    private int nombreEchecs;
+    // Statistiques
+    private long nombreEcritures, nombreFusions;
+    private final Thread ecrivain;
+
+    /**
+     * @param passerelle La passerelle qui effectue réellement les écritures.
+     * @param capacite Le nombre maximal d'entités en attente d'écriture.
+     * @param tailleLot Le nombre maximal d'écritures enregistrées à chaque passage du thread de fond.
+     */
+    public PasserelleDifferee(Passerelle passerelle, int capacite, int tailleLot) {
+        if (capacite <= 0 || tailleLot <= 0) {
+            throw new IllegalArgumentException("La capacité et la taille des lots doivent être positives.");
+        }
+        this.passerelle = passerelle;
+        this.capacite = capacite;
+        this.tailleLot = tailleLot;
+        this.ecrivain = new Thread(this::ecrire, "ecriture-differee");
+        ecrivain.setDaemon(true);
+        ecrivain.start();
+    }
+
+    public void ajouterEcouteur(EcouteurEchec ecouteur) {
+        ecouteurs.add(ecouteur);
+    }
+
+    public void retirerEcouteur(EcouteurEchec ecouteur) {
+        ecouteurs.remove(ecouteur);
+    }
+
+    // --- Mises à jour différées ---
+
+    @Override
+    public void update(Ligue ligue) throws SauvegardeImpossible {
+        update(ligue, ligue.getChampsModifies());
+    }
+
+    @Override
+    public void update(Ligue ligue, Set<Ligue.Champ> champs) throws SauvegardeImpossible {
+        if (!champs.isEmpty()) {
+            mettreEnFile(ligue, new EcritureLigue(ligue, champs));
+        }
+    }
+
+    @Override
+    public void update(Employe employe) throws SauvegardeImpossible {
+        update(employe, employe.getChampsModifies());
+    }
+
+    @Override
+    public void update(Employe employe, Set<Employe.Champ> champs) throws SauvegardeImpossible {
+        if (!champs.isEmpty()) {
+            mettreEnFile(employe, new EcritureEmploye(employe, champs));
+        }
+    }
+
+    /**
+     * Les mises à jour groupées sont mises en file comme les autres, entité par entité.
+     */
+    @Override
+    public void updateAll(Collection<Employe> employes) throws SauvegardeImpossible {
+        for (Employe employe : employes) {
+            update(employe);
+        }
+    }
+
+    private void mettreEnFile(Object entite, Ecriture ecriture) throws SauvegardeImpossible {
+        verrou.lock();
+        try {
+            while (true) {
+                if (fermee) {
+                    throw new SauvegardeImpossible("La passerelle à écriture différée est fermée.");
+                }
+                Ecriture echouee = aReessayer.remove(entite);
+                if (echouee != null) {
+                    ecriture.fusionner(echouee); // Les champs non enregistrés repartent avec cette écriture
+                }
+                Ecriture existante = enAttente.get(entite);
+                if (existante != null) {
+                    existante.fusionner(ecriture); // Déjà en file : une seule écriture pour les deux modifications
+                    nombreFusions++;
+                    return;
+                }
+                if (enAttente.size() < capacite) {
+                    enAttente.put(entite, ecriture);
+                    nonVide.signal();
+                    return;
+                }
+                nonPleine.await(); // File pleine : l'appelant attend le thread d'écriture
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SauvegardeImpossible("Attente de place dans la file d'écriture interrompue.", e);
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Boucle du thread de fond : prend les écritures par lots et les enregistre.
+     */
+    private void ecrire() {
+        List<Ecriture> lot = new ArrayList<>(tailleLot);
+        while (true) {
+            verrou.lock();
+            try {
+                while (enAttente.isEmpty() && !fermee) {
+                    nonVide.await();
+                }
+                if (enAttente.isEmpty()) {
+                    return; // Fermée et vidée
+                }
+                Iterator<Ecriture> iterator = enAttente.values().iterator();
+                while (iterator.hasNext() && lot.size() < tailleLot) {
+                    lot.add(iterator.next());
+                    iterator.remove();
+                }
+                enCours = lot.size();
+                nonPleine.signalAll();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                verrou.unlock();
+            }
+
+            for (Ecriture ecriture : lot) {
+                try {
+                    ecriture.enregistrer(passerelle);
+                } catch (SauvegardeImpossible e) {
+                    signalerEchec(ecriture, e);
+                } catch (RuntimeException e) {
+                    signalerEchec(ecriture, new SauvegardeImpossible("Erreur lors de l'écriture différée : " + e.getMessage(), e));
+                }
+            }
+
+            verrou.lock();
+            try {
+                nombreEcritures += lot.size();
+                enCours = 0;
+                if (enAttente.isEmpty()) {
+                    videe.signalAll();
+                }
+            } finally {
+                verrou.unlock();
+            }
+            lot.clear();
+        }
+    }
+
+    /**
+     * Garde l'écriture échouée : si l'entité a été modifiée entre-temps, ses champs rejoignent l'écriture
+     * déjà en file, sinon elle attend le flush() suivant ou la prochaine mise à jour de l'entité.
+     */
+    private void signalerEchec(Ecriture ecriture, SauvegardeImpossible erreur) {
+        verrou.lock();
+        try {
+            if (premierEchec == null) {
+                premierEchec = erreur;
+            }
+            nombreEchecs++;
+            remettre(enAttente.containsKey(ecriture.entite()) ? enAttente : aReessayer, ecriture);
+        } finally {
+            verrou.unlock();
+        }
+        for (EcouteurEchec ecouteur : ecouteurs) {
+            try {
+                ecouteur.echec(ecriture.entite(), erreur);
+            } catch (RuntimeException e) {
+                e.printStackTrace(); // Un écouteur défaillant ne doit pas arrêter les écritures
+            }
+        }
+    }
+
+    private static void remettre(LinkedHashMap<Object, Ecriture> file, Ecriture ecriture) {
+        Ecriture existante = file.get(ecriture.entite());
+        if (existante != null) {
+            existante.fusionner(ecriture);
+        } else {
+            file.put(ecriture.entite(), ecriture);
+        }
+    }
+
+    /**
+     * Retente les écritures échouées, puis attend que toutes les écritures en file aient été enregistrées.
+     * @throws SauvegardeImpossible Si des écritures ont encore échoué (elles restent gardées pour le flush() suivant),
+     * ou si l'attente est interrompue.
+     */
+    public void flush() throws SauvegardeImpossible {
+        verrou.lock();
+        try {
+            if (!aReessayer.isEmpty()) {
+                for (Ecriture ecriture : aReessayer.values()) {
+                    remettre(enAttente, ecriture);
+                }
+                aReessayer.clear();
+                nonVide.signal();
+            }
+            // Seuls les échecs de cette tentative sont signalés : les précédents sont retentés ci-dessus
+            premierEchec = null;
+            nombreEchecs = 0;
+            attendreVidage();
+            if (premierEchec != null) {
+                SauvegardeImpossible erreur = new SauvegardeImpossible(
+                        nombreEchecs + " écriture(s) différée(s) ont échoué : " + premierEchec.getMessage(), premierEchec);
+                premierEchec = null;
+                nombreEchecs = 0;
+                throw erreur;
+            }
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Vide la file sans lever les échecs : ils restent signalés par le flush() suivant.
+     */
+    private void vider() throws SauvegardeImpossible {
+        verrou.lock();
+        try {
+            attendreVidage();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    private void attendreVidage() throws SauvegardeImpossible {
+        if (Thread.currentThread() == ecrivain) {
+            return; // Appel depuis une écriture en cours : attendre serait un interblocage
+        }
+        try {
+            while (!enAttente.isEmpty() || enCours > 0) {
+                if (!ecrivain.isAlive()) {
+                    throw new SauvegardeImpossible("Le thread d'écriture différée est arrêté, " + enAttente.size() + " écriture(s) perdue(s).");
+                }
+                videe.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SauvegardeImpossible("Attente de l'écriture différée interrompue.", e);
+        }
+    }
+
+    // --- Statistiques ---
+
+    /**
+     * @return Le nombre d'écritures échouées en attente d'être retentées.
+     */
+    public int getNombreEchecsEnAttente() {
+        verrou.lock();
+        try {
+            return aReessayer.size();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    public int getNombreEnAttente() {
+        verrou.lock();
+        try {
+            return enAttente.size() + enCours;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    public long getNombreEcritures() {
+        verrou.lock();
+        try {
+            return nombreEcritures;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * @return Le nombre de mises à jour fusionnées avec une écriture déjà en file.
+     */
+    public long getNombreFusions() {
+        verrou.lock();
+        try {
+            return nombreFusions;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    // --- Opérations synchrones, après vidage de la file ---
+
+    @Override
+    public int insert(Ligue ligue) throws SauvegardeImpossible {
+        vider();
+        return passerelle.insert(ligue);
+    }
+
+    @Override
+    public int insert(Employe employe) throws SauvegardeImpossible {
+        vider();
+        return passerelle.insert(employe);
+    }
+
+    @Override
+    public int[] insertAll(List<Employe> employes) throws SauvegardeImpossible {
+        vider();
+        return passerelle.insertAll(employes);
+    }
+
+    @Override
+    public void deleteAll(Collection<Employe> employes) throws SauvegardeImpossible {
+        vider();
+        passerelle.deleteAll(employes);
+    }
+
+    @Override
+    public void delete(Ligue ligue) throws SauvegardeImpossible {
+        vider();
+        passerelle.delete(ligue);
+    }
+
+    @Override
+    public void deleteCascade(Ligue ligue) throws SauvegardeImpossible {
+        vider();
+        passerelle.deleteCascade(ligue);
+    }
+
+    @Override
+    public void delete(Employe employe) throws SauvegardeImpossible {
+        vider();
+        passerelle.delete(employe);
+    }
+
+    @Override
+    public GestionPersonnel getGestionPersonnel() throws SauvegardeImpossible {
+        vider();
+        return passerelle.getGestionPersonnel();
+    }
+
+    @Override
+    public Employe getEmployeByNom(String nom) throws SauvegardeImpossible {
+        vider();
+        return passerelle.getEmployeByNom(nom);
+    }
+
+    @Override
+    public Employe getEmployeByMail(String mail) throws SauvegardeImpossible {
+        vider();
+        return passerelle.getEmployeByMail(mail);
+    }
+
+    @Override
+    public Employe getEmploye(int id) throws SauvegardeImpossible {
+        vider();
+        return passerelle.getEmploye(id);
+    }
+
+    @Override
+    public boolean utilisateurExiste(String nomUtilisateur) throws SauvegardeImpossible {
+        vider();
+        return passerelle.utilisateurExiste(nomUtilisateur);
+    }
+
+    @Override
+    public Employe getRoot() {
+        return passerelle.getRoot();
+    }
+
+    @Override
+    public String hashPassword(String password) throws SauvegardeImpossible {
+        return passerelle.hashPassword(password);
+    }
+
+    /**
+     * Enregistre les écritures en attente avant de déléguer la sauvegarde.
+     */
+    @Override
+    public void sauvegarderGestionPersonnel(GestionPersonnel gestionPersonnel) throws SauvegardeImpossible {
+        try {
+            flush();
+        } finally {
+            passerelle.sauvegarderGestionPersonnel(gestionPersonnel);
+        }
+    }
+
+    /**
+     * Enregistre les écritures en attente, arrête le thread d'écriture puis ferme la passerelle.
+     */
+    @Override
+    public void close() throws SauvegardeImpossible {
+        try {
+            flush();
+        } finally {
+            verrou.lock();
+            try {
+                fermee = true;
+                nonVide.signalAll();
+                nonPleine.signalAll();
+            } finally {
+                verrou.unlock();
+            }
+            passerelle.close();
+        }
+    }
+
+    // --- Écritures en file ---
+
+    private interface Ecriture {
+        Object entite();
+
+        void fusionner(Ecriture autre);
+
+        void enregistrer(Passerelle passerelle) throws SauvegardeImpossible;
+    }
+
+    private static class EcritureLigue implements Ecriture {
+        private final Ligue ligue;
+        private final EnumSet<Ligue.Champ> champs;
+
+        EcritureLigue(Ligue ligue, Set<Ligue.Champ> champs) {
+            this.ligue = ligue;
+            this.champs = EnumSet.copyOf(champs);
+        }
+
+        @Override
+        public Object entite() {
+            return ligue;
+        }
+
+        @Override
+        public void fusionner(Ecriture autre) {
+            champs.addAll(((EcritureLigue) autre).champs);
+        }
+
+        @Override
+        public void enregistrer(Passerelle passerelle) throws SauvegardeImpossible {
+            passerelle.update(ligue, champs);
+        }
+    }
+
+    private static class EcritureEmploye implements Ecriture {
+        private final Employe employe;
+        private final EnumSet<Employe.Champ> champs;
+
+        EcritureEmploye(Employe employe, Set<Employe.Champ> champs) {
+            this.employe = employe;
+            this.champs = EnumSet.copyOf(champs);
+        }
+
+        @Override
+        public Object entite() {
+            return employe;
+        }
+
+        @Override
+        public void fusionner(Ecriture autre) {
+            champs.addAll(((EcritureEmploye) autre).champs);
+        }
+
+        @Override
+        public void enregistrer(Passerelle passerelle) throws SauvegardeImpossible {
+            passerelle.update(employe, champs);
+        }
+    }
+}
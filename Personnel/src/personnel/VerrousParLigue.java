@@ -0,0 +1,105 @@
+package personnel;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verrous répartis par ligue (lock striping) : chaque ligue est associée, selon son identifiant,
+ * à l'un des verrous d'un tableau de taille fixe.
+ * Les écritures sur des ligues différentes prennent le plus souvent des verrous différents
+ * et s'exécutent donc en parallèle, alors qu'un verrou unique les sérialiserait.
+ * <p>
+ * Plusieurs verrous sont toujours pris dans l'ordre croissant de leur position dans le tableau :
+ * deux opérations portant sur les mêmes ligues (par exemple deux transferts en sens inverse)
+ * ne peuvent pas s'interbloquer.
+ */
+final class VerrousParLigue implements Serializable {
+    private static final long serialVersionUID = 6482917353170640211L;
+    private final ReentrantLock[] verrous;
+    private final int masque;
+
+    /**
+     * @param nombre Le nombre minimal de verrous, arrondi à la puissance de deux supérieure.
+     */
+    VerrousParLigue(int nombre) {
+        int taille = 1;
+        while (taille < nombre) {
+            taille <<= 1;
+        }
+        verrous = new ReentrantLock[taille];
+        for (int i = 0; i < taille; i++) {
+            verrous[i] = new ReentrantLock();
+        }
+        masque = taille - 1;
+    }
+
+    /**
+     * Verrous pris par {@link #verrouiller}, libérés par {@link #liberer()} dans un bloc finally.
+     */
+    final class Verrouillage {
+        private final int[] positions;
+
+        private Verrouillage(int[] positions) {
+            this.positions = positions;
+        }
+
+        void liberer() {
+            for (int i = positions.length - 1; i >= 0; i--) {
+                verrous[positions[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Prend les verrous des ligues données, dans l'ordre croissant de leur position.
+     * Une ligue null (employé sans ligue, comme le root) a son propre verrou.
+     * @param ligues Les ligues à verrouiller ; les doublons sont ignorés.
+     * @return Le verrouillage, dont liberer() rend les verrous.
+     */
+    Verrouillage verrouiller(Ligue... ligues) {
+        int[] positions = new int[ligues.length];
+        for (int i = 0; i < ligues.length; i++) {
+            positions[i] = position(ligues[i]);
+        }
+        return verrouiller(positions);
+    }
+
+    /**
+     * Prend les verrous des ligues données, dans l'ordre croissant de leur position.
+     * @param ligues Les ligues à verrouiller ; les doublons sont ignorés.
+     * @return Le verrouillage, dont liberer() rend les verrous.
+     */
+    Verrouillage verrouiller(Collection<Ligue> ligues) {
+        return verrouiller(ligues.toArray(new Ligue[0]));
+    }
+
+    private Verrouillage verrouiller(int[] positions) {
+        positions = Arrays.stream(positions).sorted().distinct().toArray();
+        int pris = 0;
+        try {
+            for (int position : positions) {
+                verrous[position].lock();
+                pris++;
+            }
+        } finally {
+            if (pris < positions.length) { // Interrompu par une erreur : libère ce qui a été pris
+                for (int i = pris - 1; i >= 0; i--) {
+                    verrous[positions[i]].unlock();
+                }
+            }
+        }
+        return new Verrouillage(positions);
+    }
+
+    /**
+     * Retourne la position du verrou d'une ligue. Les identifiants consécutifs sont dispersés
+     * (hachage de Fibonacci) pour que des ligues voisines ne partagent pas le même verrou.
+     */
+    private int position(Ligue ligue) {
+        int id = ligue == null ? -1 : ligue.getId();
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & masque;
+    }
+}
@@ -0,0 +1,239 @@
+package serialisation;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compression par blocs des fichiers de sauvegarde.
+ * <p>
+ * Structure d'un fichier compressé :
+ * <pre>
+ * en-tête : MAGIC (4 octets), codec (1 octet)
+ * blocs   : taille d'origine (4 octets), taille compressée (4 octets), octets compressés
+ * fin     : bloc de taille d'origine 0
+ * </pre>
+ * Chaque bloc contient au plus {@link #TAILLE_BLOC} octets d'origine et est compressé séparément :
+ * il se décompresse sans les blocs précédents. L'écriture et la lecture se font bloc par bloc, la mémoire
+ * utilisée par la compression ne dépend pas de la taille du fichier.
+ * <p>
+ * Avec {@link #AUCUNE}, le fichier est écrit tel quel, sans en-tête : les fichiers non compressés
+ * restent lisibles, le format est reconnu à la lecture.
+ */
+public enum Compression {
+    AUCUNE(0),
+    DEFLATE(1);
+
+    static final int MAGIC = 0x47504258; // "GPBX"
+    static final int TAILLE_BLOC = 64 * 1024;
+
+    private final int codec;
+
+    Compression(int codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * @param sortie Le flux du fichier.
+     * @return Un flux qui compresse vers la sortie, et la ferme à sa fermeture.
+     */
+    public OutputStream compresser(OutputStream sortie) throws IOException {
+        if (this == AUCUNE) {
+            return sortie;
+        }
+        return new SortieParBlocs(sortie, codec);
+    }
+
+    /**
+     * @param entree Le flux du fichier, compressé ou non.
+     * @return Un flux des octets d'origine, qui ferme l'entrée à sa fermeture.
+     */
+    public static InputStream decompresser(InputStream entree) throws IOException {
+        BufferedInputStream tampon = new BufferedInputStream(entree);
+        tampon.mark(5);
+        DataInputStream donnees = new DataInputStream(tampon);
+        int magic;
+        try {
+            magic = donnees.readInt();
+        } catch (EOFException e) {
+            magic = 0; // Fichier trop court pour être compressé
+        }
+        if (magic != MAGIC) {
+            tampon.reset();
+            return tampon;
+        }
+        int codec = donnees.read();
+        if (codec != DEFLATE.codec) {
+            throw new IOException("Codec de compression inconnu : " + codec + ".");
+        }
+        return new EntreeParBlocs(donnees);
+    }
+
+    /**
+     * Découpe les octets écrits en blocs compressés indépendamment.
+     */
+    private static final class SortieParBlocs extends OutputStream {
+        private final DataOutputStream sortie;
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private final byte[] bloc = new byte[TAILLE_BLOC];
+        // Le résultat peut dépasser légèrement l'entrée pour des octets incompressibles
+        private final byte[] compresse = new byte[TAILLE_BLOC + TAILLE_BLOC / 100 + 64];
+        private int taille;
+        private boolean ferme;
+
+        SortieParBlocs(OutputStream sortie, int codec) throws IOException {
+            this.sortie = new DataOutputStream(sortie);
+            this.sortie.writeInt(MAGIC);
+            this.sortie.write(codec);
+        }
+
+        @Override
+        public void write(int octet) throws IOException {
+            if (taille == TAILLE_BLOC) {
+                ecrireBloc();
+            }
+            bloc[taille++] = (byte) octet;
+        }
+
+        @Override
+        public void write(byte[] octets, int debut, int longueur) throws IOException {
+            while (longueur > 0) {
+                if (taille == TAILLE_BLOC) {
+                    ecrireBloc();
+                }
+                int n = Math.min(longueur, TAILLE_BLOC - taille);
+                System.arraycopy(octets, debut, bloc, taille, n);
+                taille += n;
+                debut += n;
+                longueur -= n;
+            }
+        }
+
+        private void ecrireBloc() throws IOException {
+            deflater.reset(); // Aucun dictionnaire partagé avec le bloc précédent
+            deflater.setInput(bloc, 0, taille);
+            deflater.finish();
+            int longueur = 0;
+            while (!deflater.finished()) {
+                longueur += deflater.deflate(compresse, longueur, compresse.length - longueur);
+            }
+            sortie.writeInt(taille);
+            sortie.writeInt(longueur);
+            sortie.write(compresse, 0, longueur);
+            taille = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (ferme) {
+                return;
+            }
+            ferme = true;
+            try {
+                if (taille > 0) {
+                    ecrireBloc();
+                }
+                sortie.writeInt(0);
+            } finally {
+                deflater.end();
+                sortie.close();
+            }
+        }
+    }
+
+    /**
+     * Décompresse les blocs un par un.
+     */
+    private static final class EntreeParBlocs extends InputStream {
+        private final DataInputStream entree;
+        private final Inflater inflater = new Inflater();
+        private final byte[] bloc = new byte[TAILLE_BLOC];
+        private byte[] compresse = new byte[TAILLE_BLOC];
+        private int taille, position;
+        private boolean fin;
+
+        EntreeParBlocs(DataInputStream entree) {
+            this.entree = entree;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!disponible()) {
+                return -1;
+            }
+            return bloc[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] octets, int debut, int longueur) throws IOException {
+            if (longueur == 0) {
+                return 0;
+            }
+            if (!disponible()) {
+                return -1;
+            }
+            int n = Math.min(longueur, taille - position);
+            System.arraycopy(bloc, position, octets, debut, n);
+            position += n;
+            return n;
+        }
+
+        /**
+         * Lit le bloc suivant si le bloc courant est épuisé.
+         * @return Faux à la fin des blocs.
+         */
+        private boolean disponible() throws IOException {
+            if (position < taille) {
+                return true;
+            }
+            if (fin) {
+                return false;
+            }
+            int origine = entree.readInt();
+            if (origine == 0) {
+                fin = true;
+                return false;
+            }
+            int longueur = entree.readInt();
+            if (origine < 0 || origine > TAILLE_BLOC || longueur < 0) {
+                throw new IOException("Bloc compressé incohérent.");
+            }
+            if (longueur > compresse.length) {
+                compresse = new byte[longueur];
+            }
+            entree.readFully(compresse, 0, longueur);
+            inflater.reset();
+            inflater.setInput(compresse, 0, longueur);
+            try {
+                taille = 0;
+                while (taille < origine && !inflater.finished()) {
+                    int n = inflater.inflate(bloc, taille, origine - taille);
+                    if (n == 0 && inflater.needsInput()) {
+                        break;
+                    }
+                    taille += n;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Bloc compressé corrompu : " + e.getMessage(), e);
+            }
+            if (taille != origine) {
+                throw new IOException("Bloc compressé tronqué.");
+            }
+            position = 0;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            entree.close();
+        }
+    }
+}
@@ -0,0 +1,663 @@
+package serialisation;
+
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Format binaire compact et versionné du fichier de sauvegarde.
+ * <p>
+ * Structure du fichier :
+ * <pre>
+ * en-tête     : MAGIC (4 octets), VERSION (1 octet), génération, prochain ID de ligue, prochain ID d'employé
+ * chaînes     : nombre, puis chaque chaîne en UTF-8 précédée de sa longueur
+ * ligues      : nombre, puis pour chaque ligue (par ID croissant) : écart d'ID, nom, administrateur
+ * employés    : nombre, puis pour chaque employé (par ID croissant) : écart d'ID, ligue,
+ *               nom, prénom, indicateurs, mail, mot de passe, dates d'arrivée et de départ
+ * fin         : CRC32 de tout ce qui précède (4 octets)
+ * </pre>
+ * Les entiers sont des varints (7 bits par octet) : un écart d'ID tient le plus souvent sur un octet.
+ * Les noms de ligues, noms et prénoms ne sont écrits qu'une fois dans la table des chaînes, les enregistrements
+ * y font référence par position (0 pour null) : un nom répété ne coûte qu'une référence, et est partagé
+ * en mémoire après la lecture. Les mails, uniques, sont écrits directement ; un mot de passe haché en SHA-256
+ * (64 caractères hexadécimaux) est écrit sur 32 octets. Les dates sont écrites en nombre de jours depuis le 01/01/1970.
+ * <p>
+ * La génération indique les journaux déjà intégrés à l'instantané (voir {@link Journal}).
+ * Un fichier de version 1, sans génération, est lu comme étant de génération 0.
+ */
+public final class FormatBinaire {
+    public static final int MAGIC = 0x47504552; // "GPER"
+    public static final int VERSION = 2;
+
+    // Indicateurs d'un employé
+    private static final int ROOT = 1, ARRIVEE = 2, DEPART = 4, SHA256 = 8;
+    private static final int LONGUEUR_SHA256 = 32;
+    private static final byte[] HEXADECIMAL = "0123456789abcdef".getBytes(StandardCharsets.ISO_8859_1);
+
+    private FormatBinaire() {
+    }
+
+    /**
+     * Ligue telle qu'enregistrée dans le fichier.
+     */
+    public static final class LigueEnregistree implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final int id;
+        private final String nom;
+        private final int administrateurId;
+
+        /**
+         * @param administrateurId L'ID de l'administrateur, ou -1 si la ligue n'en a pas.
+         */
+        public LigueEnregistree(int id, String nom, int administrateurId) {
+            this.id = id;
+            this.nom = nom;
+            this.administrateurId = administrateurId;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getNom() {
+            return nom;
+        }
+
+        public int getAdministrateurId() {
+            return administrateurId;
+        }
+    }
+
+    /**
+     * Employé tel qu'enregistré dans le fichier (mot de passe haché).
+     */
+    public static final class EmployeEnregistre implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final int id;
+        private final int ligueId;
+        private final String nom, prenom, mail, password;
+        private final LocalDate dateArrivee, dateDepart;
+        private final boolean root;
+
+        /**
+         * @param ligueId L'ID de la ligue, ou -1 pour le root.
+         */
+        public EmployeEnregistre(int id, int ligueId, String nom, String prenom, String mail, String password,
+                                 LocalDate dateArrivee, LocalDate dateDepart, boolean root) {
+            this.id = id;
+            this.ligueId = ligueId;
+            this.nom = nom;
+            this.prenom = prenom;
+            this.mail = mail;
+            this.password = password;
+            this.dateArrivee = dateArrivee;
+            this.dateDepart = dateDepart;
+            this.root = root;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getLigueId() {
+            return ligueId;
+        }
+
+        public String getNom() {
+            return nom;
+        }
+
+        public String getPrenom() {
+            return prenom;
+        }
+
+        public String getMail() {
+            return mail;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public LocalDate getDateArrivee() {
+            return dateArrivee;
+        }
+
+        public LocalDate getDateDepart() {
+            return dateDepart;
+        }
+
+        public boolean estRoot() {
+            return root;
+        }
+    }
+
+    /**
+     * Contenu complet d'un fichier de sauvegarde.
+     */
+    public static final class Contenu implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final long generation;
+        private final int prochainIdLigue, prochainIdEmploye;
+        private final List<LigueEnregistree> ligues;
+        private final List<EmployeEnregistre> employes;
+
+        public Contenu(int prochainIdLigue, int prochainIdEmploye, List<LigueEnregistree> ligues, List<EmployeEnregistre> employes) {
+            this(0, prochainIdLigue, prochainIdEmploye, ligues, employes);
+        }
+
+        /**
+         * @param generation Les journaux de génération inférieure sont intégrés à ce contenu.
+         */
+        public Contenu(long generation, int prochainIdLigue, int prochainIdEmploye, List<LigueEnregistree> ligues, List<EmployeEnregistre> employes) {
+            this.generation = generation;
+            this.prochainIdLigue = prochainIdLigue;
+            this.prochainIdEmploye = prochainIdEmploye;
+            this.ligues = ligues;
+            this.employes = employes;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        public int getProchainIdLigue() {
+            return prochainIdLigue;
+        }
+
+        public int getProchainIdEmploye() {
+            return prochainIdEmploye;
+        }
+
+        public List<LigueEnregistree> getLigues() {
+            return ligues;
+        }
+
+        public List<EmployeEnregistre> getEmployes() {
+            return employes;
+        }
+    }
+
+    /**
+     * Écrit le contenu dans un fichier temporaire, puis le renomme : en cas d'échec,
+     * le fichier précédent reste intact. Le fichier et son dossier sont forcés sur le disque :
+     * au retour, le nouveau contenu survit à un arrêt brutal.
+     * @param contenu Le contenu à écrire.
+     * @param fichier Le fichier de sauvegarde.
+     * @throws IOException Si le fichier ne peut pas être écrit.
+     */
+    public static void ecrire(Contenu contenu, Path fichier) throws IOException {
+        ecrire(contenu, fichier, Compression.AUCUNE);
+    }
+
+    /**
+     * Écrit le contenu, compressé par blocs, dans un fichier temporaire, puis le renomme.
+     * @param contenu Le contenu à écrire.
+     * @param fichier Le fichier de sauvegarde.
+     * @param compression La compression des octets écrits.
+     * @throws IOException Si le fichier ne peut pas être écrit.
+     */
+    public static void ecrire(Contenu contenu, Path fichier, Compression compression) throws IOException {
+        remplacer(encoder(contenu), fichier, compression);
+    }
+
+    /**
+     * Écrit les octets dans un fichier temporaire, puis le renomme à la place du fichier.
+     * Le fichier temporaire est forcé sur le disque avant le renommage, le dossier après.
+     */
+    static void remplacer(byte[] octets, Path fichier) throws IOException {
+        remplacer(octets, fichier, Compression.AUCUNE);
+    }
+
+    private static void remplacer(byte[] octets, Path fichier, Compression compression) throws IOException {
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            // La fermeture du flux de compression ne doit pas fermer le canal avant force()
+            OutputStream fichierTemporaire = new FilterOutputStream(Channels.newOutputStream(canal)) {
+                @Override
+                public void write(byte[] octets, int debut, int longueur) throws IOException {
+                    out.write(octets, debut, longueur);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+            try (OutputStream sortie = compression.compresser(fichierTemporaire)) {
+                sortie.write(octets);
+            }
+            canal.force(true);
+        }
+        try {
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING);
+        }
+        forcerDossier(fichier);
+    }
+
+    /**
+     * Force sur le disque le dossier d'un fichier, pour qu'une création ou un renommage survive
+     * à un arrêt brutal. Sans effet sur les systèmes qui n'ouvrent pas les dossiers (Windows).
+     * @param fichier Un fichier du dossier.
+     */
+    static void forcerDossier(Path fichier) throws IOException {
+        Path dossier = fichier.toAbsolutePath().getParent();
+        try (FileChannel canal = FileChannel.open(dossier, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (AccessDeniedException e) {
+            // Dossier non ouvrable sur ce système : le renommage est confié au système de fichiers
+        }
+    }
+
+    /**
+     * Lit un fichier de sauvegarde, compressé ou non.
+     * @param fichier Le fichier de sauvegarde.
+     * @return Son contenu.
+     * @throws IOException Si le fichier est illisible, corrompu ou d'une version inconnue.
+     */
+    public static Contenu lire(Path fichier) throws IOException {
+        try (InputStream entree = Compression.decompresser(Files.newInputStream(fichier))) {
+            Tampon tampon = new Tampon((int) Math.min(Files.size(fichier) + 1, Integer.MAX_VALUE - 8));
+            for (int n = 0; n != -1; n = entree.read(tampon.octets, tampon.taille, tampon.octets.length - tampon.taille)) {
+                tampon.taille += n;
+                tampon.reserver(1);
+            }
+            return decoder(Arrays.copyOf(tampon.octets, tampon.taille));
+        }
+    }
+
+    /**
+     * Encode le contenu au format binaire.
+     * @param contenu Le contenu à encoder.
+     * @return Les octets du fichier.
+     */
+    public static byte[] encoder(Contenu contenu) {
+        List<LigueEnregistree> ligues = new ArrayList<>(contenu.getLigues());
+        List<EmployeEnregistre> employes = new ArrayList<>(contenu.getEmployes());
+        ligues.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        employes.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+
+        // Table des chaînes, dans l'ordre de première apparition
+        TableChaines chaines = new TableChaines();
+        for (LigueEnregistree ligue : ligues) {
+            chaines.ajouter(ligue.getNom());
+        }
+        for (EmployeEnregistre employe : employes) {
+            chaines.ajouter(employe.getNom());
+            chaines.ajouter(employe.getPrenom());
+        }
+
+        Tampon tampon = new Tampon(64 + chaines.octets + 16 * ligues.size() + 80 * employes.size());
+        tampon.ecrireEntier(MAGIC);
+        tampon.ecrireOctet(VERSION);
+        tampon.ecrireVarintLong(contenu.getGeneration());
+        tampon.ecrireVarint(contenu.getProchainIdLigue());
+        tampon.ecrireVarint(contenu.getProchainIdEmploye());
+
+        tampon.ecrireVarint(chaines.liste.size());
+        for (byte[] chaine : chaines.liste) {
+            tampon.ecrireVarint(chaine.length);
+            tampon.ecrireOctets(chaine);
+        }
+
+        tampon.ecrireVarint(ligues.size());
+        int idPrecedent = 0;
+        for (LigueEnregistree ligue : ligues) {
+            tampon.ecrireVarint(ligue.getId() - idPrecedent);
+            idPrecedent = ligue.getId();
+            tampon.ecrireVarint(chaines.reference(ligue.getNom()));
+            tampon.ecrireVarint(ligue.getAdministrateurId() + 1);
+        }
+
+        tampon.ecrireVarint(employes.size());
+        idPrecedent = 0;
+        for (EmployeEnregistre employe : employes) {
+            tampon.ecrireVarint(employe.getId() - idPrecedent);
+            idPrecedent = employe.getId();
+            tampon.ecrireVarint(employe.getLigueId() + 1);
+            tampon.ecrireVarint(chaines.reference(employe.getNom()));
+            tampon.ecrireVarint(chaines.reference(employe.getPrenom()));
+            ecrireDetails(tampon, employe);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(tampon.octets, 0, tampon.taille);
+        tampon.ecrireEntier((int) crc.getValue());
+        return Arrays.copyOf(tampon.octets, tampon.taille);
+    }
+
+    /**
+     * Décode un fichier au format binaire.
+     * @param octets Les octets du fichier.
+     * @return Son contenu.
+     * @throws IOException Si les octets sont tronqués, corrompus ou d'une version inconnue.
+     */
+    public static Contenu decoder(byte[] octets) throws IOException {
+        if (octets.length < 9) {
+            throw new IOException("Fichier de sauvegarde tronqué.");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(octets, 0, octets.length - 4);
+        Lecteur lecteur = new Lecteur(octets, octets.length - 4);
+        if (lecteur.lireEntierA(octets.length - 4) != (int) crc.getValue()) {
+            throw new IOException("Fichier de sauvegarde corrompu (CRC invalide).");
+        }
+        if (lecteur.lireEntier() != MAGIC) {
+            throw new IOException("Ce fichier n'est pas une sauvegarde du personnel.");
+        }
+        int version = lecteur.lireOctet();
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Version de sauvegarde non prise en charge : " + version + ".");
+        }
+        try {
+            long generation = version == 1 ? 0 : lecteur.lireVarintLong();
+            int prochainIdLigue = lecteur.lireVarint();
+            int prochainIdEmploye = lecteur.lireVarint();
+
+            String[] chaines = new String[lecteur.lireVarint() + 1]; // La référence 0 désigne null
+            for (int i = 1; i < chaines.length; i++) {
+                int longueur = lecteur.lireVarint();
+                chaines[i] = new String(octets, lecteur.avancer(longueur), longueur, StandardCharsets.UTF_8);
+            }
+
+            int nombreLigues = lecteur.lireVarint();
+            List<LigueEnregistree> ligues = new ArrayList<>(nombreLigues);
+            int id = 0;
+            for (int i = 0; i < nombreLigues; i++) {
+                id += lecteur.lireVarint();
+                String nom = chaines[lecteur.lireVarint()];
+                ligues.add(new LigueEnregistree(id, nom, lecteur.lireVarint() - 1));
+            }
+
+            int nombreEmployes = lecteur.lireVarint();
+            List<EmployeEnregistre> employes = new ArrayList<>(nombreEmployes);
+            id = 0;
+            for (int i = 0; i < nombreEmployes; i++) {
+                id += lecteur.lireVarint();
+                int ligueId = lecteur.lireVarint() - 1;
+                String nom = chaines[lecteur.lireVarint()];
+                String prenom = chaines[lecteur.lireVarint()];
+                employes.add(lireDetails(lecteur, id, ligueId, nom, prenom));
+            }
+            return new Contenu(generation, prochainIdLigue, prochainIdEmploye, ligues, employes);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Fichier de sauvegarde incohérent : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Écrit la fin d'un enregistrement d'employé : indicateurs, mail, mot de passe et dates.
+     */
+    static void ecrireDetails(Tampon tampon, EmployeEnregistre employe) {
+        boolean sha256 = estSha256(employe.getPassword());
+        int indicateurs = (employe.estRoot() ? ROOT : 0)
+                | (employe.getDateArrivee() != null ? ARRIVEE : 0)
+                | (employe.getDateDepart() != null ? DEPART : 0)
+                | (sha256 ? SHA256 : 0);
+        tampon.ecrireOctet(indicateurs);
+        tampon.ecrireChaine(employe.getMail());
+        if (sha256) {
+            tampon.ecrireHexadecimal(employe.getPassword());
+        } else {
+            tampon.ecrireChaine(employe.getPassword());
+        }
+        if (employe.getDateArrivee() != null) {
+            tampon.ecrireVarintSigne(employe.getDateArrivee().toEpochDay());
+        }
+        if (employe.getDateDepart() != null) {
+            tampon.ecrireVarintSigne(employe.getDateDepart().toEpochDay());
+        }
+    }
+
+    /**
+     * Lit la fin d'un enregistrement d'employé écrite par ecrireDetails.
+     */
+    static EmployeEnregistre lireDetails(Lecteur lecteur, int id, int ligueId, String nom, String prenom) throws IOException {
+        int indicateurs = lecteur.lireOctet();
+        String mail = lecteur.lireChaine();
+        String password = (indicateurs & SHA256) != 0 ? lecteur.lireHexadecimal(LONGUEUR_SHA256) : lecteur.lireChaine();
+        LocalDate dateArrivee = (indicateurs & ARRIVEE) != 0 ? LocalDate.ofEpochDay(lecteur.lireVarintSigne()) : null;
+        LocalDate dateDepart = (indicateurs & DEPART) != 0 ? LocalDate.ofEpochDay(lecteur.lireVarintSigne()) : null;
+        return new EmployeEnregistre(id, ligueId, nom, prenom, mail, password, dateArrivee, dateDepart, (indicateurs & ROOT) != 0);
+    }
+
+    /**
+     * Vrai si le mot de passe est un haché SHA-256 en hexadécimal minuscule, comme le produit Passerelle.hashPassword.
+     */
+    static boolean estSha256(String password) {
+        if (password == null || password.length() != 2 * LONGUEUR_SHA256) {
+            return false;
+        }
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Table des chaînes distinctes, encodées une seule fois en UTF-8.
+     */
+    private static final class TableChaines {
+        private final Map<String, Integer> references = new HashMap<>();
+        private final List<byte[]> liste = new ArrayList<>();
+        private int octets;
+
+        void ajouter(String chaine) {
+            if (chaine != null && !references.containsKey(chaine)) {
+                byte[] encodee = chaine.getBytes(StandardCharsets.UTF_8);
+                liste.add(encodee);
+                references.put(chaine, liste.size());
+                octets += encodee.length + 2;
+            }
+        }
+
+        int reference(String chaine) {
+            return chaine == null ? 0 : references.get(chaine);
+        }
+    }
+
+    /**
+     * Tampon d'écriture extensible.
+     */
+    static final class Tampon {
+        byte[] octets;
+        int taille;
+
+        Tampon(int capacite) {
+            octets = new byte[capacite];
+        }
+
+        private void reserver(int n) {
+            if (taille + n > octets.length) {
+                octets = Arrays.copyOf(octets, Math.max(octets.length * 2, taille + n));
+            }
+        }
+
+        void ecrireOctet(int valeur) {
+            reserver(1);
+            octets[taille++] = (byte) valeur;
+        }
+
+        void ecrireOctets(byte[] valeurs) {
+            reserver(valeurs.length);
+            System.arraycopy(valeurs, 0, octets, taille, valeurs.length);
+            taille += valeurs.length;
+        }
+
+        void ecrireEntier(int valeur) {
+            reserver(4);
+            octets[taille++] = (byte) (valeur >>> 24);
+            octets[taille++] = (byte) (valeur >>> 16);
+            octets[taille++] = (byte) (valeur >>> 8);
+            octets[taille++] = (byte) valeur;
+        }
+
+        void ecrireVarint(int valeur) {
+            reserver(5);
+            while ((valeur & ~0x7F) != 0) {
+                octets[taille++] = (byte) ((valeur & 0x7F) | 0x80);
+                valeur >>>= 7;
+            }
+            octets[taille++] = (byte) valeur;
+        }
+
+        // Chaîne écrite sur place : longueur + 1 (0 pour null), puis UTF-8
+        void ecrireChaine(String chaine) {
+            if (chaine == null) {
+                ecrireVarint(0);
+                return;
+            }
+            byte[] encodee = chaine.getBytes(StandardCharsets.UTF_8);
+            ecrireVarint(encodee.length + 1);
+            ecrireOctets(encodee);
+        }
+
+        // Deux caractères hexadécimaux (minuscules, déjà vérifiés par estSha256) par octet
+        void ecrireHexadecimal(String hexadecimal) {
+            reserver(hexadecimal.length() / 2);
+            for (int i = 0; i < hexadecimal.length(); i += 2) {
+                octets[taille++] = (byte) (quartet(hexadecimal.charAt(i)) << 4 | quartet(hexadecimal.charAt(i + 1)));
+            }
+        }
+
+        private static int quartet(char c) {
+            return c <= '9' ? c - '0' : c - 'a' + 10;
+        }
+
+        void ecrireVarintLong(long valeur) {
+            reserver(10);
+            while ((valeur & ~0x7FL) != 0) {
+                octets[taille++] = (byte) ((valeur & 0x7F) | 0x80);
+                valeur >>>= 7;
+            }
+            octets[taille++] = (byte) valeur;
+        }
+
+        // Zigzag : les petites valeurs négatives restent courtes (dates antérieures à 1970)
+        void ecrireVarintSigne(long valeur) {
+            ecrireVarint((int) ((valeur << 1) ^ (valeur >> 63)));
+        }
+    }
+
+    /**
+     * Lecteur séquentiel des octets d'un fichier, borné avant le CRC final.
+     */
+    static final class Lecteur {
+        private final byte[] octets;
+        private final int fin;
+        int position;
+
+        Lecteur(byte[] octets, int fin) {
+            this.octets = octets;
+            this.fin = fin;
+        }
+
+        private void verifier(int n) throws IOException {
+            if (n < 0) {
+                throw new IOException("Longueur négative dans le fichier de sauvegarde.");
+            }
+            if (position + n > fin) {
+                throw new EOFException("Fichier de sauvegarde tronqué.");
+            }
+        }
+
+        int lireOctet() throws IOException {
+            verifier(1);
+            return octets[position++] & 0xFF;
+        }
+
+        int lireEntier() throws IOException {
+            verifier(4);
+            int valeur = lireEntierA(position);
+            position += 4;
+            return valeur;
+        }
+
+        int lireEntierA(int index) {
+            return (octets[index] & 0xFF) << 24 | (octets[index + 1] & 0xFF) << 16
+                    | (octets[index + 2] & 0xFF) << 8 | (octets[index + 3] & 0xFF);
+        }
+
+        int lireVarint() throws IOException {
+            int valeur = 0;
+            for (int decalage = 0; decalage < 35; decalage += 7) {
+                int octet = lireOctet();
+                valeur |= (octet & 0x7F) << decalage;
+                if ((octet & 0x80) == 0) {
+                    return valeur;
+                }
+            }
+            throw new IOException("Entier mal formé dans le fichier de sauvegarde.");
+        }
+
+        long lireVarintLong() throws IOException {
+            long valeur = 0;
+            for (int decalage = 0; decalage < 70; decalage += 7) {
+                int octet = lireOctet();
+                valeur |= (long) (octet & 0x7F) << decalage;
+                if ((octet & 0x80) == 0) {
+                    return valeur;
+                }
+            }
+            throw new IOException("Entier mal formé dans le fichier de sauvegarde.");
+        }
+
+        long lireVarintSigne() throws IOException {
+            int valeur = lireVarint();
+            return (valeur >>> 1) ^ -(valeur & 1);
+        }
+
+        String lireChaine() throws IOException {
+            int longueur = lireVarint() - 1;
+            if (longueur == -1) {
+                return null;
+            }
+            return new String(octets, avancer(longueur), longueur, StandardCharsets.UTF_8);
+        }
+
+        String lireHexadecimal(int longueur) throws IOException {
+            int debut = avancer(longueur);
+            byte[] caracteres = new byte[2 * longueur];
+            for (int i = 0; i < longueur; i++) {
+                caracteres[2 * i] = HEXADECIMAL[(octets[debut + i] >> 4) & 0xF];
+                caracteres[2 * i + 1] = HEXADECIMAL[octets[debut + i] & 0xF];
+            }
+            return new String(caracteres, StandardCharsets.ISO_8859_1);
+        }
+
+        /**
+         * Saute n octets et retourne la position de départ.
+         */
+        int avancer(int n) throws IOException {
+            verifier(n);
+            int debut = position;
+            position += n;
+            return debut;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package serialisation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Instantané découpé en un segment par ligue, décrit par un manifeste.
+ * <p>
+ * Le manifeste, à la place du fichier de l'instantané, contient la génération, les prochains ID et,
+ * pour chaque segment, l'ID de sa ligue (-1 pour les employés sans ligue, dont le root) et la génération
+ * à laquelle il a été écrit. Un segment est un fichier au {@link FormatBinaire} ne contenant qu'une ligue
+ * et ses employés, éventuellement compressé ({@link Compression}) ; son nom comporte sa génération,
+ * il n'est jamais réécrit sur place.
+ * <p>
+ * Au chargement, les segments sont décodés en parallèle sur le pool fork-join commun, puis réunis ;
+ * les administrateurs sont liés ensuite, une fois tous les employés construits. À la compaction, seuls
+ * les segments des ligues touchées par les journaux intégrés sont écrits. Le manifeste est remplacé
+ * en dernier, puis les segments qu'il ne cite plus sont supprimés : un arrêt brutal laisse l'ancien
+ * manifeste et ses segments intacts.
+ */
+final class InstantaneSegmente {
+    static final int MAGIC = 0x4750534D; // "GPSM"
+    static final int VERSION = 1;
+    static final int SANS_LIGUE = -1;
+    private static final String EXTENSION_SEGMENT = ".segment";
+
+    private final long generation;
+    private final int prochainIdLigue, prochainIdEmploye;
+    // Génération d'écriture de chaque segment, par ID de ligue
+    private final Map<Integer, Long> segments;
+
+    private InstantaneSegmente(long generation, int prochainIdLigue, int prochainIdEmploye, Map<Integer, Long> segments) {
+        this.generation = generation;
+        this.prochainIdLigue = prochainIdLigue;
+        this.prochainIdEmploye = prochainIdEmploye;
+        this.segments = segments;
+    }
+
+    /**
+     * Vrai si le fichier est un manifeste, faux pour un instantané d'un seul tenant (versions précédentes).
+     */
+    static boolean estManifeste(Path fichier) throws IOException {
+        byte[] entete = new byte[4];
+        try (InputStream entree = Files.newInputStream(fichier)) {
+            if (entree.read(entete) != 4) {
+                return false;
+            }
+        }
+        return new FormatBinaire.Lecteur(entete, 4).lireEntierA(0) == MAGIC;
+    }
+
+    static InstantaneSegmente lireManifeste(Path fichier) throws IOException {
+        byte[] octets = Files.readAllBytes(fichier);
+        if (octets.length < 9) {
+            throw new IOException("Manifeste " + fichier + " tronqué.");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(octets, 0, octets.length - 4);
+        FormatBinaire.Lecteur lecteur = new FormatBinaire.Lecteur(octets, octets.length - 4);
+        if (lecteur.lireEntierA(octets.length - 4) != (int) crc.getValue()) {
+            throw new IOException("Manifeste " + fichier + " corrompu (CRC invalide).");
+        }
+        if (lecteur.lireEntier() != MAGIC) {
+            throw new IOException(fichier + " n'est pas un manifeste de sauvegarde.");
+        }
+        int version = lecteur.lireOctet();
+        if (version != VERSION) {
+            throw new IOException("Version de manifeste non prise en charge : " + version + ".");
+        }
+        long generation = lecteur.lireVarintLong();
+        int prochainIdLigue = lecteur.lireVarint();
+        int prochainIdEmploye = lecteur.lireVarint();
+        int nombre = lecteur.lireVarint();
+        Map<Integer, Long> segments = new TreeMap<>();
+        for (int i = 0; i < nombre; i++) {
+            int ligueId = lecteur.lireVarint() - 1;
+            segments.put(ligueId, lecteur.lireVarintLong());
+        }
+        return new InstantaneSegmente(generation, prochainIdLigue, prochainIdEmploye, segments);
+    }
+
+    /**
+     * Décode tous les segments en parallèle et les réunit.
+     * @param fichier Le fichier du manifeste.
+     */
+    FormatBinaire.Contenu charger(Path fichier) throws IOException {
+        List<FormatBinaire.Contenu> lus;
+        try {
+            lus = new ArrayList<>(segments.entrySet()).parallelStream().map(segment -> {
+                try {
+                    return FormatBinaire.lire(cheminSegment(fichier, segment.getKey(), segment.getValue()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        List<FormatBinaire.LigueEnregistree> ligues = new ArrayList<>();
+        List<FormatBinaire.EmployeEnregistre> employes = new ArrayList<>();
+        for (FormatBinaire.Contenu segment : lus) {
+            ligues.addAll(segment.getLigues());
+            employes.addAll(segment.getEmployes());
+        }
+        return new FormatBinaire.Contenu(generation, prochainIdLigue, prochainIdEmploye, ligues, employes);
+    }
+
+    /**
+     * Écrit les segments des ligues modifiées, puis le manifeste, puis supprime les segments devenus inutiles.
+     * @param fichier Le fichier du manifeste.
+     * @param precedent Le manifeste actuel, ou null si tous les segments doivent être écrits.
+     * @param etat L'état à enregistrer, avec les ligues modifiées depuis le manifeste actuel.
+     * @param generation La génération du nouveau manifeste.
+     * @param compression La compression des segments écrits ; le manifeste, très court, n'est pas compressé.
+     * @return Le nouveau manifeste.
+     */
+    static InstantaneSegmente ecrire(Path fichier, InstantaneSegmente precedent, Journal.Etat etat, long generation,
+            Compression compression) throws IOException {
+        FormatBinaire.Contenu contenu = etat.contenu(generation);
+        Map<Integer, List<FormatBinaire.LigueEnregistree>> liguesParId = new HashMap<>();
+        Map<Integer, List<FormatBinaire.EmployeEnregistre>> employesParLigue = new HashMap<>();
+        for (FormatBinaire.LigueEnregistree ligue : contenu.getLigues()) {
+            liguesParId.put(ligue.getId(), Collections.singletonList(ligue));
+        }
+        for (FormatBinaire.EmployeEnregistre employe : contenu.getEmployes()) {
+            employesParLigue.computeIfAbsent(employe.getLigueId(), id -> new ArrayList<>()).add(employe);
+        }
+        Set<Integer> ids = new HashSet<>(liguesParId.keySet());
+        ids.addAll(employesParLigue.keySet());
+
+        Map<Integer, Long> segments = new TreeMap<>();
+        List<Integer> aEcrire = new ArrayList<>();
+        for (int ligueId : ids) {
+            Long ecrit = precedent != null ? precedent.segments.get(ligueId) : null;
+            if (ecrit != null && !etat.getLiguesModifiees().contains(ligueId)) {
+                segments.put(ligueId, ecrit); // Segment inchangé : conservé tel quel
+            } else {
+                segments.put(ligueId, generation);
+                aEcrire.add(ligueId);
+            }
+        }
+        try {
+            aEcrire.parallelStream().forEach(ligueId -> {
+                FormatBinaire.Contenu segment = new FormatBinaire.Contenu(0, 0,
+                        liguesParId.getOrDefault(ligueId, Collections.emptyList()),
+                        employesParLigue.getOrDefault(ligueId, Collections.emptyList()));
+                try {
+                    FormatBinaire.ecrire(segment, cheminSegment(fichier, ligueId, generation), compression);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        InstantaneSegmente manifeste = new InstantaneSegmente(generation, contenu.getProchainIdLigue(),
+                contenu.getProchainIdEmploye(), segments);
+        FormatBinaire.remplacer(manifeste.encoder(), fichier);
+        manifeste.supprimerSegmentsObsoletes(fichier);
+        return manifeste;
+    }
+
+    private byte[] encoder() {
+        FormatBinaire.Tampon tampon = new FormatBinaire.Tampon(32 + 12 * segments.size());
+        tampon.ecrireEntier(MAGIC);
+        tampon.ecrireOctet(VERSION);
+        tampon.ecrireVarintLong(generation);
+        tampon.ecrireVarint(prochainIdLigue);
+        tampon.ecrireVarint(prochainIdEmploye);
+        tampon.ecrireVarint(segments.size());
+        for (Map.Entry<Integer, Long> segment : segments.entrySet()) {
+            tampon.ecrireVarint(segment.getKey() + 1);
+            tampon.ecrireVarintLong(segment.getValue());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(tampon.octets, 0, tampon.taille);
+        tampon.ecrireEntier((int) crc.getValue());
+        return Arrays.copyOf(tampon.octets, tampon.taille);
+    }
+
+    private void supprimerSegmentsObsoletes(Path fichier) throws IOException {
+        Set<Path> cites = new HashSet<>();
+        for (Map.Entry<Integer, Long> segment : segments.entrySet()) {
+            cites.add(cheminSegment(fichier, segment.getKey(), segment.getValue()).getFileName());
+        }
+        Path dossier = fichier.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(dossier, fichier.getFileName() + ".*" + EXTENSION_SEGMENT)) {
+            for (Path chemin : fichiers) {
+                if (!cites.contains(chemin.getFileName())) {
+                    Files.deleteIfExists(chemin);
+                }
+            }
+        }
+    }
+
+    private static Path cheminSegment(Path fichier, int ligueId, long generation) {
+        String ligue = ligueId == SANS_LIGUE ? "sans-ligue" : "ligue-" + ligueId;
+        return fichier.resolveSibling(fichier.getFileName() + "." + ligue + "." + generation + EXTENSION_SEGMENT);
+    }
+}
@@ -0,0 +1,402 @@
+package serialisation;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Journal des écritures d'une génération, ajouté en fin de fichier avant que l'opération ne soit confirmée.
+ * <p>
+ * Structure du fichier : MAGIC (4 octets), VERSION (1 octet), puis des enregistrements
+ * [longueur (varint)][contenu][CRC32 du contenu (4 octets)]. Un enregistrement contient une ligue
+ * ou un employé complet (ajout ou modification), ou une suppression par ID : le rejouer deux fois
+ * donne le même résultat. Au chargement, un enregistrement incomplet ou corrompu en fin de fichier
+ * (écriture interrompue) est ignoré et retiré.
+ * <p>
+ * Les écritures sont synchronisées sur disque par groupes : le premier thread qui attend prend
+ * tous les enregistrements en attente, les écrit et appelle force() une seule fois pour tous.
+ */
+final class Journal implements Closeable {
+    static final int MAGIC = 0x47504A4C; // "GPJL"
+    static final int VERSION = 1;
+    private static final int ENTETE = 5;
+
+    // Types d'enregistrement
+    private static final int LIGUE = 1, LIGUE_SUPPRIMEE = 2, EMPLOYE = 3, EMPLOYE_SUPPRIME = 4;
+
+    private final long generation;
+    private final FileChannel canal;
+    private final Object verrou = new Object();
+    // Enregistrements ajoutés mais pas encore écrits, numérotés jusqu'à sequenceAjoutee
+    private FormatBinaire.Tampon enAttente = new FormatBinaire.Tampon(4096);
+    private long sequenceAjoutee, sequenceDurable;
+    private boolean synchronisationEnCours, ferme;
+    // Après un échec d'écriture, le journal n'accepte plus rien : la suite du fichier serait incohérente
+    private IOException echec;
+    private volatile long taille;
+
+    private Journal(long generation, FileChannel canal, long taille) {
+        this.generation = generation;
+        this.canal = canal;
+        this.taille = taille;
+    }
+
+    /**
+     * Ouvre le journal d'une génération pour y ajouter des enregistrements.
+     * @param fichier Le fichier du journal.
+     * @param generation Sa génération.
+     * @param tailleValide La taille de la partie valide du fichier, retournée par rejouer ; 0 pour un nouveau journal.
+     * @return Le journal, positionné en fin de partie valide.
+     * @throws IOException Si le fichier ne peut pas être ouvert ou créé.
+     */
+    static Journal ouvrir(Path fichier, long generation, long tailleValide) throws IOException {
+        FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (tailleValide < ENTETE) {
+                canal.truncate(0);
+                FormatBinaire.Tampon entete = new FormatBinaire.Tampon(ENTETE);
+                entete.ecrireEntier(MAGIC);
+                entete.ecrireOctet(VERSION);
+                ecrireTout(canal, entete, 0);
+                canal.force(true);
+                FormatBinaire.forcerDossier(fichier); // Le nouveau journal ne disparaît pas avec ses enregistrements
+                tailleValide = ENTETE;
+            } else if (canal.size() > tailleValide) {
+                canal.truncate(tailleValide); // Enregistrement interrompu par un arrêt brutal
+                canal.force(true);
+            }
+            return new Journal(generation, canal, tailleValide);
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return La taille du fichier, enregistrements en attente compris.
+     */
+    long getTaille() {
+        return taille;
+    }
+
+    /**
+     * Ajoute des enregistrements en mémoire, sans attendre leur écriture.
+     * @return Le numéro de séquence à passer à attendre() pour qu'ils soient sur disque.
+     * @throws IOException Si le journal est fermé ou a rencontré une erreur d'écriture.
+     */
+    long ajouter(byte[]... enregistrements) throws IOException {
+        synchronized (verrou) {
+            verifierUtilisable();
+            CRC32 crc = new CRC32();
+            int debut = enAttente.taille;
+            for (byte[] enregistrement : enregistrements) {
+                crc.reset();
+                crc.update(enregistrement, 0, enregistrement.length);
+                enAttente.ecrireVarint(enregistrement.length);
+                enAttente.ecrireOctets(enregistrement);
+                enAttente.ecrireEntier((int) crc.getValue());
+            }
+            taille += enAttente.taille - debut;
+            return ++sequenceAjoutee;
+        }
+    }
+
+    /**
+     * Attend que les enregistrements ajoutés jusqu'à une séquence soient sur disque. Si aucune synchronisation
+     * n'est en cours, le thread appelant écrit et synchronise tous les enregistrements en attente, les siens
+     * et ceux des autres threads ; sinon il attend la fin de la synchronisation en cours, puis recommence.
+     * @param sequence La séquence retournée par ajouter.
+     * @throws IOException Si l'écriture ou la synchronisation échoue.
+     */
+    void attendre(long sequence) throws IOException {
+        FormatBinaire.Tampon aEcrire;
+        long jusqua;
+        synchronized (verrou) {
+            while (true) {
+                if (sequenceDurable >= sequence) {
+                    return;
+                }
+                if (echec != null) {
+                    throw new IOException("Écriture du journal impossible.", echec);
+                }
+                if (!synchronisationEnCours) {
+                    break;
+                }
+                try {
+                    verrou.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Attente de l'écriture du journal interrompue.", e);
+                }
+            }
+            synchronisationEnCours = true;
+            aEcrire = enAttente;
+            enAttente = new FormatBinaire.Tampon(4096);
+            jusqua = sequenceAjoutee;
+        }
+        IOException erreur = null;
+        try {
+            ecrireTout(canal, aEcrire, canal.size());
+            canal.force(false);
+        } catch (IOException e) {
+            erreur = e;
+        }
+        synchronized (verrou) {
+            synchronisationEnCours = false;
+            if (erreur == null) {
+                sequenceDurable = jusqua;
+            } else {
+                echec = erreur;
+            }
+            verrou.notifyAll();
+        }
+        if (erreur != null) {
+            throw erreur;
+        }
+    }
+
+    /**
+     * Attend que tous les enregistrements ajoutés soient sur disque.
+     */
+    void synchroniser() throws IOException {
+        long sequence;
+        synchronized (verrou) {
+            sequence = sequenceAjoutee;
+        }
+        attendre(sequence);
+    }
+
+    /**
+     * Écrit les enregistrements en attente puis ferme le fichier. Les ajouts suivants échouent.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            synchroniser();
+        } finally {
+            synchronized (verrou) {
+                ferme = true;
+            }
+            canal.close();
+        }
+    }
+
+    private void verifierUtilisable() throws IOException {
+        if (ferme) {
+            throw new IOException("Le journal de la génération " + generation + " est fermé.");
+        }
+        if (echec != null) {
+            throw new IOException("Écriture du journal impossible.", echec);
+        }
+    }
+
+    private static void ecrireTout(FileChannel canal, FormatBinaire.Tampon tampon, long position) throws IOException {
+        ByteBuffer octets = ByteBuffer.wrap(tampon.octets, 0, tampon.taille);
+        while (octets.hasRemaining()) {
+            position += canal.write(octets, position);
+        }
+    }
+
+    // --- Enregistrements ---
+
+    static byte[] ligue(FormatBinaire.LigueEnregistree ligue) {
+        FormatBinaire.Tampon tampon = new FormatBinaire.Tampon(32);
+        tampon.ecrireOctet(LIGUE);
+        tampon.ecrireVarint(ligue.getId());
+        tampon.ecrireChaine(ligue.getNom());
+        tampon.ecrireVarint(ligue.getAdministrateurId() + 1);
+        return Arrays.copyOf(tampon.octets, tampon.taille);
+    }
+
+    static byte[] ligueSupprimee(int id) {
+        return suppression(LIGUE_SUPPRIMEE, id);
+    }
+
+    static byte[] employe(FormatBinaire.EmployeEnregistre employe) {
+        FormatBinaire.Tampon tampon = new FormatBinaire.Tampon(128);
+        tampon.ecrireOctet(EMPLOYE);
+        tampon.ecrireVarint(employe.getId());
+        tampon.ecrireVarint(employe.getLigueId() + 1);
+        tampon.ecrireChaine(employe.getNom());
+        tampon.ecrireChaine(employe.getPrenom());
+        FormatBinaire.ecrireDetails(tampon, employe);
+        return Arrays.copyOf(tampon.octets, tampon.taille);
+    }
+
+    static byte[] employeSupprime(int id) {
+        return suppression(EMPLOYE_SUPPRIME, id);
+    }
+
+    private static byte[] suppression(int type, int id) {
+        FormatBinaire.Tampon tampon = new FormatBinaire.Tampon(6);
+        tampon.ecrireOctet(type);
+        tampon.ecrireVarint(id);
+        return Arrays.copyOf(tampon.octets, tampon.taille);
+    }
+
+    /**
+     * Rejoue les enregistrements d'un journal sur un état. Seule la fin du fichier peut être invalide,
+     * écrite en partie lors d'un arrêt brutal et jamais confirmée : la lecture s'y arrête si le dernier
+     * enregistrement dépasse la fin du fichier, a un CRC invalide, ou si seuls des zéros restent.
+     * Un enregistrement corrompu suivi d'autres octets, ou au CRC valide mais illisible, fait échouer
+     * le chargement plutôt que de perdre silencieusement des modifications confirmées.
+     * @param fichier Le fichier du journal.
+     * @param etat L'état à mettre à jour.
+     * @return La taille de la partie valide du fichier (0 si l'en-tête lui-même est incomplet) ;
+     *         les octets qui la suivent ont été ignorés.
+     * @throws IOException Si le fichier ne peut pas être lu, n'est pas un journal ou est corrompu.
+     */
+    static long rejouer(Path fichier, Etat etat) throws IOException {
+        byte[] octets = Files.readAllBytes(fichier);
+        if (octets.length < ENTETE) {
+            return 0;
+        }
+        FormatBinaire.Lecteur lecteur = new FormatBinaire.Lecteur(octets, octets.length);
+        if (lecteur.lireEntier() != MAGIC) {
+            throw new IOException(fichier + " n'est pas un journal du personnel.");
+        }
+        int version = lecteur.lireOctet();
+        if (version != VERSION) {
+            throw new IOException("Version de journal non prise en charge : " + version + ".");
+        }
+        CRC32 crc = new CRC32();
+        long valide = lecteur.position;
+        while (lecteur.position < octets.length) {
+            if (queNulle(octets, lecteur.position)) {
+                break; // Fichier agrandi sans que l'enregistrement y soit écrit
+            }
+            int longueur, debut, attendu;
+            try {
+                longueur = lecteur.lireVarint();
+                debut = lecteur.avancer(longueur);
+                attendu = lecteur.lireEntier();
+            } catch (EOFException e) {
+                break; // Enregistrement tronqué par la fin du fichier
+            }
+            crc.reset();
+            crc.update(octets, debut, longueur);
+            if (longueur == 0 || (int) crc.getValue() != attendu) {
+                if (lecteur.position == octets.length) {
+                    break; // Dernier enregistrement écrit en partie
+                }
+                throw new IOException("Journal " + fichier.getFileName() + " corrompu à la position " + valide + ".");
+            }
+            try {
+                etat.appliquer(new FormatBinaire.Lecteur(Arrays.copyOfRange(octets, debut, debut + longueur), longueur));
+            } catch (IOException e) {
+                throw new IOException("Journal " + fichier.getFileName() + " : enregistrement illisible à la position "
+                        + valide + " (" + e.getMessage() + ").", e);
+            }
+            valide = lecteur.position;
+        }
+        return valide; // Au-delà, la fin non confirmée est ignorée
+    }
+
+    private static boolean queNulle(byte[] octets, int debut) {
+        for (int i = debut; i < octets.length; i++) {
+            if (octets[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * État du fichier de sauvegarde reconstruit à partir d'un instantané et des journaux qui le suivent.
+     */
+    static final class Etat {
+        private final Map<Integer, FormatBinaire.LigueEnregistree> ligues = new LinkedHashMap<>();
+        private final Map<Integer, FormatBinaire.EmployeEnregistre> employes = new LinkedHashMap<>();
+        private int prochainIdLigue, prochainIdEmploye;
+        // Ligues dont le segment change (-1 pour les employés sans ligue)
+        private final Set<Integer> liguesModifiees = new HashSet<>();
+
+        Etat(FormatBinaire.Contenu contenu) {
+            for (FormatBinaire.LigueEnregistree ligue : contenu.getLigues()) {
+                ligues.put(ligue.getId(), ligue);
+            }
+            for (FormatBinaire.EmployeEnregistre employe : contenu.getEmployes()) {
+                employes.put(employe.getId(), employe);
+            }
+            prochainIdLigue = contenu.getProchainIdLigue();
+            prochainIdEmploye = contenu.getProchainIdEmploye();
+        }
+
+        void appliquer(FormatBinaire.Lecteur lecteur) throws IOException {
+            int type = lecteur.lireOctet();
+            int id = lecteur.lireVarint();
+            switch (type) {
+                case LIGUE:
+                    String nom = lecteur.lireChaine();
+                    ligues.put(id, new FormatBinaire.LigueEnregistree(id, nom, lecteur.lireVarint() - 1));
+                    liguesModifiees.add(id);
+                    prochainIdLigue = Math.max(prochainIdLigue, id + 1);
+                    break;
+                case LIGUE_SUPPRIMEE:
+                    ligues.remove(id);
+                    liguesModifiees.add(id);
+                    break;
+                case EMPLOYE:
+                    int ligueId = lecteur.lireVarint() - 1;
+                    String nomEmploye = lecteur.lireChaine();
+                    String prenom = lecteur.lireChaine();
+                    FormatBinaire.EmployeEnregistre ancien = employes.put(id, FormatBinaire.lireDetails(lecteur, id, ligueId, nomEmploye, prenom));
+                    liguesModifiees.add(ligueId);
+                    if (ancien != null) {
+                        liguesModifiees.add(ancien.getLigueId()); // Changement de ligue : l'ancien segment change aussi
+                    }
+                    prochainIdEmploye = Math.max(prochainIdEmploye, id + 1);
+                    break;
+                case EMPLOYE_SUPPRIME:
+                    FormatBinaire.EmployeEnregistre supprime = employes.remove(id);
+                    if (supprime != null) {
+                        liguesModifiees.add(supprime.getLigueId());
+                    }
+                    // Les ligues qu'il administrait n'ont plus d'administrateur
+                    for (Iterator<Map.Entry<Integer, FormatBinaire.LigueEnregistree>> it = ligues.entrySet().iterator(); it.hasNext(); ) {
+                        Map.Entry<Integer, FormatBinaire.LigueEnregistree> entree = it.next();
+                        FormatBinaire.LigueEnregistree ligue = entree.getValue();
+                        if (ligue.getAdministrateurId() == id) {
+                            entree.setValue(new FormatBinaire.LigueEnregistree(ligue.getId(), ligue.getNom(), -1));
+                            liguesModifiees.add(ligue.getId());
+                        }
+                    }
+                    break;
+                default:
+                    throw new IOException("Type d'enregistrement inconnu : " + type + ".");
+            }
+        }
+
+        /**
+         * @return Les ID des ligues touchées par les enregistrements appliqués (-1 pour les employés sans ligue).
+         */
+        Set<Integer> getLiguesModifiees() {
+            return liguesModifiees;
+        }
+
+        /**
+         * @param generation La génération de l'instantané à écrire.
+         */
+        FormatBinaire.Contenu contenu(long generation) {
+            return new FormatBinaire.Contenu(generation, prochainIdLigue, prochainIdEmploye,
+                    new ArrayList<>(ligues.values()), new ArrayList<>(employes.values()));
+        }
+    }
+}
@@ -1,10 +1,24 @@
 package serialisation;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import personnel.GestionPersonnel;
 import personnel.Ligue;
@@ -12,102 +26,466 @@ import personnel.SauvegardeImpossible;
 import personnel.Employe;
 import personnel.Passerelle;
 
+/**
+ * Passerelle enregistrant le personnel dans un instantané découpé par ligue ({@link InstantaneSegmente}),
+ * suivi d'un {@link Journal}.
+ * <p>
+ * Chaque insertion, mise à jour ou suppression ajoute un court enregistrement au journal de la génération
+ * courante et n'est confirmée qu'une fois cet enregistrement sur disque : le coût d'une écriture dépend
+ * de sa taille, pas de celle des données. Au chargement, les segments sont lus en parallèle,
+ * puis les journaux sont rejoués sur l'instantané.
+ * <p>
+ * Quand le journal dépasse {@link #SEUIL_COMPACTION} octets, un thread de fond passe à la génération suivante
+ * (nouveau journal), puis intègre l'ancien journal à un nouvel instantané, écrit à partir des fichiers
+ * et non du modèle en mémoire : seuls les segments des ligues modifiées sont réécrits. Un arrêt brutal
+ * à n'importe quelle étape laisse un instantané et des journaux cohérents : l'instantané de génération G
+ * contient tous les journaux de génération inférieure.
+ */
 public class Serialization implements Passerelle {
-    private static final String FILE_NAME = "GestionPersonnel.srz";
+    private static final String FILE_NAME = "GestionPersonnel.bin";
+    private static final String EXTENSION_JOURNAL = ".journal";
+    // Taille du journal au-delà de laquelle il est intégré à un nouvel instantané
+    static final long SEUIL_COMPACTION = 4L * 1024 * 1024;
+
+    private final GestionPersonnel gestionPersonnel;
+    private final Path fichier;
+    private final Compression compression;
+    // Générateurs d'ID : un ID supprimé n'est jamais réattribué
+    private final AtomicInteger prochainIdLigue = new AtomicInteger(1);
+    private final AtomicInteger prochainIdEmploye = new AtomicInteger(1);
+    // Mots de passe hachés par ID d'employé, comme la colonne password de la base
+    private final Map<Integer, String> motsDePasse = new ConcurrentHashMap<>();
+    // Journal de la génération courante, ouvert au chargement
+    private volatile Journal journal;
+    // Les ajouts au journal (lecture) excluent le changement de génération (écriture)
+    private final ReentrantReadWriteLock rotation = new ReentrantReadWriteLock();
+    private final AtomicBoolean compactionEnCours = new AtomicBoolean();
+    // Échec de la dernière compaction : plus de compaction de fond jusqu'à un nouvel essai réussi
+    private volatile IOException echecCompaction;
+    // Octets non confirmés ignorés en fin de journal au chargement (écritures interrompues par un arrêt brutal)
+    private volatile long octetsIgnores;
+    private final ExecutorService compacteur = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "compaction-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public Serialization(GestionPersonnel gestionPersonnel) {
+        this(gestionPersonnel, Paths.get(FILE_NAME));
+    }
+
+    /**
+     * @param gestionPersonnel L'instance à charger et à sauvegarder.
+     * @param fichier Le fichier de l'instantané ; les journaux sont écrits à côté.
+     */
+    public Serialization(GestionPersonnel gestionPersonnel, Path fichier) {
+        this(gestionPersonnel, fichier, Compression.DEFLATE);
+    }
+
+    /**
+     * @param gestionPersonnel L'instance à charger et à sauvegarder.
+     * @param fichier Le fichier de l'instantané ; les journaux sont écrits à côté.
+     * @param compression La compression des segments écrits ; les segments existants sont lus quelle que soit la leur.
+     */
+    public Serialization(GestionPersonnel gestionPersonnel, Path fichier, Compression compression) {
+        this.gestionPersonnel = gestionPersonnel;
+        this.fichier = fichier;
+        this.compression = compression;
+    }
 
     @Override
-    public GestionPersonnel getGestionPersonnel() {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(FILE_NAME))) {
-            return (GestionPersonnel) ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            return null;
+    public GestionPersonnel getGestionPersonnel() throws SauvegardeImpossible {
+        FormatBinaire.Contenu contenu;
+        try {
+            FormatBinaire.Contenu instantane = lireInstantane();
+            Journal.Etat etat = new Journal.Etat(instantane);
+            long generationCourante = instantane.getGeneration();
+            long tailleValide = 0;
+            for (long generation : generationsJournaux()) {
+                if (generation < instantane.getGeneration()) {
+                    Files.deleteIfExists(cheminJournal(generation)); // Déjà intégré (compaction interrompue avant le ménage)
+                } else {
+                    tailleValide = Journal.rejouer(cheminJournal(generation), etat);
+                    octetsIgnores += Files.size(cheminJournal(generation)) - tailleValide;
+                    generationCourante = generation;
+                }
+            }
+            journal = Journal.ouvrir(cheminJournal(generationCourante), generationCourante, tailleValide);
+            contenu = etat.contenu(instantane.getGeneration());
+        } catch (IOException e) {
+            throw new SauvegardeImpossible("Erreur lors de la lecture de " + fichier + " : " + e.getMessage(), e);
+        }
+
+        hydrater(gestionPersonnel, contenu);
+        for (FormatBinaire.EmployeEnregistre enregistre : contenu.getEmployes()) {
+            motsDePasse.put(enregistre.getId(), enregistre.getPassword());
         }
+        prochainIdLigue.set(contenu.getProchainIdLigue());
+        prochainIdEmploye.set(contenu.getProchainIdEmploye());
+        return gestionPersonnel;
     }
+
     /**
-     * Sauvegarde le gestionnaire pour qu'il soit ouvert automatiquement
-     * lors d'une exécution ultérieure du programme.
-     * @throws SauvegardeImpossible Si le support de sauvegarde est inaccessible.
+     * @return Le nombre d'octets non confirmés ignorés en fin de journal lors du chargement,
+     *         0 si le fichier avait été fermé correctement.
+     */
+    public long getOctetsIgnores() {
+        return octetsIgnores;
+    }
+
+    /**
+     * Les écritures sont confirmées une à une dans le journal : il ne reste qu'à s'assurer
+     * qu'aucune n'est encore en attente. Le fichier n'est jamais réécrit en entier ici.
+     * Si la dernière compaction a échoué, elle est retentée dans le thread appelant.
+     * @throws SauvegardeImpossible Si le support de sauvegarde est inaccessible ou si la compaction échoue encore.
      */
     @Override
     public void sauvegarderGestionPersonnel(GestionPersonnel gestionPersonnel) throws SauvegardeImpossible {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(FILE_NAME))) {
-            oos.writeObject(gestionPersonnel);
+        try {
+            journal().synchroniser();
         } catch (IOException e) {
             throw new SauvegardeImpossible(e);
         }
+        if (echecCompaction != null && compactionEnCours.compareAndSet(false, true)) {
+            integrerJournaux();
+        }
+        signalerEchecCompaction();
+    }
+
+    private void signalerEchecCompaction() throws SauvegardeImpossible {
+        IOException echec = echecCompaction;
+        if (echec != null) {
+            throw new SauvegardeImpossible("Compaction du journal impossible : " + echec.getMessage(), echec);
+        }
     }
 
     @Override
     public int insert(Ligue ligue) throws SauvegardeImpossible {
-        return -1;
+        int id = prochainIdLigue.getAndIncrement();
+        journaliser(Journal.ligue(new FormatBinaire.LigueEnregistree(id, ligue.getNom(), -1)));
+        return id;
     }
 
     @Override
     public int insert(Employe employe) throws SauvegardeImpossible {
-        // Implémentation spécifique à la sérialisation
-        // Par exemple, pour_générer un ID unique et sauvegarder l'employé dans un fichier
-        throw new SauvegardeImpossible("Non implémenté en mode sérialisation.");
-    }
-
-	@Override
-	public Employe getRoot() {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	@Override
-	public boolean utilisateurExiste(String nomUtilisateur) {
-		// TODO Auto-generated method stub
-		return false;
-	}
-
-	@Override
-	public void update(Ligue ligue) throws SauvegardeImpossible {
-		// TODO Auto-generated method stub
-		
-	}
-
-	@Override
-	public void update(Employe employe) throws SauvegardeImpossible {
-		// TODO Auto-generated method stub
-		
-	}
-	
-	  @Override
-	    public void delete(Employe employe) throws SauvegardeImpossible {
-		// TODO Auto-generated method stub
-			
-		}
-	  
-	  @Override
-	    public void delete(Ligue ligue) throws SauvegardeImpossible {
-		// TODO Auto-generated method stub
-			
-		}
-
-	@Override
-	public Employe getEmployeByNom(String nom) throws SauvegardeImpossible {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	@Override
-	public Employe getEmployeByMail(String mail) throws SauvegardeImpossible {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	@Override
-	public Employe getEmploye(int id) throws SauvegardeImpossible {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	@Override
-	public void close() throws SauvegardeImpossible {
-		// TODO Auto-generated method stub
-		
-	}
-
-	
-}
\ No newline at end of file
+        int id = prochainIdEmploye.getAndIncrement();
+        motsDePasse.put(id, hashPassword(employe.getPassword()));
+        journaliser(Journal.employe(enregistrement(employe, id)));
+        return id;
+    }
+
+    /**
+     * Les employés sont ajoutés au journal ensemble, synchronisés une seule fois.
+     */
+    @Override
+    public int[] insertAll(List<Employe> employes) throws SauvegardeImpossible {
+        int[] ids = new int[employes.size()];
+        byte[][] enregistrements = new byte[ids.length][];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = prochainIdEmploye.getAndIncrement();
+            motsDePasse.put(ids[i], hashPassword(employes.get(i).getPassword()));
+            enregistrements[i] = Journal.employe(enregistrement(employes.get(i), ids[i]));
+        }
+        journaliser(enregistrements);
+        return ids;
+    }
+
+    @Override
+    public Employe getRoot() {
+        return gestionPersonnel.getRoot();
+    }
+
+    @Override
+    public boolean utilisateurExiste(String nomUtilisateur) throws SauvegardeImpossible {
+        return getEmployeByMail(nomUtilisateur) != null || getEmployeByNom(nomUtilisateur) != null;
+    }
+
+    @Override
+    public void update(Ligue ligue) throws SauvegardeImpossible {
+        journaliser(Journal.ligue(enregistrement(ligue)));
+    }
+
+    @Override
+    public void update(Employe employe) throws SauvegardeImpossible {
+        update(employe, employe.getChampsModifies());
+    }
+
+    @Override
+    public void update(Employe employe, Set<Employe.Champ> champs) throws SauvegardeImpossible {
+        if (champs.contains(Employe.Champ.PASSWORD)) {
+            motsDePasse.put(employe.getId(), hashPassword(employe.getPassword()));
+        }
+        journaliser(Journal.employe(enregistrement(employe, employe.getId())));
+    }
+
+    /**
+     * Les employés sont ajoutés au journal ensemble, synchronisés une seule fois.
+     */
+    @Override
+    public void updateAll(Collection<Employe> employes) throws SauvegardeImpossible {
+        List<byte[]> enregistrements = new ArrayList<>(employes.size());
+        for (Employe employe : employes) {
+            if (employe.getChampsModifies().contains(Employe.Champ.PASSWORD)) {
+                motsDePasse.put(employe.getId(), hashPassword(employe.getPassword()));
+            }
+            enregistrements.add(Journal.employe(enregistrement(employe, employe.getId())));
+        }
+        journaliser(enregistrements.toArray(new byte[0][]));
+    }
+
+    @Override
+    public void delete(Employe employe) throws SauvegardeImpossible {
+        motsDePasse.remove(employe.getId());
+        journaliser(Journal.employeSupprime(employe.getId()));
+    }
+
+    @Override
+    public void deleteAll(Collection<Employe> employes) throws SauvegardeImpossible {
+        journaliser(suppressions(employes, null));
+    }
+
+    @Override
+    public void delete(Ligue ligue) throws SauvegardeImpossible {
+        journaliser(Journal.ligueSupprimee(ligue.getId()));
+    }
+
+    /**
+     * Les employés puis la ligue sont supprimés par un seul ajout au journal.
+     * Les liens d'administrateur vers ces employés sont retirés au rejeu des suppressions.
+     */
+    @Override
+    public void deleteCascade(Ligue ligue) throws SauvegardeImpossible {
+        journaliser(suppressions(ligue.getEmployes(), ligue));
+    }
+
+    @Override
+    public Employe getEmployeByNom(String nom) throws SauvegardeImpossible {
+        for (Employe employe : gestionPersonnel.getInstantane().getEmployes()) {
+            if (employe.getNom().equals(nom)) {
+                return employe;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Employe getEmployeByMail(String mail) throws SauvegardeImpossible {
+        return gestionPersonnel.getEmploye(mail);
+    }
+
+    @Override
+    public Employe getEmploye(int id) throws SauvegardeImpossible {
+        return gestionPersonnel.getEmploye(id);
+    }
+
+    /**
+     * Attend la fin d'une compaction en cours, puis ferme le journal.
+     * @throws SauvegardeImpossible Si le journal ne peut pas être fermé ou si la dernière compaction a échoué
+     *         (les journaux sont alors conservés et rejoués au prochain chargement).
+     */
+    @Override
+    public void close() throws SauvegardeImpossible {
+        compacteur.shutdown();
+        try {
+            compacteur.awaitTermination(1, TimeUnit.MINUTES);
+            if (journal != null) {
+                journal.close();
+            }
+            signalerEchecCompaction();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SauvegardeImpossible("Fermeture du journal interrompue.", e);
+        } catch (IOException e) {
+            throw new SauvegardeImpossible(e);
+        }
+    }
+
+    // --- Journal et compaction ---
+
+    /**
+     * Ajoute des enregistrements au journal courant et attend qu'ils soient sur disque,
+     * avec ceux des autres threads qui écrivent en même temps.
+     */
+    private void journaliser(byte[]... enregistrements) throws SauvegardeImpossible {
+        Journal courant;
+        long sequence;
+        rotation.readLock().lock();
+        try {
+            courant = journal();
+            sequence = courant.ajouter(enregistrements);
+        } catch (IOException e) {
+            throw new SauvegardeImpossible(e);
+        } finally {
+            rotation.readLock().unlock();
+        }
+        try {
+            courant.attendre(sequence); // Hors du verrou : la rotation ferme l'ancien journal après l'avoir vidé
+        } catch (IOException e) {
+            throw new SauvegardeImpossible(e);
+        }
+        if (courant.getTaille() > SEUIL_COMPACTION && echecCompaction == null && compactionEnCours.compareAndSet(false, true)) {
+            compacteur.execute(this::integrerJournaux);
+        }
+    }
+
+    private Journal journal() throws SauvegardeImpossible {
+        Journal courant = journal;
+        if (courant == null) {
+            throw new SauvegardeImpossible("Le fichier de sauvegarde n'a pas été chargé.");
+        }
+        return courant;
+    }
+
+    /**
+     * Intègre immédiatement les journaux à un nouvel instantané, dans le thread appelant,
+     * sans attendre que le journal dépasse {@link #SEUIL_COMPACTION}.
+     * @throws SauvegardeImpossible Si une compaction est déjà en cours ou si elle échoue.
+     */
+    public void compacter() throws SauvegardeImpossible {
+        if (!compactionEnCours.compareAndSet(false, true)) {
+            throw new SauvegardeImpossible("Une compaction du journal est déjà en cours.");
+        }
+        integrerJournaux();
+        signalerEchecCompaction();
+    }
+
+    /**
+     * Passe à la génération suivante, puis intègre les journaux précédents à un nouvel instantané.
+     * Exécuté par le thread de compaction, par compacter, ou par sauvegarderGestionPersonnel après un échec.
+     * En cas d'échec, les journaux sont conservés tels quels et l'erreur est gardée : la compaction de fond
+     * est suspendue, l'erreur est signalée par sauvegarderGestionPersonnel et close.
+     */
+    private void integrerJournaux() {
+        try {
+            Journal ancien;
+            rotation.writeLock().lock();
+            try {
+                ancien = journal;
+                journal = Journal.ouvrir(cheminJournal(ancien.getGeneration() + 1), ancien.getGeneration() + 1, 0);
+            } finally {
+                rotation.writeLock().unlock();
+            }
+            ancien.close(); // Les écritures en attente sur l'ancien journal sont terminées avant la lecture
+
+            // Un instantané d'un seul tenant (versions précédentes) est entièrement découpé en segments
+            InstantaneSegmente precedent = Files.exists(fichier) && InstantaneSegmente.estManifeste(fichier)
+                    ? InstantaneSegmente.lireManifeste(fichier) : null;
+            FormatBinaire.Contenu instantane = precedent != null ? precedent.charger(fichier) : lireInstantane();
+            Journal.Etat etat = new Journal.Etat(instantane);
+            for (long generation : generationsJournaux()) {
+                if (generation >= instantane.getGeneration() && generation <= ancien.getGeneration()) {
+                    Journal.rejouer(cheminJournal(generation), etat);
+                }
+            }
+            InstantaneSegmente.ecrire(fichier, precedent, etat, ancien.getGeneration() + 1, compression);
+            for (long generation : generationsJournaux()) {
+                if (generation <= ancien.getGeneration()) {
+                    Files.deleteIfExists(cheminJournal(generation));
+                }
+            }
+            echecCompaction = null;
+        } catch (IOException e) {
+            echecCompaction = e;
+        } finally {
+            compactionEnCours.set(false);
+        }
+    }
+
+    private FormatBinaire.Contenu lireInstantane() throws IOException {
+        if (!Files.exists(fichier)) {
+            // Première exécution : le root sera créé par GestionPersonnel
+            return new FormatBinaire.Contenu(0, 1, 1, Collections.emptyList(), Collections.emptyList());
+        }
+        if (InstantaneSegmente.estManifeste(fichier)) {
+            return InstantaneSegmente.lireManifeste(fichier).charger(fichier);
+        }
+        return FormatBinaire.lire(fichier);
+    }
+
+    private Path cheminJournal(long generation) {
+        return fichier.resolveSibling(fichier.getFileName() + "." + generation + EXTENSION_JOURNAL);
+    }
+
+    /**
+     * @return Les générations des journaux présents à côté de l'instantané, par ordre croissant.
+     */
+    private List<Long> generationsJournaux() throws IOException {
+        String prefixe = fichier.getFileName() + ".";
+        List<Long> generations = new ArrayList<>();
+        Path dossier = fichier.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> journaux = Files.newDirectoryStream(dossier, prefixe + "*" + EXTENSION_JOURNAL)) {
+            for (Path chemin : journaux) {
+                String nom = chemin.getFileName().toString();
+                try {
+                    generations.add(Long.parseLong(nom.substring(prefixe.length(), nom.length() - EXTENSION_JOURNAL.length())));
+                } catch (NumberFormatException e) {
+                    // Fichier sans rapport
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    /**
+     * Construit les ligues et les employés du contenu dans le modèle, en mode chargement.
+     * Les administrateurs sont résolus une fois tous les employés chargés.
+     */
+    static void hydrater(GestionPersonnel gestionPersonnel, FormatBinaire.Contenu contenu) {
+        Map<Integer, Ligue> liguesChargees = new HashMap<>();
+        for (FormatBinaire.LigueEnregistree enregistree : contenu.getLigues()) {
+            Ligue ligue = new Ligue(gestionPersonnel, enregistree.getId(), enregistree.getNom());
+            gestionPersonnel.add(ligue);
+            liguesChargees.put(ligue.getId(), ligue);
+        }
+        for (FormatBinaire.EmployeEnregistre enregistre : contenu.getEmployes()) {
+            Ligue ligue = liguesChargees.get(enregistre.getLigueId());
+            // Le constructeur de chargement n'ajoute pas l'employé à sa ligue : un seul ajout ici
+            Employe employe = new Employe(gestionPersonnel, enregistre.getId(), ligue, enregistre.getNom(), enregistre.getPrenom(),
+                    enregistre.getMail(), enregistre.getPassword(), enregistre.getDateArrivee(), enregistre.getDateDepart());
+            if (ligue != null) {
+                ligue.addEmploye(employe);
+            }
+            if (enregistre.estRoot() && gestionPersonnel.getRoot() == null) {
+                gestionPersonnel.setRoot(employe); // Statut root en mémoire, sans écriture
+            }
+        }
+        for (FormatBinaire.LigueEnregistree enregistree : contenu.getLigues()) {
+            if (enregistree.getAdministrateurId() != -1) {
+                Employe administrateur = gestionPersonnel.getEmploye(enregistree.getAdministrateurId());
+                if (administrateur != null) {
+                    liguesChargees.get(enregistree.getId()).initialiserAdministrateur(administrateur);
+                }
+            }
+        }
+    }
+
+    // --- Conversion vers les enregistrements ---
+
+    private FormatBinaire.LigueEnregistree enregistrement(Ligue ligue) {
+        Employe administrateur = ligue.getAdministrateur();
+        return new FormatBinaire.LigueEnregistree(ligue.getId(), ligue.getNom(), administrateur != null ? administrateur.getId() : -1);
+    }
+
+    private FormatBinaire.EmployeEnregistre enregistrement(Employe employe, int id) throws SauvegardeImpossible {
+        String password = motsDePasse.get(id);
+        if (password == null) {
+            password = hashPassword(employe.getPassword());
+        }
+        return new FormatBinaire.EmployeEnregistre(id, employe.getLigue() != null ? employe.getLigue().getId() : -1,
+                employe.getNom(), employe.getPrenom(), employe.getMail(), password,
+                employe.getDateArrivee(), employe.getDateDepart(), employe.estRoot());
+    }
+
+    private byte[][] suppressions(Collection<Employe> employes, Ligue ligue) {
+        List<byte[]> enregistrements = new ArrayList<>(employes.size() + 1);
+        for (Employe employe : employes) {
+            motsDePasse.remove(employe.getId());
+            enregistrements.add(Journal.employeSupprime(employe.getId()));
+        }
+        if (ligue != null) {
+            enregistrements.add(Journal.ligueSupprimee(ligue.getId()));
+        }
+        return enregistrements.toArray(new byte[0][]);
+    }
+}
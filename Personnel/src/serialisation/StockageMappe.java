@@ -0,0 +1,685 @@
+package serialisation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import personnel.Employe;
+import personnel.GestionPersonnel;
+import personnel.Ligue;
+import personnel.Passerelle;
+import personnel.SauvegardeImpossible;
+
+/**
+ * Passerelle enregistrant le personnel dans des fichiers projetés en mémoire, pour les annuaires
+ * volumineux surtout consultés.
+ * <p>
+ * Fichiers, à côté du fichier de base :
+ * <pre>
+ * .employes : enregistrements de {@value #TAILLE_EMPLOYE} octets, à la position (ID - 1)
+ * .ligues   : enregistrements de {@value #TAILLE_LIGUE} octets, à la position (ID - 1)
+ * .chaines  : tas des chaînes (noms, prénoms, mails), en UTF-8 précédées de leur longueur
+ * .index    : table de hachage à adressage ouvert mail → ID d'employé
+ * </pre>
+ * Chaque fichier commence par un en-tête de {@value #ENTETE} octets (MAGIC, VERSION, puis deux entiers
+ * propres au fichier). Un enregistrement désigne ses chaînes par leur position dans le tas (0 pour null) ;
+ * une mise à jour n'écrit que les champs modifiés, une chaîne remplacée reste dans le tas.
+ * <p>
+ * {@link #lireEmploye(int)} et {@link #getEmploye(int)} calculent directement la position de l'enregistrement,
+ * {@link #getEmployeByMail(String)} passe par l'index. Le modèle étant entièrement en mémoire, le chargement
+ * parcourt encore tous les enregistrements, mais sans décodage de flux : seules les pages lues sont chargées.
+ * <p>
+ * Les écritures vont dans les pages projetées ; elles ne sont garanties sur disque qu'après
+ * {@link #sauvegarderGestionPersonnel(GestionPersonnel)} ou {@link #close()}. L'index est marqué incomplet
+ * tant que le stockage est ouvert : après un arrêt brutal, il est reconstruit à partir des enregistrements.
+ */
+public class StockageMappe implements Passerelle {
+    private static final String FILE_NAME = "GestionPersonnel.map";
+    private static final int MAGIC = 0x47504D50; // "GPMP"
+    private static final int VERSION = 1;
+    static final int ENTETE = 16;
+    // En-tête : MAGIC, VERSION, puis deux entiers propres au fichier
+    private static final int ENTETE_A = 8, ENTETE_B = 12;
+
+    // Enregistrement d'employé
+    static final int TAILLE_EMPLOYE = 64;
+    private static final int E_ETAT = 0, E_INDICATEURS = 1, E_LIGUE = 4, E_NOM = 8, E_PRENOM = 12, E_MAIL = 16,
+            E_ARRIVEE = 20, E_DEPART = 24, E_PASSWORD = 28, E_SHA256 = 32;
+    private static final int ROOT = 1, SHA256 = 2;
+    private static final int LONGUEUR_SHA256 = 32;
+    private static final int SANS_DATE = Integer.MIN_VALUE;
+
+    // Enregistrement de ligue
+    static final int TAILLE_LIGUE = 16;
+    private static final int L_ETAT = 0, L_NOM = 4, L_ADMINISTRATEUR = 8;
+
+    private static final byte LIBRE = 0, OCCUPE = 1;
+
+    // Alvéole de l'index : hachage du mail, puis ID (0 : libre, -1 : supprimé)
+    private static final int TAILLE_ALVEOLE = 8, ALVEOLES_INITIALES = 1024;
+    private static final int ALVEOLE_LIBRE = 0, ALVEOLE_SUPPRIMEE = -1;
+
+    private static final char[] HEXADECIMAL = "0123456789abcdef".toCharArray();
+
+    private final GestionPersonnel gestionPersonnel;
+    private final Path fichier;
+    private Region employes, ligues, chaines, index;
+    // Lectures directes (lecture) ou écritures et agrandissement des projections (écriture)
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    // Vrai si l'index a dû être reconstruit à l'ouverture (stockage non fermé correctement)
+    private volatile boolean indexReconstruit;
+
+    public StockageMappe(GestionPersonnel gestionPersonnel) {
+        this(gestionPersonnel, Paths.get(FILE_NAME));
+    }
+
+    /**
+     * @param gestionPersonnel L'instance à charger et à sauvegarder.
+     * @param fichier Le fichier de base : les fichiers du stockage sont écrits à côté, avec leur extension.
+     */
+    public StockageMappe(GestionPersonnel gestionPersonnel, Path fichier) {
+        this.gestionPersonnel = gestionPersonnel;
+        this.fichier = fichier;
+    }
+
+    @Override
+    public GestionPersonnel getGestionPersonnel() throws SauvegardeImpossible {
+        FormatBinaire.Contenu contenu;
+        verrou.writeLock().lock();
+        try {
+            employes = new Region(chemin(".employes"), ENTETE + 1024 * TAILLE_EMPLOYE, 1);
+            ligues = new Region(chemin(".ligues"), ENTETE + 64 * TAILLE_LIGUE, 1);
+            chaines = new Region(chemin(".chaines"), 1024 * 1024, ENTETE);
+            boolean indexNouveau = !Files.exists(chemin(".index"));
+            index = new Region(chemin(".index"), ENTETE + ALVEOLES_INITIALES * TAILLE_ALVEOLE, 0);
+            if (indexNouveau) {
+                index.carte.putInt(ENTETE_B, 1);
+            }
+            if (index.carte.getInt(ENTETE_B) == 0) {
+                reconstruireIndex(true);
+                indexReconstruit = true;
+            }
+            // Marqué incomplet jusqu'à la fermeture
+            index.carte.putInt(ENTETE_B, 0);
+            index.carte.force();
+
+            List<FormatBinaire.LigueEnregistree> liguesLues = new ArrayList<>();
+            for (int id = 1; id < prochainIdLigue(); id++) {
+                FormatBinaire.LigueEnregistree ligue = lireLigue(id);
+                if (ligue != null) {
+                    liguesLues.add(ligue);
+                }
+            }
+            List<FormatBinaire.EmployeEnregistre> employesLus = new ArrayList<>();
+            for (int id = 1; id < prochainIdEmploye(); id++) {
+                FormatBinaire.EmployeEnregistre employe = lire(id);
+                if (employe != null) {
+                    employesLus.add(employe);
+                }
+            }
+            contenu = new FormatBinaire.Contenu(prochainIdLigue(), prochainIdEmploye(), liguesLues, employesLus);
+        } catch (IOException e) {
+            throw new SauvegardeImpossible("Erreur lors de l'ouverture de " + fichier + " : " + e.getMessage(), e);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+        Serialization.hydrater(gestionPersonnel, contenu);
+        return gestionPersonnel;
+    }
+
+    /**
+     * @return Vrai si le stockage n'avait pas été fermé correctement et que l'index des mails
+     *         a été reconstruit à partir des enregistrements lors de l'ouverture.
+     */
+    public boolean isIndexReconstruit() {
+        return indexReconstruit;
+    }
+
+    /**
+     * Force l'écriture sur disque des pages modifiées.
+     * @throws SauvegardeImpossible Si le support de sauvegarde est inaccessible.
+     */
+    @Override
+    public void sauvegarderGestionPersonnel(GestionPersonnel gestionPersonnel) throws SauvegardeImpossible {
+        verrou.readLock().lock();
+        try {
+            chaines.carte.force(); // Les chaînes avant les enregistrements qui y font référence
+            employes.carte.force();
+            ligues.carte.force();
+            index.carte.force();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int insert(Ligue ligue) throws SauvegardeImpossible {
+        verrou.writeLock().lock();
+        try {
+            int id = prochainIdLigue();
+            int position = positionLigue(id);
+            ligues.reserver(position + TAILLE_LIGUE);
+            ligues.carte.putInt(position + L_NOM, ecrireChaine(ligue.getNom()));
+            ligues.carte.putInt(position + L_ADMINISTRATEUR, -1);
+            ligues.carte.put(position + L_ETAT, OCCUPE);
+            ligues.carte.putInt(ENTETE_A, id + 1);
+            return id;
+        } catch (IOException e) {
+            throw new SauvegardeImpossible("Erreur lors de l'insertion de la ligue : " + e.getMessage(), e);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int insert(Employe employe) throws SauvegardeImpossible {
+        verrou.writeLock().lock();
+        try {
+            int id = prochainIdEmploye();
+            employes.reserver(positionEmploye(id) + TAILLE_EMPLOYE);
+            ecrireChamps(id, employe, EnumSet.allOf(Employe.Champ.class));
+            employes.carte.putInt(ENTETE_A, id + 1);
+            return id;
+        } catch (IOException e) {
+            throw new SauvegardeImpossible("Erreur lors de l'insertion de l'employé : " + e.getMessage(), e);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Employe getRoot() {
+        return gestionPersonnel.getRoot();
+    }
+
+    @Override
+    public boolean utilisateurExiste(String nomUtilisateur) throws SauvegardeImpossible {
+        return getEmployeByMail(nomUtilisateur) != null || getEmployeByNom(nomUtilisateur) != null;
+    }
+
+    @Override
+    public void update(Ligue ligue) throws SauvegardeImpossible {
+        update(ligue, EnumSet.allOf(Ligue.Champ.class));
+    }
+
+    @Override
+    public void update(Ligue ligue, Set<Ligue.Champ> champs) throws SauvegardeImpossible {
+        verrou.writeLock().lock();
+        try {
+            int position = positionLigue(ligue.getId());
+            if (champs.contains(Ligue.Champ.NOM)) {
+                ligues.carte.putInt(position + L_NOM, ecrireChaine(ligue.getNom()));
+            }
+            if (champs.contains(Ligue.Champ.ADMINISTRATEUR)) {
+                Employe administrateur = ligue.getAdministrateur();
+                ligues.carte.putInt(position + L_ADMINISTRATEUR, administrateur != null ? administrateur.getId() : -1);
+            }
+        } catch (IOException e) {
+            throw new SauvegardeImpossible("Erreur lors de la mise à jour de la ligue : " + e.getMessage(), e);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void update(Employe employe) throws SauvegardeImpossible {
+        update(employe, employe.getChampsModifies());
+    }
+
+    /**
+     * Seuls les champs indiqués sont réécrits dans l'enregistrement.
+     */
+    @Override
+    public void update(Employe employe, Set<Employe.Champ> champs) throws SauvegardeImpossible {
+        if (champs.isEmpty()) {
+            return; // Rien à écrire
+        }
+        verrou.writeLock().lock();
+        try {
+            ecrireChamps(employe.getId(), employe, champs);
+        } catch (IOException e) {
+            throw new SauvegardeImpossible("Erreur lors de la mise à jour de l'employé : " + e.getMessage(), e);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(Employe employe) throws SauvegardeImpossible {
+        verrou.writeLock().lock();
+        try {
+            int position = positionEmploye(employe.getId());
+            String mail = lireChaine(employes.carte.getInt(position + E_MAIL));
+            if (mail != null) {
+                desindexer(mail, employe.getId());
+            }
+            employes.carte.put(position + E_ETAT, LIBRE);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Le lien d'administrateur d'une autre ligue vers un employé supprimé est ignoré au chargement.
+     */
+    @Override
+    public void delete(Ligue ligue) throws SauvegardeImpossible {
+        verrou.writeLock().lock();
+        try {
+            ligues.carte.put(positionLigue(ligue.getId()) + L_ETAT, LIBRE);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Employe getEmployeByNom(String nom) throws SauvegardeImpossible {
+        for (Employe employe : gestionPersonnel.getInstantane().getEmployes()) {
+            if (employe.getNom().equals(nom)) {
+                return employe;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recherche le mail dans l'index, sans parcourir les employés.
+     */
+    @Override
+    public Employe getEmployeByMail(String mail) throws SauvegardeImpossible {
+        if (mail == null) {
+            return null;
+        }
+        verrou.readLock().lock();
+        try {
+            int id = chercher(mail);
+            return id != 0 ? gestionPersonnel.getEmploye(id) : null;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Employe getEmploye(int id) throws SauvegardeImpossible {
+        verrou.readLock().lock();
+        try {
+            return existe(id) ? gestionPersonnel.getEmploye(id) : null;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lit directement l'enregistrement d'un employé, sans passer par le modèle en mémoire.
+     * @param id L'ID de l'employé.
+     * @return L'enregistrement, ou null si l'employé n'existe pas.
+     */
+    public FormatBinaire.EmployeEnregistre lireEmploye(int id) {
+        verrou.readLock().lock();
+        try {
+            return lire(id);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Écrit les pages modifiées, marque l'index complet puis ferme les fichiers.
+     */
+    @Override
+    public void close() throws SauvegardeImpossible {
+        verrou.writeLock().lock();
+        try {
+            if (index == null) {
+                return; // Jamais ouvert
+            }
+            chaines.carte.force();
+            employes.carte.force();
+            ligues.carte.force();
+            index.carte.force();
+            index.carte.putInt(ENTETE_B, 1);
+            index.carte.force();
+            for (Region region : new Region[] {employes, ligues, chaines, index}) {
+                region.close();
+            }
+            index = null;
+        } catch (IOException e) {
+            throw new SauvegardeImpossible(e);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    // --- Enregistrements ---
+
+    private Path chemin(String extension) {
+        return fichier.resolveSibling(fichier.getFileName() + extension);
+    }
+
+    private int prochainIdEmploye() {
+        return employes.carte.getInt(ENTETE_A);
+    }
+
+    private int prochainIdLigue() {
+        return ligues.carte.getInt(ENTETE_A);
+    }
+
+    private static int positionEmploye(int id) {
+        return ENTETE + (id - 1) * TAILLE_EMPLOYE;
+    }
+
+    private static int positionLigue(int id) {
+        return ENTETE + (id - 1) * TAILLE_LIGUE;
+    }
+
+    private boolean existe(int id) {
+        return id >= 1 && id < prochainIdEmploye() && employes.carte.get(positionEmploye(id) + E_ETAT) == OCCUPE;
+    }
+
+    private FormatBinaire.LigueEnregistree lireLigue(int id) {
+        int position = positionLigue(id);
+        if (ligues.carte.get(position + L_ETAT) != OCCUPE) {
+            return null;
+        }
+        return new FormatBinaire.LigueEnregistree(id, lireChaine(ligues.carte.getInt(position + L_NOM)),
+                ligues.carte.getInt(position + L_ADMINISTRATEUR));
+    }
+
+    private FormatBinaire.EmployeEnregistre lire(int id) {
+        if (!existe(id)) {
+            return null;
+        }
+        MappedByteBuffer carte = employes.carte;
+        int position = positionEmploye(id);
+        int indicateurs = carte.get(position + E_INDICATEURS);
+        String password;
+        if ((indicateurs & SHA256) != 0) {
+            char[] hexadecimal = new char[2 * LONGUEUR_SHA256];
+            for (int i = 0; i < LONGUEUR_SHA256; i++) {
+                int octet = carte.get(position + E_SHA256 + i) & 0xFF;
+                hexadecimal[2 * i] = HEXADECIMAL[octet >>> 4];
+                hexadecimal[2 * i + 1] = HEXADECIMAL[octet & 0xF];
+            }
+            password = new String(hexadecimal);
+        } else {
+            password = lireChaine(carte.getInt(position + E_PASSWORD));
+        }
+        return new FormatBinaire.EmployeEnregistre(id, carte.getInt(position + E_LIGUE),
+                lireChaine(carte.getInt(position + E_NOM)), lireChaine(carte.getInt(position + E_PRENOM)),
+                lireChaine(carte.getInt(position + E_MAIL)), password,
+                date(carte.getInt(position + E_ARRIVEE)), date(carte.getInt(position + E_DEPART)),
+                (indicateurs & ROOT) != 0);
+    }
+
+    /**
+     * Écrit les champs indiqués, puis marque l'enregistrement occupé. Appelé sous le verrou d'écriture.
+     */
+    private void ecrireChamps(int id, Employe employe, Set<Employe.Champ> champs) throws SauvegardeImpossible, IOException {
+        int position = positionEmploye(id);
+        // Les chaînes d'abord : l'ajout au tas peut agrandir sa projection, pas celle des employés
+        int nom = champs.contains(Employe.Champ.NOM) ? ecrireChaine(employe.getNom()) : 0;
+        int prenom = champs.contains(Employe.Champ.PRENOM) ? ecrireChaine(employe.getPrenom()) : 0;
+        int mail = champs.contains(Employe.Champ.MAIL) ? ecrireChaine(employe.getMail()) : 0;
+        MappedByteBuffer carte = employes.carte;
+        int indicateurs = carte.get(position + E_INDICATEURS);
+        if (champs.contains(Employe.Champ.NOM)) {
+            carte.putInt(position + E_NOM, nom);
+        }
+        if (champs.contains(Employe.Champ.PRENOM)) {
+            carte.putInt(position + E_PRENOM, prenom);
+        }
+        if (champs.contains(Employe.Champ.MAIL)) {
+            String ancien = lireChaine(carte.getInt(position + E_MAIL));
+            if (ancien != null) {
+                desindexer(ancien, id);
+            }
+            carte.putInt(position + E_MAIL, mail);
+            if (employe.getMail() != null) {
+                indexer(employe.getMail(), id);
+            }
+        }
+        if (champs.contains(Employe.Champ.PASSWORD)) {
+            String hache = hashPassword(employe.getPassword());
+            if (FormatBinaire.estSha256(hache)) {
+                for (int i = 0; i < LONGUEUR_SHA256; i++) {
+                    carte.put(position + E_SHA256 + i, (byte) Integer.parseInt(hache.substring(2 * i, 2 * i + 2), 16));
+                }
+                indicateurs |= SHA256;
+            } else {
+                carte.putInt(position + E_PASSWORD, ecrireChaine(hache));
+                indicateurs &= ~SHA256;
+            }
+        }
+        if (champs.contains(Employe.Champ.DATE_ARRIVEE)) {
+            carte.putInt(position + E_ARRIVEE, jour(employe.getDateArrivee()));
+        }
+        if (champs.contains(Employe.Champ.DATE_DEPART)) {
+            carte.putInt(position + E_DEPART, jour(employe.getDateDepart()));
+        }
+        if (champs.contains(Employe.Champ.LIGUE)) {
+            carte.putInt(position + E_LIGUE, employe.getLigue() != null ? employe.getLigue().getId() : -1);
+        }
+        if (champs.contains(Employe.Champ.ROOT)) {
+            indicateurs = employe.estRoot() ? indicateurs | ROOT : indicateurs & ~ROOT;
+        }
+        carte.put(position + E_INDICATEURS, (byte) indicateurs);
+        carte.put(position + E_ETAT, OCCUPE);
+    }
+
+    private static int jour(LocalDate date) {
+        return date != null ? (int) date.toEpochDay() : SANS_DATE;
+    }
+
+    private static LocalDate date(int jour) {
+        return jour != SANS_DATE ? LocalDate.ofEpochDay(jour) : null;
+    }
+
+    // --- Tas des chaînes ---
+
+    /**
+     * Ajoute une chaîne à la fin du tas. Appelé sous le verrou d'écriture.
+     * @return La position de la chaîne, ou 0 pour null.
+     */
+    private int ecrireChaine(String chaine) throws IOException {
+        if (chaine == null) {
+            return 0;
+        }
+        byte[] utf8 = chaine.getBytes(StandardCharsets.UTF_8);
+        int position = chaines.carte.getInt(ENTETE_A);
+        chaines.reserver((long) position + 4 + utf8.length);
+        chaines.carte.putInt(position, utf8.length);
+        ByteBuffer vue = chaines.carte.duplicate();
+        vue.position(position + 4);
+        vue.put(utf8);
+        chaines.carte.putInt(ENTETE_A, position + 4 + utf8.length);
+        return position;
+    }
+
+    private String lireChaine(int position) {
+        if (position == 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[chaines.carte.getInt(position)];
+        ByteBuffer vue = chaines.carte.duplicate();
+        vue.position(position + 4);
+        vue.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    // --- Index des mails ---
+
+    /**
+     * Mail normalisé comme dans l'index de GestionPersonnel : l'index est insensible à la casse,
+     * le tas garde le mail tel qu'il a été saisi.
+     */
+    private static String normaliserMail(String mail) {
+        return mail.toLowerCase(Locale.ROOT);
+    }
+
+    private static int hachage(String mail) {
+        int h = normaliserMail(mail).hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int nombreAlveoles() {
+        return (index.carte.capacity() - ENTETE) / TAILLE_ALVEOLE;
+    }
+
+    /**
+     * @return L'ID de l'employé ayant ce mail, ou 0.
+     */
+    private int chercher(String mail) {
+        String cle = normaliserMail(mail);
+        int hachage = hachage(mail);
+        int masque = nombreAlveoles() - 1;
+        for (int i = hachage & masque; ; i = (i + 1) & masque) {
+            int position = ENTETE + i * TAILLE_ALVEOLE;
+            int id = index.carte.getInt(position + 4);
+            if (id == ALVEOLE_LIBRE) {
+                return 0;
+            }
+            // Le hachage écarte presque toutes les collisions sans lire le tas
+            if (id != ALVEOLE_SUPPRIMEE && index.carte.getInt(position) == hachage
+                    && cle.equals(normaliserMail(lireChaine(employes.carte.getInt(positionEmploye(id) + E_MAIL))))) {
+                return id;
+            }
+        }
+    }
+
+    private void indexer(String mail, int id) throws IOException {
+        // Au plus une alvéole sur deux utilisée (supprimées comprises) : les sondages restent courts
+        if (2 * (index.carte.getInt(ENTETE_A) + 1) > nombreAlveoles()) {
+            reconstruireIndex(false);
+        }
+        int hachage = hachage(mail);
+        int masque = nombreAlveoles() - 1;
+        int i = hachage & masque;
+        while (index.carte.getInt(ENTETE + i * TAILLE_ALVEOLE + 4) > 0) {
+            i = (i + 1) & masque;
+        }
+        int position = ENTETE + i * TAILLE_ALVEOLE;
+        if (index.carte.getInt(position + 4) == ALVEOLE_LIBRE) {
+            index.carte.putInt(ENTETE_A, index.carte.getInt(ENTETE_A) + 1);
+        }
+        index.carte.putInt(position, hachage);
+        index.carte.putInt(position + 4, id);
+    }
+
+    private void desindexer(String mail, int id) {
+        int hachage = hachage(mail);
+        int masque = nombreAlveoles() - 1;
+        for (int i = hachage & masque; ; i = (i + 1) & masque) {
+            int position = ENTETE + i * TAILLE_ALVEOLE;
+            int alveole = index.carte.getInt(position + 4);
+            if (alveole == ALVEOLE_LIBRE) {
+                return;
+            }
+            if (alveole == id) {
+                index.carte.putInt(position + 4, ALVEOLE_SUPPRIMEE);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Réécrit l'index sans alvéoles supprimées, agrandi pour rester au plus au quart plein.
+     * @param depuisEnregistrements Vrai pour relire les mails des employés plutôt que l'index existant.
+     */
+    private void reconstruireIndex(boolean depuisEnregistrements) throws IOException {
+        List<int[]> entrees = new ArrayList<>();
+        if (depuisEnregistrements) {
+            for (int id = 1; id < prochainIdEmploye(); id++) {
+                String mail = existe(id) ? lireChaine(employes.carte.getInt(positionEmploye(id) + E_MAIL)) : null;
+                if (mail != null) {
+                    entrees.add(new int[] {hachage(mail), id});
+                }
+            }
+        } else {
+            for (int i = 0; i < nombreAlveoles(); i++) {
+                int position = ENTETE + i * TAILLE_ALVEOLE;
+                if (index.carte.getInt(position + 4) > 0) {
+                    entrees.add(new int[] {index.carte.getInt(position), index.carte.getInt(position + 4)});
+                }
+            }
+        }
+        int alveoles = Math.max(ALVEOLES_INITIALES, Integer.highestOneBit(Math.max(1, entrees.size() * 4 - 1)) << 1);
+        if (alveoles > nombreAlveoles()) {
+            index.agrandir(ENTETE + (long) alveoles * TAILLE_ALVEOLE);
+        }
+        int masque = nombreAlveoles() - 1;
+        for (int position = ENTETE; position < index.carte.capacity(); position += 4) {
+            index.carte.putInt(position, 0);
+        }
+        for (int[] entree : entrees) {
+            int i = entree[0] & masque;
+            while (index.carte.getInt(ENTETE + i * TAILLE_ALVEOLE + 4) != ALVEOLE_LIBRE) {
+                i = (i + 1) & masque;
+            }
+            index.carte.putInt(ENTETE + i * TAILLE_ALVEOLE, entree[0]);
+            index.carte.putInt(ENTETE + i * TAILLE_ALVEOLE + 4, entree[1]);
+        }
+        index.carte.putInt(ENTETE_A, entrees.size());
+    }
+
+    /**
+     * Fichier projeté en mémoire, agrandi à la demande.
+     */
+    private static final class Region implements Closeable {
+        private final Path chemin;
+        private final FileChannel canal;
+        MappedByteBuffer carte;
+
+        /**
+         * @param valeurInitiale Valeur du premier entier propre au fichier, s'il est créé.
+         */
+        Region(Path chemin, int tailleInitiale, int valeurInitiale) throws IOException {
+            this.chemin = chemin;
+            canal = FileChannel.open(chemin, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean nouveau = canal.size() == 0;
+            carte = canal.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(canal.size(), tailleInitiale));
+            if (nouveau) {
+                carte.putInt(0, MAGIC);
+                carte.putInt(4, VERSION);
+                carte.putInt(ENTETE_A, valeurInitiale);
+            } else if (carte.getInt(0) != MAGIC || carte.getInt(4) != VERSION) {
+                canal.close();
+                throw new IOException(chemin + " n'est pas un fichier de stockage projeté de version " + VERSION + ".");
+            }
+        }
+
+        /**
+         * Agrandit la projection, en la doublant, pour qu'elle contienne au moins taille octets.
+         */
+        void reserver(long taille) throws IOException {
+            if (taille > carte.capacity()) {
+                agrandir(Math.max(2L * carte.capacity(), taille));
+            }
+        }
+
+        void agrandir(long taille) throws IOException {
+            if (taille > Integer.MAX_VALUE) {
+                throw new IOException(chemin + " dépasserait 2 Go.");
+            }
+            carte = canal.map(FileChannel.MapMode.READ_WRITE, 0, taille); // Le fichier est agrandi à la taille projetée
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
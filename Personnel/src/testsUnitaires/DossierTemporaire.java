@@ -0,0 +1,54 @@
+package testsUnitaires;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dossier temporaire des tests des passerelles fichier, supprimé avec son contenu à la fermeture.
+ */
+final class DossierTemporaire implements AutoCloseable
+{
+	private final Path chemin;
+
+	DossierTemporaire(String prefixe) throws IOException
+	{
+		chemin = Files.createTempDirectory(prefixe);
+	}
+
+	Path resolve(String nom)
+	{
+		return chemin.resolve(nom);
+	}
+
+	/**
+	 * @param motif Motif des noms de fichiers, par exemple "*.journal".
+	 * @return Les noms des fichiers du dossier correspondant au motif, triés.
+	 */
+	List<String> lister(String motif) throws IOException
+	{
+		List<String> noms = new ArrayList<>();
+		try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(chemin, motif))
+		{
+			for (Path fichier : fichiers)
+				noms.add(fichier.getFileName().toString());
+		}
+		Collections.sort(noms);
+		return noms;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(chemin))
+		{
+			for (Path fichier : fichiers)
+				Files.delete(fichier);
+		}
+		Files.delete(chemin);
+	}
+}
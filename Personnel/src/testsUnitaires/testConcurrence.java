@@ -0,0 +1,107 @@
+package testsUnitaires;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import personnel.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test de charge des écritures concurrentes : chaque thread modifie les employés de sa propre ligue,
+ * le débit (écritures par seconde) est affiché pour 1, 2, 4 et 8 threads.
+ */
+class testConcurrence {
+
+    private static final int NOMBRE_LIGUES = 8, EMPLOYES_PAR_LIGUE = 5, ECRITURES_PAR_THREAD = 200;
+    private static final int[] NOMBRES_THREADS = {1, 2, 4, 8};
+
+    private GestionPersonnel gestionPersonnel;
+    private List<Ligue> ligues;
+
+    @BeforeEach
+    void setUp() throws SauvegardeImpossible {
+        gestionPersonnel = GestionPersonnel.getGestionPersonnel();
+        ligues = new ArrayList<>();
+        long suffixe = System.nanoTime();
+        for (int i = 0; i < NOMBRE_LIGUES; i++) {
+            Ligue ligue = gestionPersonnel.addLigue("Charge " + i + " " + suffixe);
+            for (int j = 0; j < EMPLOYES_PAR_LIGUE; j++) {
+                ligue.addEmploye("Charge" + j, "Ligue" + i, "charge." + i + "." + j + "." + suffixe + "@test.com", "password", null, null);
+            }
+            ligues.add(ligue);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SauvegardeImpossible {
+        for (Ligue ligue : ligues) {
+            ligue.remove();
+        }
+    }
+
+    // Débit d'écriture selon le nombre de threads, chacun sur sa ligue
+    @Test
+    void testDebitSelonNombreDeThreads() throws Exception {
+        for (int nombreThreads : NOMBRES_THREADS) {
+            ExecutorService executeur = Executors.newFixedThreadPool(nombreThreads);
+            List<Future<?>> taches = new ArrayList<>();
+            long debut = System.nanoTime();
+            for (int t = 0; t < nombreThreads; t++) {
+                List<Employe> employes = new ArrayList<>(ligues.get(t % NOMBRE_LIGUES).getEmployes());
+                taches.add(executeur.submit(() -> {
+                    for (int i = 0; i < ECRITURES_PAR_THREAD; i++) {
+                        employes.get(i % employes.size()).setPrenom("Essai" + i);
+                    }
+                    return null;
+                }));
+            }
+            executeur.shutdown();
+            assertTrue(executeur.awaitTermination(2, TimeUnit.MINUTES), "Les écritures doivent se terminer (pas d'interblocage).");
+            for (Future<?> tache : taches) {
+                tache.get(); // Relance une éventuelle erreur d'un thread
+            }
+            double secondes = (System.nanoTime() - debut) / 1e9;
+            System.out.printf("%d thread(s) : %.0f écritures/s%n", nombreThreads, nombreThreads * ECRITURES_PAR_THREAD / secondes);
+        }
+        for (Ligue ligue : ligues) {
+            assertEquals(EMPLOYES_PAR_LIGUE, ligue.getEmployes().size(), "Aucun employé ne doit être perdu.");
+        }
+    }
+
+    // Transferts croisés entre deux ligues : les verrous sont pris dans un ordre fixe
+    @Test
+    void testTransfertsCroisesSansInterblocage() throws Exception {
+        Ligue a = ligues.get(0), b = ligues.get(1);
+        List<Employe> depuisA = new ArrayList<>(a.getEmployes());
+        List<Employe> depuisB = new ArrayList<>(b.getEmployes());
+        ExecutorService executeur = Executors.newFixedThreadPool(2);
+        Future<?> versB = executeur.submit(() -> {
+            for (int i = 0; i < 20; i++) {
+                for (Employe employe : depuisA) {
+                    employe.setLigue(i % 2 == 0 ? b : a);
+                }
+            }
+            return null;
+        });
+        Future<?> versA = executeur.submit(() -> {
+            for (int i = 0; i < 20; i++) {
+                for (Employe employe : depuisB) {
+                    employe.setLigue(i % 2 == 0 ? a : b);
+                }
+            }
+            return null;
+        });
+        executeur.shutdown();
+        assertTrue(executeur.awaitTermination(2, TimeUnit.MINUTES), "Les transferts croisés ne doivent pas s'interbloquer.");
+        versB.get();
+        versA.get();
+        assertEquals(2 * EMPLOYES_PAR_LIGUE, a.getEmployes().size() + b.getEmployes().size(), "Aucun employé ne doit être perdu.");
+    }
+}
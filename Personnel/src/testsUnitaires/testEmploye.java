@@ -79,6 +79,30 @@ class testEmploye {
         }, "Une DateIncoherenteException doit être levée si la date de départ est avant la date d'arrivée.");
     }
 
+    // Test de la modification groupée
+    @Test
+    void testModifier() throws SauvegardeImpossible {
+        employe.modifier().nom("Martin").prenom("Alice").mail("a.martin@gmail.com").appliquer();
+        assertEquals("Martin", employe.getNom(), "Le nom de l'employé doit être mis à jour.");
+        assertEquals("Alice", employe.getPrenom(), "Le prénom de l'employé doit être mis à jour.");
+        assertEquals(employe, gestionPersonnel.getEmploye("a.martin@gmail.com"), "L'employé doit être trouvé par son nouveau mail.");
+    }
+
+    @Test
+    void testModifierInvalideSansEffet() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            employe.modifier().nom("Martin").password("  ").appliquer();
+        }, "Un mot de passe vide doit être refusé.");
+        assertEquals("Dupont", employe.getNom(), "Aucun champ ne doit être modifié si la validation échoue.");
+    }
+
+    // Test du suivi des champs modifiés
+    @Test
+    void testChampsModifiesEnregistres() throws SauvegardeImpossible {
+        employe.setNom("Martin");
+        assertTrue(employe.getChampsModifies().isEmpty(), "Les champs enregistrés ne doivent plus être marqués comme modifiés.");
+    }
+
     // Test de la suppression d'un employé
     @Test
     void testRemoveEmploye() {
@@ -0,0 +1,176 @@
+package testsUnitaires;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import serialisation.Compression;
+import serialisation.FormatBinaire;
+import serialisation.FormatBinaire.Contenu;
+import serialisation.FormatBinaire.EmployeEnregistre;
+import serialisation.FormatBinaire.LigueEnregistree;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class testFormatBinaire
+{
+	private static final int NOMBRE_LIGUES = 100, NOMBRE_EMPLOYES = 100_000, REPETITIONS = 5;
+
+	@Test
+	void allerRetour() throws IOException
+	{
+		List<LigueEnregistree> ligues = Arrays.asList(
+				new LigueEnregistree(3, "Fléchettes", 7),
+				new LigueEnregistree(1, "Échecs", -1));
+		List<EmployeEnregistre> employes = Arrays.asList(
+				new EmployeEnregistre(1, -1, "root", "root", "root", "haché", LocalDate.of(2020, 1, 1), null, true),
+				new EmployeEnregistre(7, 3, "Dupont", "Zoé", "zoe@test.com", "5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8", LocalDate.of(1965, 5, 2), LocalDate.of(2030, 12, 31), false),
+				new EmployeEnregistre(200_000, 1, "Dupont", null, null, "abc", null, null, false));
+		Contenu lu = FormatBinaire.decoder(FormatBinaire.encoder(new Contenu(4, 200_001, ligues, employes)));
+
+		assertEquals(4, lu.getProchainIdLigue());
+		assertEquals(200_001, lu.getProchainIdEmploye());
+		assertEquals(1, lu.getLigues().get(0).getId()); // Triées par ID
+		assertEquals("Échecs", lu.getLigues().get(0).getNom());
+		assertEquals(-1, lu.getLigues().get(0).getAdministrateurId());
+		assertEquals(7, lu.getLigues().get(1).getAdministrateurId());
+
+		EmployeEnregistre root = lu.getEmployes().get(0);
+		assertTrue(root.estRoot());
+		assertEquals(-1, root.getLigueId());
+		assertEquals("haché", root.getPassword());
+		assertNull(root.getDateDepart());
+
+		EmployeEnregistre zoe = lu.getEmployes().get(1);
+		assertFalse(zoe.estRoot());
+		assertEquals(3, zoe.getLigueId());
+		assertEquals("Zoé", zoe.getPrenom());
+		assertEquals("5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8", zoe.getPassword()); // Écrit sur 32 octets
+		assertEquals(LocalDate.of(1965, 5, 2), zoe.getDateArrivee());
+		assertEquals(LocalDate.of(2030, 12, 31), zoe.getDateDepart());
+
+		EmployeEnregistre dernier = lu.getEmployes().get(2);
+		assertEquals(200_000, dernier.getId());
+		assertNull(dernier.getPrenom());
+		assertNull(dernier.getMail());
+		assertEquals("abc", dernier.getPassword());
+		assertSame(zoe.getNom(), dernier.getNom()); // Chaîne partagée par la table
+	}
+
+	@Test
+	void corruptionDetectee()
+	{
+		byte[] octets = FormatBinaire.encoder(new Contenu(2, 2, Collections.singletonList(new LigueEnregistree(1, "Boules", -1)),
+				Collections.emptyList()));
+		octets[octets.length / 2] ^= 1;
+		assertThrows(IOException.class, () -> FormatBinaire.decoder(octets));
+		assertThrows(IOException.class, () -> FormatBinaire.decoder(Arrays.copyOf(octets, 6)));
+	}
+
+	// Comparaison avec ObjectOutputStream sur 100 000 employés : les temps et tailles sont affichés
+	@Test
+	void comparaisonAvecObjectOutputStream() throws Exception
+	{
+		Contenu contenu = jeuDeDonnees();
+		long ecritureBinaire = Long.MAX_VALUE, lectureBinaire = Long.MAX_VALUE;
+		long ecritureObjet = Long.MAX_VALUE, lectureObjet = Long.MAX_VALUE;
+		byte[] binaire = null, objet = null;
+		for (int i = 0; i < REPETITIONS; i++)
+		{
+			long debut = System.nanoTime();
+			binaire = FormatBinaire.encoder(contenu);
+			ecritureBinaire = Math.min(ecritureBinaire, System.nanoTime() - debut);
+
+			debut = System.nanoTime();
+			assertEquals(NOMBRE_EMPLOYES, FormatBinaire.decoder(binaire).getEmployes().size());
+			lectureBinaire = Math.min(lectureBinaire, System.nanoTime() - debut);
+
+			debut = System.nanoTime();
+			ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+			try (ObjectOutputStream oos = new ObjectOutputStream(sortie))
+			{
+				oos.writeObject(contenu);
+			}
+			objet = sortie.toByteArray();
+			ecritureObjet = Math.min(ecritureObjet, System.nanoTime() - debut);
+
+			debut = System.nanoTime();
+			try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(objet)))
+			{
+				assertEquals(NOMBRE_EMPLOYES, ((Contenu) ois.readObject()).getEmployes().size());
+			}
+			lectureObjet = Math.min(lectureObjet, System.nanoTime() - debut);
+		}
+		System.out.printf("ObjectOutputStream : %d Ko, écriture %d ms, lecture %d ms%n",
+				objet.length / 1024, ecritureObjet / 1_000_000, lectureObjet / 1_000_000);
+		System.out.printf("FormatBinaire      : %d Ko, écriture %d ms, lecture %d ms%n",
+				binaire.length / 1024, ecritureBinaire / 1_000_000, lectureBinaire / 1_000_000);
+		assertTrue(binaire.length < objet.length);
+	}
+
+	// Taux de compression et débits par codec sur 100 000 employés : les résultats sont affichés
+	@Test
+	void compressionParBlocs() throws IOException
+	{
+		Contenu contenu = jeuDeDonnees();
+		Path dossier = Files.createTempDirectory("compression");
+		long tailleOrigine = FormatBinaire.encoder(contenu).length;
+		long tailleNonCompressee = 0, tailleDeflate = 0;
+		for (Compression compression : Compression.values())
+		{
+			Path fichier = dossier.resolve(compression.name());
+			long ecriture = Long.MAX_VALUE, lecture = Long.MAX_VALUE;
+			for (int i = 0; i < REPETITIONS; i++)
+			{
+				long debut = System.nanoTime();
+				FormatBinaire.ecrire(contenu, fichier, compression);
+				ecriture = Math.min(ecriture, System.nanoTime() - debut);
+
+				debut = System.nanoTime();
+				Contenu lu = FormatBinaire.lire(fichier);
+				lecture = Math.min(lecture, System.nanoTime() - debut);
+				assertEquals(NOMBRE_EMPLOYES, lu.getEmployes().size());
+				assertEquals("employe77@test.com", lu.getEmployes().get(76).getMail());
+			}
+			long taille = Files.size(fichier);
+			if (compression == Compression.AUCUNE)
+				tailleNonCompressee = taille;
+			else
+				tailleDeflate = taille;
+			System.out.printf("%-7s : %d Ko, taux %.2f, écriture %d ms (%.0f Mo/s), lecture %d ms (%.0f Mo/s)%n",
+					compression, taille / 1024, (double) tailleOrigine / taille,
+					ecriture / 1_000_000, tailleOrigine * 1000.0 / ecriture, lecture / 1_000_000, tailleOrigine * 1000.0 / lecture);
+			Files.delete(fichier);
+		}
+		assertEquals(tailleOrigine, tailleNonCompressee); // Sans compression, le fichier est écrit tel quel
+		assertTrue(tailleDeflate < tailleNonCompressee);
+		Files.delete(dossier);
+	}
+
+	private static Contenu jeuDeDonnees()
+	{
+		String[] noms = {"Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit", "Durand"};
+		String[] prenoms = {"Léa", "Hugo", "Chloé", "Louis", "Emma", "Jules", "Inès", "Adam"};
+		List<LigueEnregistree> ligues = new ArrayList<>();
+		for (int i = 1; i <= NOMBRE_LIGUES; i++)
+			ligues.add(new LigueEnregistree(i, "Ligue " + i, NOMBRE_LIGUES + i));
+		List<EmployeEnregistre> employes = new ArrayList<>();
+		LocalDate debut = LocalDate.of(2000, 1, 1);
+		for (int i = 1; i <= NOMBRE_EMPLOYES; i++)
+			employes.add(new EmployeEnregistre(NOMBRE_LIGUES + i, 1 + i % NOMBRE_LIGUES, noms[i % noms.length],
+					prenoms[(i / noms.length) % prenoms.length], "employe" + i + "@test.com",
+					String.format("%08x", i * 0x9E3779B1) + "5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8".substring(8),
+					debut.plusDays(i % 7000), i % 3 == 0 ? debut.plusDays(7000 + i % 365) : null, false));
+		return new Contenu(NOMBRE_LIGUES + 1, NOMBRE_LIGUES + NOMBRE_EMPLOYES + 1, ligues, employes);
+	}
+}
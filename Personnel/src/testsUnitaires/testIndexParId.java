@@ -0,0 +1,49 @@
+package testsUnitaires;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import personnel.IndexParId;
+
+class testIndexParId
+{
+	@Test
+	void putEtGet()
+	{
+		IndexParId<String> index = new IndexParId<>();
+		index.put(1, "un");
+		index.put(42, "quarante-deux");
+		assertEquals("un", index.get(1));
+		assertEquals("quarante-deux", index.get(42));
+		assertNull(index.get(7));
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	void remplacement()
+	{
+		IndexParId<String> index = new IndexParId<>();
+		index.put(5, "a");
+		assertEquals("a", index.put(5, "b"));
+		assertEquals("b", index.get(5));
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void suppressionEtAgrandissement()
+	{
+		IndexParId<Integer> index = new IndexParId<>();
+		for (int i = 1; i <= 10_000; i++)
+			index.put(i, i);
+		for (int i = 1; i <= 10_000; i += 2)
+			assertEquals(Integer.valueOf(i), index.remove(i));
+		assertEquals(5_000, index.size());
+		for (int i = 1; i <= 10_000; i++)
+		{
+			if (i % 2 == 0)
+				assertEquals(Integer.valueOf(i), index.get(i));
+			else
+				assertNull(index.get(i));
+		}
+	}
+}
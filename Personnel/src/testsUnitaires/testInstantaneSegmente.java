@@ -0,0 +1,75 @@
+package testsUnitaires;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import personnel.Employe;
+import personnel.GestionPersonnel;
+import personnel.Ligue;
+import personnel.SauvegardeImpossible;
+import serialisation.Serialization;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Instantané découpé par ligue : à chaque compaction, seuls les segments des ligues modifiées
+ * sont réécrits, et le modèle relu depuis le manifeste est complet.
+ */
+class testInstantaneSegmente
+{
+	private Serialization serialisation;
+
+	@Test
+	void reecritureDifferentielle() throws Exception
+	{
+		try (DossierTemporaire dossier = new DossierTemporaire("segments"))
+		{
+			Path fichier = dossier.resolve("personnel.bin");
+			GestionPersonnel gestionPersonnel = charger(fichier);
+			Ligue echecs = gestionPersonnel.addLigue("Échecs");
+			Ligue boules = gestionPersonnel.addLigue("Boules");
+			Ligue flechettes = gestionPersonnel.addLigue("Fléchettes");
+			gestionPersonnel.addEmploye(echecs, "Dupont", "Zoé", "zoe@test.com", "azerty", null, null);
+			Employe leo = gestionPersonnel.addEmploye(boules, "Martin", "Léo", "leo@test.com", "azerty", null, null);
+			gestionPersonnel.addEmploye(flechettes, "Petit", "Inès", "ines@test.com", "azerty", null, null);
+			serialisation.compacter();
+			List<String> premiers = dossier.lister("*.segment");
+			assertTrue(premiers.contains(segment(echecs, 1)));
+			assertTrue(premiers.contains(segment(boules, 1)));
+			assertTrue(premiers.contains(segment(flechettes, 1)));
+			assertTrue(premiers.contains("personnel.bin.sans-ligue.1.segment")); // Le root
+
+			leo.setPrenom("Léon");
+			flechettes.remove();
+			serialisation.compacter();
+			// Segment inchangé conservé tel quel, segments remplacés ou supprimés effacés
+			List<String> attendus = Arrays.asList(segment(echecs, 1), segment(boules, 2), "personnel.bin.sans-ligue.1.segment");
+			attendus.sort(null);
+			assertEquals(attendus, dossier.lister("*.segment"));
+			serialisation.close();
+
+			GestionPersonnel relu = charger(fichier);
+			assertEquals("Zoé", relu.getEmploye("zoe@test.com").getPrenom());
+			assertEquals("Léon", relu.getEmploye("leo@test.com").getPrenom());
+			assertNull(relu.getLigue("Fléchettes"));
+			assertNull(relu.getEmploye("ines@test.com"));
+			assertEquals(2, relu.getLigues().size());
+			serialisation.close();
+		}
+	}
+
+	private static String segment(Ligue ligue, long generation)
+	{
+		return "personnel.bin.ligue-" + ligue.getId() + "." + generation + ".segment";
+	}
+
+	/**
+	 * Charge un nouveau modèle depuis le fichier, indépendant de l'instance unique.
+	 */
+	private GestionPersonnel charger(Path fichier) throws SauvegardeImpossible
+	{
+		return GestionPersonnel.charger(gestionPersonnel -> serialisation = new Serialization(gestionPersonnel, fichier));
+	}
+}
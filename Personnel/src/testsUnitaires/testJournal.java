@@ -0,0 +1,156 @@
+package testsUnitaires;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import personnel.Employe;
+import personnel.GestionPersonnel;
+import personnel.Ligue;
+import personnel.SauvegardeImpossible;
+import serialisation.Serialization;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Journal de la passerelle Serialization : chaque test écrit dans un dossier temporaire,
+ * recharge un nouveau modèle depuis les fichiers et vérifie l'état relu.
+ */
+class testJournal
+{
+	private Serialization serialisation;
+
+	@Test
+	void relectureApresFermeture() throws Exception
+	{
+		try (DossierTemporaire dossier = new DossierTemporaire("journal"))
+		{
+			Path fichier = dossier.resolve("personnel.bin");
+			GestionPersonnel gestionPersonnel = charger(fichier);
+			Ligue ligue = gestionPersonnel.addLigue("Échecs");
+			Employe zoe = gestionPersonnel.addEmploye(ligue, "Dupont", "Zoé", "zoe@test.com", "azerty", LocalDate.of(2020, 1, 2), null);
+			gestionPersonnel.addEmploye(ligue, "Martin", "Léo", "leo@test.com", "azerty", null, null).remove();
+			ligue.setAdministrateur(zoe);
+			zoe.setPrenom("Zoë");
+			serialisation.close();
+
+			GestionPersonnel relu = charger(fichier);
+			Ligue ligueRelue = relu.getLigue("Échecs");
+			assertNotNull(ligueRelue);
+			Employe zoeRelue = relu.getEmploye("zoe@test.com");
+			assertEquals("Zoë", zoeRelue.getPrenom());
+			assertEquals(LocalDate.of(2020, 1, 2), zoeRelue.getDateArrivee());
+			assertSame(zoeRelue, ligueRelue.getAdministrateur());
+			assertNull(relu.getEmploye("leo@test.com"));
+			serialisation.close();
+		}
+	}
+
+	// Arrêt brutal : le journal n'est pas fermé, seules les écritures confirmées comptent
+	@Test
+	void relectureSansFermeture() throws Exception
+	{
+		try (DossierTemporaire dossier = new DossierTemporaire("journal"))
+		{
+			Path fichier = dossier.resolve("personnel.bin");
+			GestionPersonnel gestionPersonnel = charger(fichier);
+			Ligue ligue = gestionPersonnel.addLigue("Boules");
+			gestionPersonnel.addEmploye(ligue, "Petit", "Inès", "ines@test.com", "azerty", null, null);
+
+			GestionPersonnel relu = charger(fichier);
+			assertEquals(0, serialisation.getOctetsIgnores());
+			assertNotNull(relu.getLigue("Boules"));
+			assertEquals("Inès", relu.getEmploye("ines@test.com").getPrenom());
+			serialisation.close();
+		}
+	}
+
+	// Fin de journal écrite en partie (enregistrement tronqué, puis zéros) : ignorée, puis écrasée
+	@Test
+	void finTronqueeIgnoree() throws Exception
+	{
+		try (DossierTemporaire dossier = new DossierTemporaire("journal"))
+		{
+			Path fichier = dossier.resolve("personnel.bin");
+			GestionPersonnel gestionPersonnel = charger(fichier);
+			gestionPersonnel.addLigue("Fléchettes");
+			serialisation.close();
+			Path journal = dossier.resolve(dossier.lister("*.journal").get(0));
+			long taille = Files.size(journal);
+
+			Files.write(journal, new byte[] {40, 1, 2}, StandardOpenOption.APPEND);
+			GestionPersonnel relu = charger(fichier);
+			assertNotNull(relu.getLigue("Fléchettes"));
+			assertEquals(3, serialisation.getOctetsIgnores());
+			assertEquals(taille, Files.size(journal)); // Fin non confirmée tronquée à l'ouverture
+			relu.addLigue("Tir à l'arc");
+			serialisation.close();
+
+			Files.write(journal, new byte[64], StandardOpenOption.APPEND);
+			relu = charger(fichier);
+			assertEquals(64, serialisation.getOctetsIgnores());
+			assertNotNull(relu.getLigue("Fléchettes"));
+			assertNotNull(relu.getLigue("Tir à l'arc"));
+			serialisation.close();
+		}
+	}
+
+	// Un enregistrement corrompu suivi d'autres n'est pas une fin tronquée : le chargement échoue
+	@Test
+	void corruptionRefusee() throws Exception
+	{
+		try (DossierTemporaire dossier = new DossierTemporaire("journal"))
+		{
+			Path fichier = dossier.resolve("personnel.bin");
+			GestionPersonnel gestionPersonnel = charger(fichier);
+			gestionPersonnel.addLigue("Échecs");
+			gestionPersonnel.addLigue("Boules");
+			serialisation.close();
+			Path journal = dossier.resolve(dossier.lister("*.journal").get(0));
+			byte[] octets = Files.readAllBytes(journal);
+			octets[8] ^= 1; // Dans le premier enregistrement, après l'en-tête
+			Files.write(journal, octets);
+
+			assertThrows(SauvegardeImpossible.class, () -> charger(fichier));
+		}
+	}
+
+	// Les journaux intégrés à l'instantané sont supprimés, les suivants sont rejoués par-dessus
+	@Test
+	void rejeuApresCompaction() throws Exception
+	{
+		try (DossierTemporaire dossier = new DossierTemporaire("journal"))
+		{
+			Path fichier = dossier.resolve("personnel.bin");
+			GestionPersonnel gestionPersonnel = charger(fichier);
+			Ligue ligue = gestionPersonnel.addLigue("Échecs");
+			Employe zoe = gestionPersonnel.addEmploye(ligue, "Dupont", "Zoé", "zoe@test.com", "azerty", null, null);
+			List<String> avant = dossier.lister("*.journal");
+			serialisation.compacter();
+			assertTrue(Files.exists(fichier));
+			for (String journal : avant)
+				assertFalse(Files.exists(dossier.resolve(journal)));
+			zoe.setNom("Durand");
+			gestionPersonnel.addLigue("Boules");
+			serialisation.close();
+
+			GestionPersonnel relu = charger(fichier);
+			assertEquals("Durand", relu.getEmploye("zoe@test.com").getNom());
+			assertNotNull(relu.getLigue("Échecs"));
+			assertNotNull(relu.getLigue("Boules"));
+			assertEquals(1, dossier.lister("*.journal").size());
+			serialisation.close();
+		}
+	}
+
+	/**
+	 * Charge un nouveau modèle depuis le fichier, indépendant de l'instance unique.
+	 */
+	private GestionPersonnel charger(Path fichier) throws SauvegardeImpossible
+	{
+		return GestionPersonnel.charger(gestionPersonnel -> serialisation = new Serialization(gestionPersonnel, fichier));
+	}
+}
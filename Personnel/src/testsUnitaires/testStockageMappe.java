@@ -0,0 +1,87 @@
+package testsUnitaires;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import personnel.Employe;
+import personnel.GestionPersonnel;
+import personnel.Ligue;
+import personnel.SauvegardeImpossible;
+import serialisation.StockageMappe;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Stockage projeté en mémoire : chaque test écrit dans un dossier temporaire,
+ * rouvre les fichiers avec un nouveau modèle et vérifie l'état relu et l'index des mails.
+ */
+class testStockageMappe
+{
+	private StockageMappe stockage;
+
+	@Test
+	void relectureApresFermeture() throws Exception
+	{
+		try (DossierTemporaire dossier = new DossierTemporaire("mappe"))
+		{
+			Path fichier = dossier.resolve("personnel.map");
+			GestionPersonnel gestionPersonnel = charger(fichier);
+			Ligue ligue = gestionPersonnel.addLigue("Échecs");
+			Employe zoe = gestionPersonnel.addEmploye(ligue, "Dupont", "Zoé", "Zoe.Dupont@Test.com", "azerty", LocalDate.of(2020, 1, 2), null);
+			ligue.setAdministrateur(zoe);
+			stockage.close();
+
+			GestionPersonnel relu = charger(fichier);
+			assertFalse(stockage.isIndexReconstruit());
+			Employe zoeRelue = stockage.getEmployeByMail("zoe.dupont@test.com"); // Index insensible à la casse
+			assertNotNull(zoeRelue);
+			assertEquals("Zoe.Dupont@Test.com", zoeRelue.getMail()); // Mail gardé tel que saisi
+			assertEquals(LocalDate.of(2020, 1, 2), zoeRelue.getDateArrivee());
+			assertSame(zoeRelue, relu.getLigue("Échecs").getAdministrateur());
+			stockage.close();
+		}
+	}
+
+	// Arrêt brutal : l'index, marqué incomplet pendant l'ouverture, est reconstruit à partir des enregistrements
+	@Test
+	void indexReconstruitSansFermeture() throws Exception
+	{
+		try (DossierTemporaire dossier = new DossierTemporaire("mappe"))
+		{
+			Path fichier = dossier.resolve("personnel.map");
+			GestionPersonnel gestionPersonnel = charger(fichier);
+			Ligue ligue = gestionPersonnel.addLigue("Boules");
+			Employe ines = gestionPersonnel.addEmploye(ligue, "Petit", "Inès", "ines@test.com", "azerty", null, null);
+			gestionPersonnel.addEmploye(ligue, "Martin", "Léo", "leo@test.com", "azerty", null, null).remove();
+			ines.setMail("ines.petit@test.com");
+			gestionPersonnel.addEmploye(ligue, "Durand", "Adam", "adam@test.com", "azerty", null, null);
+			stockage.sauvegarderGestionPersonnel(gestionPersonnel);
+
+			// Alvéoles de l'index perdues, en-tête conservé : seule la reconstruction permet de retrouver les mails
+			try (FileChannel canal = FileChannel.open(dossier.resolve("personnel.map.index"), StandardOpenOption.WRITE))
+			{
+				canal.write(ByteBuffer.allocate((int) canal.size() - 16), 16);
+			}
+
+			charger(fichier);
+			assertTrue(stockage.isIndexReconstruit());
+			assertEquals("Inès", stockage.getEmployeByMail("INES.PETIT@test.com").getPrenom());
+			assertEquals("Adam", stockage.getEmployeByMail("adam@test.com").getPrenom());
+			assertNull(stockage.getEmployeByMail("ines@test.com"));
+			assertNull(stockage.getEmployeByMail("leo@test.com"));
+			stockage.close();
+		}
+	}
+
+	/**
+	 * Charge un nouveau modèle depuis le fichier, indépendant de l'instance unique.
+	 */
+	private GestionPersonnel charger(Path fichier) throws SauvegardeImpossible
+	{
+		return GestionPersonnel.charger(gestionPersonnel -> stockage = new StockageMappe(gestionPersonnel, fichier));
+	}
+}